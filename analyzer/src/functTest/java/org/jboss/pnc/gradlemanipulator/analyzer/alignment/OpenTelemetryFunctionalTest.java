@@ -27,6 +27,7 @@ import org.gradle.api.Project;
 import org.gradle.util.GradleVersion;
 import org.jboss.pnc.gradlemanipulator.analyzer.alignment.TestUtils.TestManipulationModel;
 import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.io.ManipulationIO;
 import org.jboss.pnc.gradlemanipulator.common.utils.FileUtils;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
 import org.jboss.pnc.mavenmanipulator.io.rest.DefaultTranslator;
@@ -237,6 +238,34 @@ public class OpenTelemetryFunctionalTest extends AbstractWiremockTest {
                         + "'benchmark-overhead-jmh' to 'opentelemetry-benchmark-overhead-jmh'");
     }
 
+    @Test
+    public void verifyOpenTelemetryJavaInstrumentationParallelResolution() throws Exception {
+        // XXX: Kotlin requirements
+        assumeTrue(GradleVersion.current().compareTo(GradleVersion.version("7.5")) >= 0);
+        assumeTrue(GradleVersion.current().compareTo(GradleVersion.version("8.10.2")) < 0);
+
+        final Map<String, String> map = new HashMap<>();
+        map.put("-DoverrideTransitive", "false");
+        map.put("-Potel.stable", "true");
+        map.put("-DignoreUnresolvableDependencies", "true");
+        map.put("-DpluginRemoval", "gradle-enterprise,io.github.gradle-nexus.publish-plugin");
+
+        final File serialRoot = tempDir.newFolder("serial", "opentelemetry-java-instrumentation");
+        final TestManipulationModel serial = TestUtils.align(serialRoot, serialRoot.getName(), map);
+        assertThat(systemOutRule.getLinesNormalized()).doesNotContainPattern("Resolving \\d+ configurations");
+
+        map.put("-DparallelConfigurationResolution", "true");
+        final File parallelRoot = tempDir.newFolder("parallel", "opentelemetry-java-instrumentation");
+        final TestManipulationModel parallel = TestUtils.align(parallelRoot, parallelRoot.getName(), map);
+
+        assertThat(systemOutRule.getLinesNormalized())
+                .containsPattern("Resolving \\d+ configurations of project :\\S* using \\d+ threads")
+                .doesNotContain("Parallel configuration resolution is not supported by");
+        assertThat(parallel.getChildren().keySet()).containsExactlyElementsOf(serial.getChildren().keySet());
+        assertThat(new File(parallelRoot, ManipulationIO.MANIPULATION_FILE_NAME))
+                .hasSameTextualContentAs(new File(serialRoot, ManipulationIO.MANIPULATION_FILE_NAME));
+    }
+
     @Test
     @Parameters({ "true", "false" })
     public void verifyOpenTelemetryKotlin2(boolean useLegacyConfigurationCopy)
@@ -6,6 +6,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static junit.framework.TestCase.assertEquals;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -608,4 +609,35 @@ public class SimpleProjectFunctionalTest extends AbstractWiremockTest {
             });
         });
     }
+
+    @Test
+    public void verifyRestCacheAvoidsLookups() throws IOException, URISyntaxException {
+        final File cacheDir = tempDir.newFolder("gme-cache");
+        final Map<String, String> gmeProps = new HashMap<>();
+        gmeProps.put("scanProjectsWithNoPublications", "true");
+        gmeProps.put("restCache", "true");
+        gmeProps.put("restCacheProjectVersions", "true");
+        gmeProps.put("restCacheDirectory", cacheDir.getAbsolutePath());
+
+        final File firstRoot = tempDir.newFolder("first", "simple-project");
+        final TestManipulationModel first = TestUtils.align(firstRoot, firstRoot.getName(), gmeProps);
+        assertThat(wireMockRule.findAll(postRequestedFor(urlMatching(".*")))).isNotEmpty();
+        assertThat(cacheDir.listFiles()).hasSize(1);
+
+        wireMockRule.resetRequests();
+
+        final File secondRoot = tempDir.newFolder("second", "simple-project");
+        final TestManipulationModel second = TestUtils.align(secondRoot, secondRoot.getName(), gmeProps);
+        verify(0, postRequestedFor(urlMatching(".*")));
+
+        assertThat(second.getVersion()).isEqualTo(first.getVersion());
+        assertThat(second.findCorrespondingChild("root").getAlignedDependencies())
+                .isEqualTo(first.findCorrespondingChild("root").getAlignedDependencies());
+
+        final String jsonString = FileUtils.readFileToString(
+                secondRoot.toPath().resolve("build").resolve(Configuration.REPORT_JSON_OUTPUT_FILE).toFile(),
+                StandardCharsets.UTF_8);
+        assertThat(jsonString).contains("\"restCache\" : {").contains("\"misses\" : 0");
+        assertThat(systemOutRule.getLinesNormalized()).contains("------------------- restCache");
+    }
 }
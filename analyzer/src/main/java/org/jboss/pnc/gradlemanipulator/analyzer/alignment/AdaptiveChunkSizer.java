@@ -0,0 +1,127 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+
+/**
+ * Chooses the number of GAVs sent in each REST request and records the size and duration of every chunk.
+ * <p>
+ * When adaptive the size is controlled AIMD style: it is increased additively (by the initial size, up to the
+ * maximum) after each successful chunk whose latency per GAV is no worse than that of the previous successful chunk,
+ * and halved (down to one) after each failed chunk. Otherwise the size remains fixed.
+ */
+final class AdaptiveChunkSizer {
+
+    private final boolean adaptive;
+
+    /**
+     * The size of the first chunk.
+     *
+     * @return the initial size
+     */
+    @Getter
+    private final int initialSize;
+
+    private final int maxSize;
+
+    private final List<Map<String, Object>> chunks = new ArrayList<>();
+
+    private int size;
+
+    private double previousLatency = Double.MAX_VALUE;
+
+    /**
+     * Creates a sizer.
+     *
+     * @param adaptive whether the size adapts to the observed latency and failures
+     * @param initialSize the size of the first chunk
+     * @param maxSize the maximum size of a chunk when adaptive
+     */
+    AdaptiveChunkSizer(boolean adaptive, int initialSize, int maxSize) {
+        this.adaptive = adaptive;
+        this.initialSize = Math.max(1, initialSize);
+        this.maxSize = Math.max(this.initialSize, maxSize);
+        this.size = this.initialSize;
+    }
+
+    /**
+     * Returns the size of the next chunk.
+     *
+     * @return the current size
+     */
+    synchronized int next() {
+        return size;
+    }
+
+    /**
+     * Sets the size of the next chunks, e.g. when the GAVs of each lookup are split evenly. This has no effect when
+     * adaptive as the size is then chosen from the observed latency and failures.
+     *
+     * @param newSize the size
+     */
+    synchronized void resize(int newSize) {
+        if (!adaptive) {
+            size = Math.max(1, newSize);
+        }
+    }
+
+    /**
+     * Records a successful chunk.
+     *
+     * @param gavs the number of GAVs in the chunk
+     * @param nanos the duration of the request
+     */
+    synchronized void success(int gavs, long nanos) {
+        record(gavs, nanos, true);
+
+        if (adaptive) {
+            final double latency = (double) nanos / gavs;
+            // Only a full sized chunk is a fair measure of whether a larger size is an improvement.
+            if (latency <= previousLatency && gavs >= size) {
+                size = Math.min(maxSize, size + initialSize);
+            }
+            previousLatency = latency;
+        }
+    }
+
+    /**
+     * Records a failed chunk (e.g. a timeout or server error).
+     *
+     * @param gavs the number of GAVs in the chunk
+     * @param nanos the duration of the request
+     */
+    synchronized void failure(int gavs, long nanos) {
+        record(gavs, nanos, false);
+
+        if (adaptive) {
+            size = Math.max(1, Math.min(size, gavs) / 2);
+            previousLatency = Double.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Returns the summary of the chunks for reporting.
+     *
+     * @return the sizes and each chunk's size, duration and outcome
+     */
+    synchronized Map<String, Object> getStatistics() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("adaptive", adaptive);
+        result.put("initialSize", initialSize);
+        result.put("finalSize", size);
+        result.put("chunks", new ArrayList<>(chunks));
+        return result;
+    }
+
+    private void record(int gavs, long nanos, boolean success) {
+        final Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("size", gavs);
+        chunk.put("millis", TimeUnit.NANOSECONDS.toMillis(nanos));
+        chunk.put("success", success);
+        chunks.add(chunk);
+    }
+}
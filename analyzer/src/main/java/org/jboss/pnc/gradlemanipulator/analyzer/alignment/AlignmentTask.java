@@ -7,6 +7,8 @@ import static org.gradle.api.Project.DEFAULT_VERSION;
 import static org.jboss.pnc.gradlemanipulator.common.io.ManipulationIO.writeManipulationModel;
 import static org.jboss.pnc.gradlemanipulator.common.utils.FileUtils.append;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
@@ -20,6 +22,7 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -27,6 +30,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -41,7 +45,9 @@ import org.apache.commons.io.filefilter.NameFileFilter;
 import org.apache.commons.io.filefilter.NotFileFilter;
 import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.apache.commons.lang3.StringUtils;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
@@ -72,9 +78,13 @@ import org.jboss.pnc.gradlemanipulator.analyzer.alignment.io.LockFileIO;
 import org.jboss.pnc.gradlemanipulator.analyzer.alignment.io.RepositoryExporter;
 import org.jboss.pnc.gradlemanipulator.analyzer.alignment.io.SettingsFileIO;
 import org.jboss.pnc.gradlemanipulator.analyzer.alignment.util.Comparator;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.util.ParallelConfigurationResolver;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.util.ResolutionDeduplicator;
+import org.jboss.pnc.gradlemanipulator.common.AlignmentTimings;
 import org.jboss.pnc.gradlemanipulator.common.Configuration;
 import org.jboss.pnc.gradlemanipulator.common.ManipulationCache;
 import org.jboss.pnc.gradlemanipulator.common.io.ManipulationIO;
+import org.jboss.pnc.gradlemanipulator.common.io.ManipulationModelCache;
 import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
 import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
 import org.jboss.pnc.gradlemanipulator.common.utils.GroovyUtils;
@@ -82,6 +92,7 @@ import org.jboss.pnc.gradlemanipulator.common.utils.OTELUtils;
 import org.jboss.pnc.gradlemanipulator.common.utils.PluginUtils.DokkaVersion;
 import org.jboss.pnc.gradlemanipulator.common.utils.ProjectUtils;
 import org.jboss.pnc.gradlemanipulator.common.versioning.DynamicVersionParser;
+import org.jboss.pnc.gradlemanipulator.common.versioning.GAVPool;
 import org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory;
 import org.jboss.pnc.gradlemanipulator.common.versioning.RelaxedProjectVersionRef;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
@@ -145,6 +156,13 @@ public class AlignmentTask extends DefaultTask {
 
     private static final String DOKKA = "org.jetbrains.dokka";
 
+    private static final ContextClassLoaderLocal<AtomicBoolean> parallelResolutionOutput = new ContextClassLoaderLocal<AtomicBoolean>() {
+        @Override
+        protected AtomicBoolean initialValue() {
+            return new AtomicBoolean();
+        }
+    };
+
     private static final ContextClassLoaderLocal<AtomicBoolean> configOutput = new ContextClassLoaderLocal<AtomicBoolean>() {
         @Override
         protected AtomicBoolean initialValue() {
@@ -185,6 +203,7 @@ public class AlignmentTask extends DefaultTask {
      */
     @TaskAction
     public void perform() {
+        final long start = System.nanoTime();
         final Project project = getProject();
         final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
         final ManipulationCache cache = ManipulationCache.getCache(project);
@@ -280,13 +299,17 @@ public class AlignmentTask extends DefaultTask {
         }
 
         try {
+            final AlignmentTimings timings = cache.getTimings();
+            final long lockfileStart = System.nanoTime();
             final Set<ProjectVersionRef> lockFileDeps = LockFileIO
-                    .allProjectVersionRefsFromLockfiles(project.getProjectDir());
+                    .allProjectVersionRefsFromLockfiles(project.getProjectDir(), GAVPool.getPool(project));
+            timings.recordPhase("lockfileRead", System.nanoTime() - lockfileStart);
             final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = processAnyExistingManipulationFile(
                     project,
                     getDependencies(project, cache, configuration, lockFileDeps));
 
             logger.debug("For project {} adding to the cache the dependencies {}", project, dependencies); // TODO: Trace level?
+            StreamingDependencyLookup.install(configuration, cache);
             cache.addDependencies(project, dependencies);
 
             project.getRepositories()
@@ -359,6 +382,8 @@ public class AlignmentTask extends DefaultTask {
                 }
             }
 
+            timings.recordProject(project.getPath(), System.nanoTime() - start);
+
             // when the set is empty, we know that this was the last alignment task to execute.
             if (cache.removeProject(project)) {
                 try {
@@ -400,7 +425,9 @@ public class AlignmentTask extends DefaultTask {
                 .distinct()
                 .collect(Collectors.toList());
 
-        final AlignmentService alignmentService = new DAAlignmentService(configuration);
+        final StreamingDependencyLookup streaming = StreamingDependencyLookup.get(cache);
+        final DAAlignmentService alignmentService = streaming != null ? streaming.getAlignmentService()
+                : new DAAlignmentService(configuration, rootProject.getGradle().getGradleUserHomeDir());
         final List<AlignmentService.Manipulator> manipulators = Stream
                 .of(
                         new UpdateProjectVersionCustomizer(configuration, rootProject),
@@ -408,11 +435,38 @@ public class AlignmentTask extends DefaultTask {
                 .sorted(comparingInt(AlignmentService.Manipulator::order))
                 .collect(Collectors.toList());
 
-        // Call the alignment service
-        final Response alignmentResponse = alignmentService.align(
-                new AlignmentService.Request(
-                        cache.getProjectVersionRefs(configuration.versionSuffixSnapshot()),
-                        allDeps));
+        final AlignmentTimings timings = cache.getTimings();
+        long start = System.nanoTime();
+        final IncrementalAlignment incremental = IncrementalAlignment.create(configuration, rootProject);
+        final List<ProjectVersionRef> lookupDeps = incremental != null
+                ? incremental.getChanged(cache.getDependencies(), allDeps)
+                : allDeps;
+        final AlignmentService.Request request = new AlignmentService.Request(
+                cache.getProjectVersionRefs(configuration.versionSuffixSnapshot()),
+                lookupDeps);
+
+        // Call the alignment service, which only looks up those dependencies not already streamed
+        final Response alignmentResponse = streaming != null ? streaming.await(request)
+                : alignmentService.align(request);
+        start = recordPhase(timings, "restLookup", start);
+
+        if (incremental != null) {
+            incremental.getReused().forEach(alignmentResponse.getTranslationMap()::putIfAbsent);
+            cache.addReportSection("incrementalAlignment", incremental.getStatistics());
+        }
+        if (streaming != null) {
+            cache.addReportSection("restStreaming", streaming.getStatistics());
+        }
+        // The results share their GAVs with the scanned dependencies and the model.
+        GAVPool.getPool(rootProject).internVersions(alignmentResponse.getTranslationMap());
+
+        if (alignmentService.getLookupCache() != null) {
+            cache.addReportSection("restCache", alignmentService.getLookupCache().getStatistics());
+        }
+        if (alignmentService.getChunkStatistics() != null) {
+            cache.addReportSection("restChunks", alignmentService.getChunkStatistics());
+        }
+        cache.addReportSection("gavPool", GAVPool.getPool(rootProject).getStatistics());
 
         // Apply the current manipulators (DependencyOverride and UpdateProjectVersion)
         // While they do support order, it's not hugely important given we only have two
@@ -420,6 +474,7 @@ public class AlignmentTask extends DefaultTask {
         for (AlignmentService.Manipulator manipulator : manipulators) {
             manipulator.customize(alignmentResponse);
         }
+        start = recordPhase(timings, "manipulators", start);
 
         // Even if version modification is disabled, set the original version for consistency in the JSON file.
         final Optional<Project> optionalOriginalVersion = rootProject.getAllprojects()
@@ -453,6 +508,9 @@ public class AlignmentTask extends DefaultTask {
         final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = cache
                 .getDependencies();
 
+        // Map of directory : aligned dependencies to apply to its lock files
+        final Map<File, List<Map<String, ProjectVersionRef>>> lockfileUpdates = new LinkedHashMap<>();
+
         // Iterate through all modules and set their version
         projectDependencies.forEach((project, value) -> {
             final ManipulationModel correspondingModule = alignmentModel.findCorrespondingChild(project.getPath());
@@ -481,14 +539,18 @@ public class AlignmentTask extends DefaultTask {
                         correspondingModule.getVersion());
             }
             updateModuleDependencies(project, correspondingModule, value, alignmentResponse);
-            LockFileIO.updateLockfiles(logger, project.getProjectDir(), correspondingModule.getAlignedDependencies());
+            lockfileUpdates.computeIfAbsent(project.getProjectDir(), k -> new ArrayList<>())
+                    .add(correspondingModule.getAlignedDependencies());
         });
         // Now need to update the historical lock file format (if it exists). This is one lockfile
         // per SCM repository
-        LockFileIO.updateLockfiles(
-                logger,
-                new File(rootProject.getRootDir(), "gradle/dependency-locks"),
-                alignmentModel.getAllAlignedDependencies());
+        lockfileUpdates
+                .computeIfAbsent(new File(rootProject.getRootDir(), "gradle/dependency-locks"), k -> new ArrayList<>())
+                .add(alignmentModel.getAllAlignedDependencies());
+        start = recordPhase(timings, "moduleUpdates", start);
+        final int modifiedLockfiles = LockFileIO.updateLockfiles(logger, lockfileUpdates);
+        logger.info("Updated {} lock files across {} directories", modifiedLockfiles, lockfileUpdates.size());
+        start = recordPhase(timings, "lockfiles", start);
 
         // artifactId / rootProject.getName
         final String artifactId = SettingsFileIO.writeProjectNameIfNeeded(getProject().getRootDir());
@@ -533,6 +595,7 @@ public class AlignmentTask extends DefaultTask {
         processPropertiesForBuildCache(rootProject.getRootDir());
 
         logger.info("Completed processing for alignment and writing {}", cache);
+        start = System.nanoTime();
         GroovyUtils.runCustomGroovyScript(
                 logger,
                 InvocationStage.LAST,
@@ -540,7 +603,13 @@ public class AlignmentTask extends DefaultTask {
                 configuration,
                 rootProject,
                 alignmentModel);
-        writeManipulationModel(rootProject.getRootDir(), alignmentModel);
+        start = recordPhase(timings, "groovyScripts", start);
+        writeManipulationModel(
+                rootProject.getRootDir(),
+                alignmentModel,
+                configuration.manipulationSidecar(),
+                configuration.manipulationKeepPrevious());
+        start = recordPhase(timings, "writeModel", start);
         // Ordering is important here ; we mustn't inject the gme-repos file before iterating over all *.gradle
         // files.
         updateAllExtraGradleFilesWithGmeRepos();
@@ -555,11 +624,29 @@ public class AlignmentTask extends DefaultTask {
         writeGmePluginConfigMarkerFile(rootProject.getBuildFile(), cache.getDokkaVersion());
         writeGmeReposMarkerFile();
         writeRepositorySettingsFile(cache.getRepositories());
+        recordPhase(timings, "buildFiles", start);
+
+        timings.setRestLookups(new ArrayList<>(alignmentService.getLookupStatistics()));
+        cache.addReportSection("timings", timings);
 
         final Set<ProjectVersionRef> nonAligned = new LinkedHashSet<>();
         processAlignmentReport(rootProject, configuration, cache, nonAligned);
     }
 
+    /**
+     * Records the time since the given start against the phase.
+     *
+     * @param timings the timings of the alignment
+     * @param phase the name of the phase
+     * @param start the start of the phase from {@link System#nanoTime()}
+     * @return the end of the phase, which is the start of the next
+     */
+    private static long recordPhase(AlignmentTimings timings, String phase, long start) {
+        final long end = System.nanoTime();
+        timings.recordPhase(phase, end - start);
+        return end;
+    }
+
     private void processPropertiesForBuildCache(File rootProject) throws IOException {
         File properties = new File(rootProject, "gradle.properties");
         if (properties.exists()) {
@@ -764,278 +851,490 @@ public class AlignmentTask extends DefaultTask {
             Set<ProjectVersionRef> lockFileDeps) {
 
         final Map<RelaxedProjectVersionRef, ProjectVersionRef> depMap = new LinkedHashMap<>();
+        final ParallelConfigurationResolver parallel = getParallelResolver(project, internalConfig);
+        final List<ConfigurationResolution> pending = new ArrayList<>();
+        final AtomicBoolean collecting = new AtomicBoolean(parallel != null);
+        final ResolutionDeduplicator<ConfigurationResolution> deduplicator = new ResolutionDeduplicator<>();
+        // If the dependency is present in any of the lockfiles, then we use that version. Where multiple versions
+        // are locked for the same GA the last one encountered is used.
+        final Map<ProjectRef, String> lockedVersions = new HashMap<>(lockFileDeps.size());
+        for (ProjectVersionRef lockFileDep : lockFileDeps) {
+            lockedVersions.put(lockFileDep.asProjectRef(), lockFileDep.getVersionString());
+        }
+
         // Can't use lazy configuration and configureEach here as this causes:
         //    NamedDomainObjectContainer#create(String) on configuration container cannot be executed in the current context.
         // on opentelemetry-java alignment.
         project.getConfigurations().all(configuration -> {
             // canBeResolved: Indicates that this configuration is intended for resolving a set of dependencies into a dependency graph. A resolvable configuration should not be declarable or consumable.
             if (configuration.isCanBeResolved()) {
+                final ConfigurationResolution resolution = prepareConfiguration(
+                        project,
+                        cache,
+                        internalConfig,
+                        configuration,
+                        deduplicator);
 
-                LenientConfiguration lenient = null;
-                org.gradle.api.artifacts.Configuration copy = null;
-
-                // https://docs.gradle.org/current/userguide/declaring_configurations.html
-                // using getAllDependencies here instead of getDependencies because the latter
-                // was returning an empty array for the root project of SpringLikeLayoutFunctionalTest
-                final DependencySet allDependencies = configuration.getAllDependencies();
-                final Set<ProjectDependency> allProjectDependencies = allDependencies
-                        .stream()
-                        .filter(d -> ProjectDependency.class.isAssignableFrom(d.getClass()))
-                        .map(ProjectDependency.class::cast)
-                        .collect(Collectors.toSet());
-
-                // Must be before configuration copying otherwise VersionConflictProjectFunctionalTest fails.
-                ProjectUtils.updateResolutionStrategy(configuration);
-
-                if (internalConfig.useLegacyConfigurationCopy()) {
-                    // If we have dependency constraints we can get a ClassCastException when attempting to copy the configurations.
-                    // This is due to an unchecked cast in
-                    // org.gradle.api.internal.artifacts.configurations.DefaultConfiguration::createCopy { ...
-                    // copiedDependencyConstraints.add(((DefaultDependencyConstraint) dependencyConstraint).copy());
-                    // ... }
-                    // When our constraint is a DefaultProjectDependencyConstraint this is a problem. Therefore, as we normally
-                    // need to copy the configurations to ensure we resolve all dependencies (See
-                    // analyzer/src/functTest/java/org/jboss/gm/analyzer/alignment/DynamicWithLocksProjectFunctionalTest.java for
-                    // an example) first verify if DefaultProjectDependencyConstraint occurs in the list of constraints.
-                    //
-                    // NCLSUP-1188: to avoid "Dependency constraints can not be declared against the `compileClasspath` configuration"
-                    // we now avoid recursive copying if constraints are active in any configuration in any subproject.
-                    // NCLSUP-1233: to avoid the constraints reducing dependencies aligned too much only apply to non-visible configurations.
-                    if (!cache.isConstraints()) {
-                        // Can't use configuration.getDependencyConstraints as that doesn't appear to return anything.
-                        DependencyConstraintSet allConstraints = configuration.getAllDependencyConstraints();
-                        allConstraints.configureEach(c -> {
-                            logger.debug(
-                                    "In project {} in legacy mode found constraint '{}' (class {}) for configuration '{}' and visible {}",
-                                    project.getName(),
-                                    c.getName(),
-                                    c.getClass().getName(),
-                                    configuration.getName(),
-                                    configuration.isVisible());
-                            boolean allowConstraints = false;
-                            // NCLSUP-1233: While it would be good to relax the constraint restrictions that can't work in
-                            // Gradle versions less than 7.2 (which is where they fixed the issue mentioned above).
-                            // https://github.com/gradle/gradle/issues/17179 / https://github.com/gradle/gradle/pull/17377
-                            if (GradleVersion.current().compareTo(GradleVersion.version("7.2")) < 0) {
-                                allowConstraints = true;
-                            } else if (!configuration.isVisible()
-                                    && GradleVersion.current().compareTo(GradleVersion.version("7.2")) >= 0) {
-                                allowConstraints = true;
-                            }
-
-                            if (allowConstraints && (isDefaultProjectDependencyConstraint(c)
-                                    || c instanceof org.gradle.api.internal.artifacts.dependencies.DefaultDependencyConstraint)) {
-                                logger.info("Found dependency constraints in {}", configuration.getName());
-                                cache.setConstraints(true);
-                            }
-                        });
-                    }
-
-                    // Attempt to call copyRecursive for all types (kotlin/gradle).
-                    if (!cache.isConstraints()) {
-                        logger.debug(
-                                "In project {} in legacy mode recursively copying configuration for {}",
-                                project.getName(),
-                                configuration.getName());
-                        copy = configuration.copyRecursive();
-                        lenient = copy.getResolvedConfiguration().getLenientConfiguration();
-                    } else {
-                        logger.debug(
-                                "DefaultProjectDependencyConstraint found, not recursively copying configuration for {}",
-                                configuration.getName());
-                        copy = configuration.copy();
-                        lenient = copy.getResolvedConfiguration().getLenientConfiguration();
-                    }
+                if (collecting.get()) {
+                    pending.add(resolution);
                 } else {
-                    AtomicBoolean fallbackCopying = new AtomicBoolean(false);
-                    configuration.getAllDependencyConstraints().configureEach(c -> {
-                        // Avoid ClassCastException in the _same_ module.
-                        if (isDefaultProjectDependencyConstraint(c)) {
-                            logger.debug(
-                                    "In project {} found constraint '{}' (class {}) for configuration '{}'",
-                                    project.getName(),
-                                    c.getName(),
-                                    c.getClass().getName(),
-                                    configuration.getName());
-                            fallbackCopying.set(true);
-                        }
-                    });
-
-                    // We try to copy recursive for everything but if it fails we'll create a copy ignoring super-configurations.
-                    // It can fail in bizarre ways due to constraints.
-                    if (!fallbackCopying.get()) {
-                        try {
-                            logger.debug(
-                                    "In project {} recursively copying configuration for {}",
-                                    project.getName(),
-                                    configuration.getName());
-                            copy = configuration.copyRecursive();
-                            lenient = copy.getResolvedConfiguration().getLenientConfiguration();
-                        } catch (GradleException e) {
-                            logger.warn(
-                                    "Failed to copy configuration recursively for {}; falling back to standard copy.",
-                                    configuration.getName());
-                            logger.debug("Caught exception copying configuration", e);
-                            fallbackCopying.set(true);
-                        }
+                    // Either serial resolution or a configuration that was added after the concurrent resolution.
+                    resolution.resolve();
+                    processConfiguration(project, internalConfig, lockedVersions, resolution, depMap, cache);
+                }
+            } else {
+                logger.trace("Unable to resolve configuration {} for project {}", configuration.getName(), project);
+            }
+        });
+
+        if (parallel != null) {
+            collecting.set(false);
+            parallel.resolve(project, pending.stream().map(r -> (Runnable) r::resolve).collect(Collectors.toList()));
+            // Merge in declaration order so the result is identical to serial resolution.
+            for (ConfigurationResolution resolution : pending) {
+                processConfiguration(project, internalConfig, lockedVersions, resolution, depMap, cache);
+            }
+        }
+
+        if (deduplicator.getTotal() > 0) {
+            logger.info(
+                    "For project {}, {} of {} configurations ({}%) reused an identical resolution",
+                    project.getPath(),
+                    deduplicator.getHits(),
+                    deduplicator.getTotal(),
+                    deduplicator.getHits() * 100 / deduplicator.getTotal());
+        }
+        return depMap;
+    }
+
+    /**
+     * Returns the resolver used to resolve the configurations of a project concurrently if that has been enabled and
+     * is supported by the current Gradle version.
+     *
+     * @param project the current project
+     * @param internalConfig the current Configuration
+     * @return the resolver or null to resolve serially
+     */
+    private ParallelConfigurationResolver getParallelResolver(Project project, Configuration internalConfig) {
+        if (!internalConfig.parallelConfigurationResolution()) {
+            return null;
+        }
+        final ParallelConfigurationResolver result = ParallelConfigurationResolver.create(project);
+        if (result == null && !parallelResolutionOutput.get().getAndSet(true)) {
+            logger.warn(
+                    "Parallel configuration resolution is not supported by {} ; resolving serially.",
+                    GradleVersion.current());
+        }
+        return result;
+    }
+
+    /**
+     * Updates the resolution strategy of the configuration and creates the copy that will be resolved. This
+     * modifies the project and therefore must be called from the task thread.
+     */
+    private ConfigurationResolution prepareConfiguration(
+            Project project,
+            ManipulationCache cache,
+            Configuration internalConfig,
+            org.gradle.api.artifacts.Configuration configuration,
+            ResolutionDeduplicator<ConfigurationResolution> deduplicator) {
+        final ConfigurationResolution resolution = new ConfigurationResolution(configuration);
+
+        // Must be before configuration copying otherwise VersionConflictProjectFunctionalTest fails.
+        ProjectUtils.updateResolutionStrategy(configuration);
+
+        if (internalConfig.useLegacyConfigurationCopy()) {
+            // If we have dependency constraints we can get a ClassCastException when attempting to copy the configurations.
+            // This is due to an unchecked cast in
+            // org.gradle.api.internal.artifacts.configurations.DefaultConfiguration::createCopy { ...
+            // copiedDependencyConstraints.add(((DefaultDependencyConstraint) dependencyConstraint).copy());
+            // ... }
+            // When our constraint is a DefaultProjectDependencyConstraint this is a problem. Therefore, as we normally
+            // need to copy the configurations to ensure we resolve all dependencies (See
+            // analyzer/src/functTest/java/org/jboss/gm/analyzer/alignment/DynamicWithLocksProjectFunctionalTest.java for
+            // an example) first verify if DefaultProjectDependencyConstraint occurs in the list of constraints.
+            //
+            // NCLSUP-1188: to avoid "Dependency constraints can not be declared against the `compileClasspath` configuration"
+            // we now avoid recursive copying if constraints are active in any configuration in any subproject.
+            // NCLSUP-1233: to avoid the constraints reducing dependencies aligned too much only apply to non-visible configurations.
+            if (!cache.isConstraints()) {
+                // Can't use configuration.getDependencyConstraints as that doesn't appear to return anything.
+                DependencyConstraintSet allConstraints = configuration.getAllDependencyConstraints();
+                allConstraints.configureEach(c -> {
+                    logger.debug(
+                            "In project {} in legacy mode found constraint '{}' (class {}) for configuration '{}' and visible {}",
+                            project.getName(),
+                            c.getName(),
+                            c.getClass().getName(),
+                            configuration.getName(),
+                            configuration.isVisible());
+                    boolean allowConstraints = false;
+                    // NCLSUP-1233: While it would be good to relax the constraint restrictions that can't work in
+                    // Gradle versions less than 7.2 (which is where they fixed the issue mentioned above).
+                    // https://github.com/gradle/gradle/issues/17179 / https://github.com/gradle/gradle/pull/17377
+                    if (GradleVersion.current().compareTo(GradleVersion.version("7.2")) < 0) {
+                        allowConstraints = true;
+                    } else if (!configuration.isVisible()
+                            && GradleVersion.current().compareTo(GradleVersion.version("7.2")) >= 0) {
+                        allowConstraints = true;
                     }
-                    if (fallbackCopying.get()) {
-                        // NCLSUP-1250 - classpath constraints in wire.
-                        // This happens when constraints are active. I have attempted to solve this before using the newly
-                        // added isCanBeDeclared functionality in Gradle 8.2. According to
-                        // https://docs.google.com/document/d/1a2vtM10FiWdTpnY8b2S-q28Cl0xUEVIzAOl3BpOeyng/edit?pli=1&disco=AAAAsiOEGhA&tab=t.0
-                        // it can denote a configuration with a 'list of dependencies'. If its not that (and we already know
-                        // the configuration must be resolvable) then its either consumable ("Exposes artifacts from a project to
-                        // consumers with variant aware dependency resolution") or a legacy configuration type.
-                        //
-                        // However, I've found that while that can help the problematic wire, micrometer, opentelemetry-java,
-                        // opentelemetry-java-instrumentation and cel it breaks other regression tests. Therefore I'm switching
-                        // to this rather ugly fallback.
-                        copy = configuration.copy();
-                        lenient = copy.getResolvedConfiguration().getLenientConfiguration();
+
+                    if (allowConstraints && (isDefaultProjectDependencyConstraint(c)
+                            || c instanceof org.gradle.api.internal.artifacts.dependencies.DefaultDependencyConstraint)) {
+                        logger.info("Found dependency constraints in {}", configuration.getName());
+                        cache.setConstraints(true);
                     }
+                });
+            }
+
+            // Attempt to call copyRecursive for all types (kotlin/gradle).
+            if (!cache.isConstraints()) {
+                logger.debug(
+                        "In project {} in legacy mode recursively copying configuration for {}",
+                        project.getName(),
+                        configuration.getName());
+                resolution.recursive = true;
+            } else {
+                logger.debug(
+                        "DefaultProjectDependencyConstraint found, not recursively copying configuration for {}",
+                        configuration.getName());
+            }
+        } else {
+            AtomicBoolean fallbackCopying = new AtomicBoolean(false);
+            configuration.getAllDependencyConstraints().configureEach(c -> {
+                // Avoid ClassCastException in the _same_ module.
+                if (isDefaultProjectDependencyConstraint(c)) {
+                    logger.debug(
+                            "In project {} found constraint '{}' (class {}) for configuration '{}'",
+                            project.getName(),
+                            c.getName(),
+                            c.getClass().getName(),
+                            configuration.getName());
+                    fallbackCopying.set(true);
                 }
+            });
 
-                // We don't care about modules of the project being unresolvable at this stage. Had we not excluded them,
-                // we would get false negatives
-                final Set<UnresolvedDependency> unresolvedDependencies = getUnresolvedDependenciesExcludingProjectDependencies(
-                        lenient,
-                        allProjectDependencies);
-
-                if (!unresolvedDependencies.isEmpty()) {
-                    if (internalConfig.ignoreUnresolvableDependencies()) {
-                        logger.warn(
-                                "For configuration {}, ignoring all unresolvable dependencies: {}",
-                                configuration.getName(),
-                                unresolvedDependencies);
-                    } else {
-
-                        logger.error(
-                                "For configuration {}, unable to resolve all dependencies: {}",
-                                configuration.getName(),
-                                lenient.getUnresolvedModuleDependencies());
-                        for (UnresolvedDependency ud : unresolvedDependencies) {
-                            logger.error("Unresolved had problem in {} with ", ud.getSelector(), ud.getProblem());
-                        }
-                        throw new ManipulationUncheckedException(
-                                "For configuration {}, unable to resolve all project dependencies: {}",
-                                configuration.getName(),
-                                unresolvedDependencies);
-                    }
+            // We try to copy recursive for everything but if it fails (either copying or resolving) we'll
+            // create a copy ignoring super-configurations. It can fail in bizarre ways due to constraints.
+            if (!fallbackCopying.get()) {
+                logger.debug(
+                        "In project {} recursively copying configuration for {}",
+                        project.getName(),
+                        configuration.getName());
+                resolution.recursive = true;
+                resolution.fallbackOnFailure = true;
+            } else {
+                // NCLSUP-1250 - classpath constraints in wire.
+                // This happens when constraints are active. I have attempted to solve this before using the newly
+                // added isCanBeDeclared functionality in Gradle 8.2. According to
+                // https://docs.google.com/document/d/1a2vtM10FiWdTpnY8b2S-q28Cl0xUEVIzAOl3BpOeyng/edit?pli=1&disco=AAAAsiOEGhA&tab=t.0
+                // it can denote a configuration with a 'list of dependencies'. If its not that (and we already know
+                // the configuration must be resolvable) then its either consumable ("Exposes artifacts from a project to
+                // consumers with variant aware dependency resolution") or a legacy configuration type.
+                //
+                // However, I've found that while that can help the problematic wire, micrometer, opentelemetry-java,
+                // opentelemetry-java-instrumentation and cel it breaks other regression tests. Therefore I'm switching
+                // to this rather ugly fallback.
+                logger.debug(
+                        "In project {} not recursively copying configuration for {}",
+                        project.getName(),
+                        configuration.getName());
+            }
+        }
+
+        resolution.source = deduplicator.deduplicate(configuration, resolution.recursive, resolution);
+        if (resolution.source != null) {
+            logger.debug(
+                    "In project {} configuration {} has identical inputs to {} ; reusing its resolution",
+                    project.getName(),
+                    configuration.getName(),
+                    resolution.source.configuration.getName());
+        } else if (resolution.recursive) {
+            try {
+                resolution.copy = configuration.copyRecursive();
+            } catch (GradleException e) {
+                if (!resolution.fallbackOnFailure) {
+                    throw e;
                 }
-                Set<ResolvedDependency> target;
-                if (internalConfig.overrideTransitive() == Boolean.TRUE) {
-                    target = lenient.getAllModuleDependencies();
-                    logger.debug(
-                            "For {}, returning all (including transitive) module dependencies for examination",
-                            configuration);
-                } else {
-                    // If overrideTransitive has not been set and dependencySource != NONE, then check for the shadow plugin
-                    if (internalConfig.overrideTransitive() == null
-                            && internalConfig.dependencyConfiguration() != DependencyState.DependencyPrecedence.NONE
-                            && project.getPluginManager().hasPlugin("com.github.johnrengelman.shadow")) {
-                        throw new ManipulationUncheckedException(
-                                "Shadow plugin (for shading) configured but overrideTransitive has not been explicitly enabled or disabled.");
-                    }
-                    target = lenient.getFirstLevelModuleDependencies();
+                resolution.failure = e;
+            }
+        } else {
+            resolution.copy = configuration.copy();
+        }
+        return resolution;
+    }
+
+    /**
+     * Records the dependencies of a resolved configuration within the dependency map. This is always called from the
+     * task thread in configuration declaration order. The time taken to resolve and process the configuration is
+     * recorded in the timings of the cache.
+     */
+    private void processConfiguration(
+            Project project,
+            Configuration internalConfig,
+            Map<ProjectRef, String> lockedVersions,
+            ConfigurationResolution resolution,
+            Map<RelaxedProjectVersionRef, ProjectVersionRef> depMap,
+            ManipulationCache cache) {
+        final long start = System.nanoTime();
+        final AtomicInteger edges = new AtomicInteger();
+        final org.gradle.api.artifacts.Configuration configuration = resolution.configuration;
+        final Map<ProjectRef, List<Dependency>> declaredDependencies = indexDependencies(resolution.allDependencies);
+        final Set<ProjectDependency> allProjectDependencies = resolution.allProjectDependencies;
+        final LenientConfiguration lenient = resolution.getLenient();
+
+        // We don't care about modules of the project being unresolvable at this stage. Had we not excluded them,
+        // we would get false negatives
+        final Set<UnresolvedDependency> unresolvedDependencies = getUnresolvedDependenciesExcludingProjectDependencies(
+                lenient,
+                allProjectDependencies);
+
+        if (!unresolvedDependencies.isEmpty()) {
+            if (internalConfig.ignoreUnresolvableDependencies()) {
+                logger.warn(
+                        "For configuration {}, ignoring all unresolvable dependencies: {}",
+                        configuration.getName(),
+                        unresolvedDependencies);
+            } else {
+
+                logger.error(
+                        "For configuration {}, unable to resolve all dependencies: {}",
+                        configuration.getName(),
+                        lenient.getUnresolvedModuleDependencies());
+                for (UnresolvedDependency ud : unresolvedDependencies) {
+                    logger.error("Unresolved had problem in {} with ", ud.getSelector(), ud.getProblem());
                 }
-                target.forEach(dep -> {
-                    // skip dependencies on project modules
-                    if (Comparator.contains(allProjectDependencies, dep)) {
-                        project.getLogger()
-                                .debug(
-                                        "Skipping internal project dependency {} of configuration {}",
-                                        dep.toString(),
-                                        configuration.getName());
-                        return;
-                    }
-                    if (dep.getModuleGroup().isEmpty()) {
-                        logger.warn(
-                                "Ignoring dependency {} with no groupId for configuration {}",
-                                dep.getName(),
+                throw new ManipulationUncheckedException(
+                        "For configuration {}, unable to resolve all project dependencies: {}",
+                        configuration.getName(),
+                        unresolvedDependencies);
+            }
+        }
+        Set<ResolvedDependency> target;
+        if (internalConfig.overrideTransitive() == Boolean.TRUE) {
+            target = lenient.getAllModuleDependencies();
+            logger.debug(
+                    "For {}, returning all (including transitive) module dependencies for examination",
+                    configuration);
+        } else {
+            // If overrideTransitive has not been set and dependencySource != NONE, then check for the shadow plugin
+            if (internalConfig.overrideTransitive() == null
+                    && internalConfig.dependencyConfiguration() != DependencyState.DependencyPrecedence.NONE
+                    && project.getPluginManager().hasPlugin("com.github.johnrengelman.shadow")) {
+                throw new ManipulationUncheckedException(
+                        "Shadow plugin (for shading) configured but overrideTransitive has not been explicitly enabled or disabled.");
+            }
+            target = lenient.getFirstLevelModuleDependencies();
+        }
+        target.forEach(dep -> {
+            // skip dependencies on project modules
+            if (Comparator.contains(allProjectDependencies, dep)) {
+                project.getLogger()
+                        .debug(
+                                "Skipping internal project dependency {} of configuration {}",
+                                dep.toString(),
                                 configuration.getName());
-                        return;
-                    }
+                return;
+            }
+            if (dep.getModuleGroup().isEmpty()) {
+                logger.warn(
+                        "Ignoring dependency {} with no groupId for configuration {}",
+                        dep.getName(),
+                        configuration.getName());
+                return;
+            }
 
-                    String version = dep.getModuleVersion(); // this is the resolved version from gradle
-                    // if the dependency is present in any of the lockfiles, then we use that version
+            final ProjectRef ga = toProjectRef(dep.getModuleGroup(), dep.getModuleName());
+            // this is the resolved version from gradle unless the dependency is present in any of the lockfiles
+            final String version = lockedVersions.getOrDefault(ga, dep.getModuleVersion());
 
-                    for (ProjectVersionRef lockFileDep : lockFileDeps) {
-                        if (lockFileDep.getGroupId().equals(dep.getModuleGroup())
-                                && lockFileDep.getArtifactId().equals(dep.getModuleName())) {
-                            version = lockFileDep.getVersionString();
-                        }
-                    }
-
-                    ProjectVersionRef pvr = ProjectVersionFactory.withGAV(
-                            dep.getModuleGroup(),
-                            dep.getModuleName(),
-                            version);
-
-                    List<Dependency> originalDeps = allDependencies.stream()
-                            .filter(
-                                    d -> StringUtils.equals(d.getGroup(), dep.getModuleGroup()) &&
-                                            StringUtils.equals(d.getName(), dep.getModuleName()))
-                            .collect(Collectors.toList());
-
-                    // Not sure this can ever happen - would mean we have GA with multiple V.
-                    if (originalDeps.size() > 1) {
-                        logger.error("Found duplicate matching original dependencies {} for {}", originalDeps, dep);
-                    }
+            ProjectVersionRef pvr = ProjectVersionFactory.withGAV(
+                    dep.getModuleGroup(),
+                    dep.getModuleName(),
+                    version);
 
-                    RelaxedProjectVersionRef relaxedProjectVersionRef;
-                    // If we haven't found any original dependency, or its version is empty, we'll default to
-                    // the current resolved dependency value. This might be possible if the dependency has come from
-                    // a lock file or the version comes from a BOM.
-                    if (originalDeps.isEmpty() || StringUtils.isBlank(originalDeps.get(0).getVersion())) {
-                        relaxedProjectVersionRef = new RelaxedProjectVersionRef(dep);
-                    } else {
-                        relaxedProjectVersionRef = new RelaxedProjectVersionRef(originalDeps.get(0));
-                    }
+            final List<Dependency> originalDeps = declaredDependencies.getOrDefault(ga, Collections.emptyList());
 
-                    if (depMap.put(relaxedProjectVersionRef, pvr) == null) {
-                        logger.debug(
-                                "For {}, with original key {}, adding dependency to scan {}",
-                                configuration,
-                                relaxedProjectVersionRef,
-                                pvr);
-                    }
-                });
+            // Not sure this can ever happen - would mean we have GA with multiple V.
+            if (originalDeps.size() > 1) {
+                logger.error("Found duplicate matching original dependencies {} for {}", originalDeps, dep);
+            }
 
-                // As getResolutionResult may resolve the dependencies perform it on the copy.
-                copy.getIncoming().getResolutionResult().getAllDependencies().forEach(incomingResult -> {
-                    if (incomingResult instanceof DefaultResolvedDependencyResult) {
-                        ModuleVersionIdentifier mvi = ((DefaultResolvedDependencyResult) incomingResult).getSelected()
-                                .getModuleVersion();
-                        // https://github.com/gradle/gradle/issues/17338
-                        String category = incomingResult.getRequested()
-                                .getAttributes()
-                                .getAttribute(
-                                        Attribute.of("org.gradle.category", String.class));
-
-                        if (mvi == null) {
-                            logger.warn("No module version for {}", incomingResult);
-                            // Can't use direct references to Category.ENFORCED_PLATFORM / PLATFORM as that is since 5.3
-                        } else if ("enforced-platform".equals(category) || "platform".equals(category)) {
-                            ProjectVersionRef pvr = ProjectVersionFactory.withGAV(
-                                    mvi.getGroup(),
-                                    mvi.getName(),
-                                    mvi.getVersion());
-                            logger.debug(
-                                    "For {}, with category {} adding {} to scan",
-                                    configuration,
-                                    category,
-                                    pvr);
-                            depMap.put(new RelaxedProjectVersionRef(pvr), pvr);
-                        }
-                    }
-                });
+            RelaxedProjectVersionRef relaxedProjectVersionRef;
+            // If we haven't found any original dependency, or its version is empty, we'll default to
+            // the current resolved dependency value. This might be possible if the dependency has come from
+            // a lock file or the version comes from a BOM.
+            if (originalDeps.isEmpty() || StringUtils.isBlank(originalDeps.get(0).getVersion())) {
+                relaxedProjectVersionRef = new RelaxedProjectVersionRef(dep);
             } else {
-                logger.trace("Unable to resolve configuration {} for project {}", configuration.getName(), project);
+                relaxedProjectVersionRef = new RelaxedProjectVersionRef(originalDeps.get(0));
+            }
+
+            if (depMap.put(relaxedProjectVersionRef, pvr) == null) {
+                logger.debug(
+                        "For {}, with original key {}, adding dependency to scan {}",
+                        configuration,
+                        relaxedProjectVersionRef,
+                        pvr);
             }
         });
 
-        return depMap;
+        // As getResolutionResult may resolve the dependencies perform it on the copy.
+        resolution.getCopy().getIncoming().getResolutionResult().getAllDependencies().forEach(incomingResult -> {
+            edges.incrementAndGet();
+            if (incomingResult instanceof DefaultResolvedDependencyResult) {
+                ModuleVersionIdentifier mvi = ((DefaultResolvedDependencyResult) incomingResult).getSelected()
+                        .getModuleVersion();
+                // https://github.com/gradle/gradle/issues/17338
+                String category = incomingResult.getRequested()
+                        .getAttributes()
+                        .getAttribute(
+                                Attribute.of("org.gradle.category", String.class));
+
+                if (mvi == null) {
+                    logger.warn("No module version for {}", incomingResult);
+                    // Can't use direct references to Category.ENFORCED_PLATFORM / PLATFORM as that is since 5.3
+                } else if ("enforced-platform".equals(category) || "platform".equals(category)) {
+                    ProjectVersionRef pvr = ProjectVersionFactory.withGAV(
+                            mvi.getGroup(),
+                            mvi.getName(),
+                            mvi.getVersion());
+                    logger.debug(
+                            "For {}, with category {} adding {} to scan",
+                            configuration,
+                            category,
+                            pvr);
+                    depMap.put(new RelaxedProjectVersionRef(pvr), pvr);
+                }
+            }
+        });
+        cache.getTimings()
+                .recordConfiguration(
+                        project.getPath(),
+                        configuration.getName(),
+                        resolution.nanos + System.nanoTime() - start,
+                        edges.get());
+    }
+
+    /**
+     * Indexes the declared dependencies by group and name, retaining the declaration order for each.
+     *
+     * @param dependencies the declared dependencies
+     * @return a map of group:name to the matching dependencies
+     */
+    private static Map<ProjectRef, List<Dependency>> indexDependencies(DependencySet dependencies) {
+        final Map<ProjectRef, List<Dependency>> result = new HashMap<>();
+        for (Dependency d : dependencies) {
+            final ProjectRef ga = toProjectRef(d.getGroup(), d.getName());
+            if (ga != null) {
+                result.computeIfAbsent(ga, k -> new ArrayList<>(1)).add(d);
+            }
+        }
+        return result;
+    }
+
+    private static ProjectRef toProjectRef(String group, String name) {
+        return StringUtils.isEmpty(group) || StringUtils.isEmpty(name) ? null : new SimpleProjectRef(group, name);
+    }
+
+    /**
+     * Holds a resolvable configuration between creating its copy (which must be performed on the task thread) and
+     * resolving it (which may be performed concurrently), so that configurations with identical inputs may share a
+     * single resolution.
+     */
+    private final class ConfigurationResolution {
+        private final org.gradle.api.artifacts.Configuration configuration;
+
+        // https://docs.gradle.org/current/userguide/declaring_configurations.html
+        // using getAllDependencies here instead of getDependencies because the latter
+        // was returning an empty array for the root project of SpringLikeLayoutFunctionalTest
+        private final DependencySet allDependencies;
+
+        private final Set<ProjectDependency> allProjectDependencies;
+
+        /**
+         * Whether the copy includes the super-configurations.
+         */
+        private boolean recursive;
+
+        /**
+         * Whether a failure to copy or resolve should fall back to a copy ignoring super-configurations.
+         */
+        private boolean fallbackOnFailure;
+
+        /**
+         * An earlier configuration with identical resolution inputs whose result is reused.
+         */
+        private ConfigurationResolution source;
+
+        private org.gradle.api.artifacts.Configuration copy;
+
+        private LenientConfiguration lenient;
+
+        private GradleException failure;
+
+        /**
+         * Whether the recursive copy failed and a copy ignoring super-configurations was used instead.
+         */
+        private boolean fellBack;
+
+        /**
+         * The time taken by {@link #resolve()}, which may be on another thread.
+         */
+        private volatile long nanos;
+
+        private ConfigurationResolution(org.gradle.api.artifacts.Configuration configuration) {
+            this.configuration = configuration;
+            this.allDependencies = configuration.getAllDependencies();
+            this.allProjectDependencies = allDependencies
+                    .stream()
+                    .filter(d -> ProjectDependency.class.isAssignableFrom(d.getClass()))
+                    .map(ProjectDependency.class::cast)
+                    .collect(Collectors.toSet());
+        }
+
+        private void resolve() {
+            if (source != null || failure != null) {
+                return;
+            }
+            final long start = System.nanoTime();
+            try {
+                lenient = copy.getResolvedConfiguration().getLenientConfiguration();
+            } catch (GradleException e) {
+                if (!fallbackOnFailure) {
+                    throw e;
+                }
+                failure = e;
+            } finally {
+                nanos = System.nanoTime() - start;
+            }
+        }
+
+        private org.gradle.api.artifacts.Configuration getCopy() {
+            return source == null ? copy : source.getCopy();
+        }
+
+        private LenientConfiguration getLenient() {
+            if (source != null) {
+                final LenientConfiguration result = source.getLenient();
+                if (!source.fellBack) {
+                    return result;
+                }
+                // The fallback copy only contains the configuration's own dependencies so is not shareable.
+                failure = source.failure;
+                source = null;
+            }
+            if (failure != null && !fellBack) {
+                logger.warn(
+                        "Failed to copy configuration recursively for {}; falling back to standard copy.",
+                        configuration.getName());
+                logger.debug("Caught exception copying configuration", failure);
+                fellBack = true;
+                copy = configuration.copy();
+                lenient = copy.getResolvedConfiguration().getLenientConfiguration();
+            }
+            return lenient;
+        }
     }
 
     private Set<UnresolvedDependency> getUnresolvedDependenciesExcludingProjectDependencies(
@@ -1060,6 +1359,7 @@ public class AlignmentTask extends DefaultTask {
             ManipulationModel correspondingModule,
             Map<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies,
             Response alignmentResponse) {
+        final GAVPool pool = GAVPool.getPool(project);
 
         allModuleDependencies.forEach((d, projectVersionRef) -> {
             final String newDependencyVersion = alignmentResponse.getAlignedVersionOfGav(project, projectVersionRef);
@@ -1070,9 +1370,8 @@ public class AlignmentTask extends DefaultTask {
                         projectVersionRef,
                         newDependencyVersion);
 
-                final ProjectVersionRef newVersion = ProjectVersionFactory.withNewVersion(
-                        projectVersionRef,
-                        newDependencyVersion);
+                final ProjectVersionRef newVersion = pool.intern(
+                        ProjectVersionFactory.withNewVersion(projectVersionRef, newDependencyVersion));
                 // we need to make sure that dynamic dependencies are stored with their original key
                 // in order for the manipulation plugin to be able to look them up properly
                 logger.debug(
@@ -1080,7 +1379,7 @@ public class AlignmentTask extends DefaultTask {
                         d,
                         newVersion,
                         DynamicVersionParser.isDynamic(d.getVersionString()));
-                correspondingModule.getAlignedDependencies().put(d.toString(), newVersion);
+                correspondingModule.getAlignedDependencies().put(pool.intern(d.toString()), newVersion);
             }
         });
     }
@@ -1118,43 +1417,69 @@ public class AlignmentTask extends DefaultTask {
             return allDependencies;
         }
 
-        // If there is an existing manipulation file, also use this as potential candidates.
-        final ManipulationModel manipulationModel = ManipulationIO
-                .readManipulationModel(project.getRootProject().getRootDir())
-                .findCorrespondingChild(project.getPath());
-
-        Map<String, ProjectVersionRef> aligned = manipulationModel.getAlignedDependencies();
-
-        for (Map.Entry<String, ProjectVersionRef> modelDependencies : aligned.entrySet()) {
-
-            // If we don't have 2 then we must be stored an unversioned artifact. Only interested in full GAV right now.
-            if (StringUtils.countMatches(modelDependencies.getKey(), ":") == 2) {
-
-                ProjectVersionRef originalPvr = SimpleProjectVersionRef.parse(modelDependencies.getKey());
-
-                for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> entry : allDependencies.entrySet()) {
-
-                    RelaxedProjectVersionRef d = entry.getKey();
+        // If there is an existing manipulation file, also use this as potential candidates. The model is only read
+        // once per build and the aligned dependencies of the module are indexed so each one is a hashed lookup.
+        final AlignedDependencyIndex aligned = new AlignedDependencyIndex(
+                ManipulationModelCache.readManipulationModel(project).findCorrespondingChild(project.getPath()));
 
-                    if (d.equals(originalPvr)) {
+        for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> entry : allDependencies.entrySet()) {
+            final ProjectVersionRef alignedPvr = aligned.get(entry.getKey());
 
-                        if (!modelDependencies.getValue()
-                                .getVersionString()
-                                .equals(entry.getValue().getVersionString())) {
+            if (alignedPvr != null && !alignedPvr.getVersionString().equals(entry.getValue().getVersionString())) {
+                logger.info("Using existing model to update {} to {}", entry.getValue(), alignedPvr);
 
-                            logger.info(
-                                    "Using existing model to update {} to {}",
-                                    entry.getValue(),
-                                    modelDependencies.getValue());
+                entry.setValue(alignedPvr);
+            }
+        }
+        return allDependencies;
+    }
 
-                            allDependencies.put(d, modelDependencies.getValue());
-                            break;
-                        }
-                    }
+    /**
+     * The aligned dependencies of a module of a previous model indexed by their original dependency. A dependency
+     * with a version matches by GAV while, as a {@link RelaxedProjectVersionRef} without a version equals any
+     * reference with the same GA, one without a version matches by GA.
+     */
+    static final class AlignedDependencyIndex {
+        private final Map<ProjectVersionRef, ProjectVersionRef> byGav;
+
+        private final Map<ProjectRef, ProjectVersionRef> byGa;
+
+        /**
+         * Indexes the aligned dependencies of a module.
+         *
+         * @param module the module of the previous model
+         */
+        AlignedDependencyIndex(ManipulationModel module) {
+            final Map<String, ProjectVersionRef> aligned = module.getAlignedDependencies();
+
+            byGav = new HashMap<>(aligned.size() * 2);
+            byGa = new HashMap<>(aligned.size() * 2);
+            for (Map.Entry<String, ProjectVersionRef> modelDependencies : aligned.entrySet()) {
+                // If we don't have 2 then we must be stored an unversioned artifact. Only interested in full GAV
+                // right now.
+                if (StringUtils.countMatches(modelDependencies.getKey(), ":") == 2) {
+                    final ProjectVersionRef original = SimpleProjectVersionRef.parse(modelDependencies.getKey());
+
+                    byGav.put(original, modelDependencies.getValue());
+                    byGa.put(
+                            new SimpleProjectRef(original.getGroupId(), original.getArtifactId()),
+                            modelDependencies.getValue());
                 }
             }
         }
-        return allDependencies;
+
+        /**
+         * Returns the aligned dependency of the given dependency.
+         *
+         * @param dependency the original dependency
+         * @return the aligned dependency or null if the module has none
+         */
+        ProjectVersionRef get(RelaxedProjectVersionRef dependency) {
+            if (dependency.getVersionString() == null) {
+                return byGa.get(new SimpleProjectRef(dependency.getGroupId(), dependency.getArtifactId()));
+            }
+            return byGav.get(dependency.asProjectVersionRef());
+        }
     }
 
     private void writeReport(Path outputDir, String filename, String text) throws ManipulationException {
@@ -1255,6 +1580,36 @@ public class AlignmentTask extends DefaultTask {
             }
         }
 
+        for (Map.Entry<String, Object> section : cache.getReportSections().entrySet()) {
+            if (section.getValue() instanceof Map) {
+                append(builder, "------------------- {}", section.getKey());
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) section.getValue()).entrySet()) {
+                    append(builder, "\t{} : {}", e.getKey(), e.getValue());
+                }
+                builder.append(System.lineSeparator());
+            }
+        }
+
+        final AlignmentTimings timings = cache.getTimings();
+        if (!timings.getPhases().isEmpty()) {
+            append(builder, "------------------- timings");
+            synchronized (timings.getPhases()) {
+                for (Map.Entry<String, AlignmentTimings.Timing> e : timings.getPhases().entrySet()) {
+                    append(builder, "\t{} : {} ms ({})", e.getKey(), e.getValue().getMillis(), e.getValue().getCount());
+                }
+            }
+            builder.append(System.lineSeparator());
+        }
+        final List<AlignmentTimings.ConfigurationTiming> slowest = timings
+                .getSlowestConfigurations(configuration.reportSlowestConfigurations());
+        if (!slowest.isEmpty()) {
+            append(builder, "------------------- slowest configurations");
+            for (AlignmentTimings.ConfigurationTiming c : slowest) {
+                append(builder, "\t{} ms : {} {} ({} edges)", c.getMillis(), c.getProject(), c.getName(), c.getEdges());
+            }
+            builder.append(System.lineSeparator());
+        }
+
         final String reportText = builder.toString();
         logger.info("{}{}", System.lineSeparator(), reportText);
         final Path outputDir = project.getRootProject().getBuildDir().toPath();
@@ -1267,8 +1622,25 @@ public class AlignmentTask extends DefaultTask {
             writeReport(
                     outputDir,
                     configuration.reportJsonOutputFile(),
-                    JSONUtils.jsonToString(jsonReport) + System.lineSeparator());
+                    toJson(jsonReport, cache.getReportSections()) + System.lineSeparator());
+        }
+    }
+
+    /**
+     * Serializes the PME report, appending any additional report sections after the standard content.
+     */
+    private static String toJson(PME jsonReport, Map<String, Object> sections) throws IOException {
+        final String json = JSONUtils.jsonToString(jsonReport);
+
+        if (sections.isEmpty()) {
+            return json;
+        }
+        final ObjectMapper mapper = new ObjectMapper();
+        final ObjectNode node = (ObjectNode) mapper.readTree(json);
+        for (Map.Entry<String, Object> section : sections.entrySet()) {
+            node.set(section.getKey(), mapper.valueToTree(section.getValue()));
         }
+        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(node);
     }
 
     @Override
@@ -0,0 +1,311 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.DAAlignmentService.RestLookup;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+import org.jboss.pnc.mavenmanipulator.io.rest.RestException;
+import org.jboss.pnc.mavenmanipulator.io.rest.Translator;
+import org.slf4j.Logger;
+
+/**
+ * Issues the REST lookups of {@link DAAlignmentService} concurrently on a fixed pool whose size is the maximum
+ * number of requests in flight.
+ * <p>
+ * A chunked lookup splits the GAVs into chunks which are looked up concurrently and merged. The chunk size is chosen
+ * by an {@link AdaptiveChunkSizer}: either fixed at the configured maximum size (or, if that is not set, split evenly
+ * over the requests in flight) or adapted to the observed latency. Each chunk is retried individually so that a
+ * transient failure only repeats that chunk rather than the whole lookup. The first chunk to fail after its retries
+ * fails the lookup.
+ * <p>
+ * As a {@link Translator} is not documented as safe for concurrent use, each thread performing a lookup has its own,
+ * see {@link #getTranslator()}.
+ */
+final class ConcurrentRestLookup implements AutoCloseable {
+
+    /**
+     * The initial chunk size when adaptive and no maximum REST size is configured.
+     */
+    static final int ADAPTIVE_INITIAL_SIZE = 64;
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private final ExecutorService executor;
+
+    private final int inFlight;
+
+    private final int chunkSize;
+
+    private final int retries;
+
+    private final boolean adaptive;
+
+    private final int adaptiveMaxSize;
+
+    private final Supplier<Translator> translatorFactory;
+
+    /**
+     * The translator of each thread that has performed a lookup.
+     */
+    private final Map<Thread, Translator> translators = new ConcurrentHashMap<>();
+
+    /**
+     * The sizer shared by all the chunked lookups so that an adaptive size carries over from one lookup to the next
+     * and the statistics cover every chunk.
+     */
+    private volatile AdaptiveChunkSizer sizer;
+
+    /**
+     * Creates the pool with a fixed chunk size.
+     *
+     * @param inFlight the maximum number of concurrent requests
+     * @param chunkSize the maximum number of GAVs in a chunk, or not positive to split evenly
+     * @param retries the number of times a failed chunk is retried
+     */
+    ConcurrentRestLookup(int inFlight, int chunkSize, int retries) {
+        this(inFlight, chunkSize, retries, false, chunkSize, null);
+    }
+
+    /**
+     * Creates the pool.
+     *
+     * @param inFlight the maximum number of concurrent requests
+     * @param chunkSize the (initial, if adaptive) number of GAVs in a chunk, or not positive for the default
+     * @param retries the number of times a failed chunk is retried
+     * @param adaptive whether the chunk size adapts to the observed latency and failures
+     * @param adaptiveMaxSize the maximum chunk size when adaptive
+     * @param translatorFactory creates the translator of each thread, or null if {@link #getTranslator()} is unused
+     * @see AdaptiveChunkSizer
+     */
+    ConcurrentRestLookup(
+            int inFlight,
+            int chunkSize,
+            int retries,
+            boolean adaptive,
+            int adaptiveMaxSize,
+            Supplier<Translator> translatorFactory) {
+        this.inFlight = inFlight;
+        this.chunkSize = chunkSize;
+        this.retries = retries;
+        this.adaptive = adaptive;
+        this.adaptiveMaxSize = adaptiveMaxSize;
+        this.translatorFactory = translatorFactory;
+        this.executor = Executors.newFixedThreadPool(inFlight);
+    }
+
+    /**
+     * Submits a task to be run within the pool.
+     *
+     * @param task the task
+     * @return the future result
+     */
+    Future<Map<ProjectVersionRef, String>> submit(Callable<Map<ProjectVersionRef, String>> task) {
+        return executor.submit(task);
+    }
+
+    /**
+     * Returns the translator of the calling thread, creating it on first use, so that no two requests in flight share
+     * a translator. The translators are discarded when this is closed.
+     *
+     * @return the translator
+     */
+    Translator getTranslator() {
+        return translators.computeIfAbsent(Thread.currentThread(), t -> translatorFactory.get());
+    }
+
+    /**
+     * Wraps the lookup so that it is retried on failure.
+     *
+     * @param lookup the lookup
+     * @return the retrying lookup
+     */
+    RestLookup retrying(RestLookup lookup) {
+        return gavs -> withRetries(gavs, lookup);
+    }
+
+    /**
+     * Wraps the lookup so that the GAVs are looked up in concurrent, individually retried, chunks.
+     *
+     * @param lookup the lookup
+     * @return the chunked lookup
+     */
+    RestLookup chunked(RestLookup lookup) {
+        return gavs -> lookup(gavs, lookup);
+    }
+
+    private Map<ProjectVersionRef, String> lookup(List<ProjectVersionRef> gavs, RestLookup lookup)
+            throws RestException {
+        final AdaptiveChunkSizer chunkSizer = getSizer(gavs.size());
+        final Deque<ProjectVersionRef> pending = new ArrayDeque<>(gavs);
+        final Map<ProjectVersionRef, Integer> failures = new HashMap<>();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final int workers = Math.min(inFlight, (gavs.size() + chunkSizer.next() - 1) / chunkSizer.next());
+
+        logger.info(
+                "Looking up {} GAVs in {} chunks of {} with at most {} requests in flight",
+                gavs.size(),
+                adaptive ? "adaptive" : "fixed",
+                adaptive ? "initially " + chunkSizer.next() : "up to " + chunkSizer.next(),
+                inFlight);
+
+        final List<Future<Map<ProjectVersionRef, String>>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(() -> lookupChunks(pending, failures, failed, chunkSizer, lookup)));
+        }
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        try {
+            for (Future<Map<ProjectVersionRef, String>> future : futures) {
+                result.putAll(get(future));
+            }
+        } finally {
+            // Only has an effect if a chunk failed.
+            futures.forEach(f -> f.cancel(true));
+        }
+        return result;
+    }
+
+    /**
+     * Repeatedly takes the next chunk of GAVs (of the size currently chosen by the sizer) until there are none
+     * remaining. A failed chunk is returned to the front of the queue so that it is retried at the (possibly reduced)
+     * current size.
+     */
+    private Map<ProjectVersionRef, String> lookupChunks(
+            Deque<ProjectVersionRef> pending,
+            Map<ProjectVersionRef, Integer> failures,
+            AtomicBoolean failed,
+            AdaptiveChunkSizer chunkSizer,
+            RestLookup lookup) throws RestException {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+
+        while (!failed.get()) {
+            final List<ProjectVersionRef> chunk = new ArrayList<>();
+            int attempts = 0;
+            synchronized (pending) {
+                final int size = chunkSizer.next();
+                while (chunk.size() < size && !pending.isEmpty()) {
+                    final ProjectVersionRef gav = pending.removeFirst();
+                    attempts = Math.max(attempts, failures.getOrDefault(gav, 0));
+                    chunk.add(gav);
+                }
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+            final long start = System.nanoTime();
+            try {
+                result.putAll(lookup.apply(chunk));
+                chunkSizer.success(chunk.size(), System.nanoTime() - start);
+            } catch (RestException e) {
+                chunkSizer.failure(chunk.size(), System.nanoTime() - start);
+                if (attempts >= retries) {
+                    failed.set(true);
+                    throw e;
+                }
+                logger.warn(
+                        "Lookup of {} GAVs failed ({}) ; retrying ({} of {})",
+                        chunk.size(),
+                        e.getMessage(),
+                        attempts + 1,
+                        retries);
+                synchronized (pending) {
+                    for (int i = chunk.size() - 1; i >= 0; i--) {
+                        failures.put(chunk.get(i), attempts + 1);
+                        pending.addFirst(chunk.get(i));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private synchronized AdaptiveChunkSizer getSizer(int gavs) {
+        if (sizer == null) {
+            sizer = new AdaptiveChunkSizer(adaptive, getSize(gavs), adaptiveMaxSize);
+        } else if (chunkSize <= 0 && !adaptive) {
+            // The GAVs of each lookup are split evenly.
+            sizer.resize(getSize(gavs));
+        }
+        return sizer;
+    }
+
+    private int getSize(int gavs) {
+        if (chunkSize > 0) {
+            return chunkSize;
+        } else if (adaptive) {
+            return ADAPTIVE_INITIAL_SIZE;
+        }
+        return (gavs + inFlight - 1) / inFlight;
+    }
+
+    /**
+     * Returns the statistics of the chunked lookup for reporting.
+     *
+     * @return the statistics of the chunks of all the chunked lookups or null if none has been performed
+     */
+    Map<String, Object> getStatistics() {
+        final AdaptiveChunkSizer current = sizer;
+        return current == null ? null : current.getStatistics();
+    }
+
+    private Map<ProjectVersionRef, String> withRetries(List<ProjectVersionRef> gavs, RestLookup lookup)
+            throws RestException {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return lookup.apply(gavs);
+            } catch (RestException e) {
+                if (attempt > retries) {
+                    throw e;
+                }
+                logger.warn(
+                        "Lookup of {} GAVs failed ({}) ; retrying ({} of {})",
+                        gavs.size(),
+                        e.getMessage(),
+                        attempt,
+                        retries);
+            }
+        }
+    }
+
+    /**
+     * Waits for the result of a lookup, rethrowing any failure.
+     *
+     * @param future the pending lookup
+     * @return the result
+     * @throws RestException if the lookup failed
+     */
+    static Map<ProjectVersionRef, String> get(Future<Map<ProjectVersionRef, String>> future) throws RestException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManipulationUncheckedException("Interrupted looking up versions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RestException) {
+                throw (RestException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ManipulationUncheckedException("Unable to look up versions", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        translators.clear();
+    }
+}
@@ -3,13 +3,25 @@ package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.jboss.pnc.mavenmanipulator.core.state.DependencyState.DependencyPrecedence.NONE;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.Getter;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
 import org.gradle.api.logging.LogLevel;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.DALookupCache.Lookup;
 import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.io.OfflineTranslator;
 import org.jboss.pnc.gradlemanipulator.common.logging.FilteringCustomLogger;
 import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
 import org.jboss.pnc.gradlemanipulator.common.utils.RESTUtils;
@@ -24,6 +36,15 @@ import org.slf4j.Logger;
  * in order to get the proper aligned versions of dependencies (as well as the version
  * of the project itself). The heavy lifting is done by
  * {@link org.jboss.pnc.mavenmanipulator.io.rest.DefaultTranslator}.
+ * <p>
+ * If enabled, the results are cached in a {@link DALookupCache} so that only those GAVs not already cached are
+ * passed to the endpoint. If more than one concurrent request or adaptive chunking is configured, the
+ * dependencies are looked up in chunks by a {@link ConcurrentRestLookup}; with more than one concurrent request the
+ * project versions are looked up at the same time. The dependencies may also be looked up while the projects are
+ * still being scanned by a {@link StreamingDependencyLookup}.
+ * <p>
+ * With the rest mode {@link RESTUtils#OFFLINE} the lookups are answered from an {@link OfflineTranslator} snapshot
+ * instead, which a previous run may export by configuring <code>restSnapshotExport</code>.
  */
 public class DAAlignmentService implements AlignmentService {
 
@@ -31,31 +52,107 @@ public class DAAlignmentService implements AlignmentService {
 
     private final Translator restEndpoint;
 
+    /**
+     * Creates the translator of each concurrent request.
+     */
+    private final Supplier<Translator> translatorFactory;
+
     private final DependencyState.DependencyPrecedence dependencySource;
 
     private final String endpointUrl;
 
     private final boolean versionModification;
 
+    private final boolean cacheProjectVersions;
+
+    private final int concurrentRequests;
+
+    private final int restMaxSize;
+
+    private final int chunkRetries;
+
+    private final boolean adaptiveChunking;
+
+    private final int adaptiveMaxSize;
+
+    private final boolean offline;
+
+    /**
+     * The snapshot to export the lookup results to, or null.
+     */
+    private final File snapshotExport;
+
+    private final Map<ProjectVersionRef, String> exportedDependencies = new ConcurrentHashMap<>();
+
+    private final Map<ProjectVersionRef, String> exportedProjects = new ConcurrentHashMap<>();
+
+    /**
+     * The sizes and timings of the chunks of the last chunked alignment, including those of the batches of a
+     * {@link StreamingDependencyLookup}.
+     *
+     * @return the chunk statistics or null if the dependencies were not looked up in chunks
+     */
+    @Getter
+    private Map<String, Object> chunkStatistics;
+
+    /**
+     * The type, GAV counts and duration of every lookup, including those of a {@link StreamingDependencyLookup}.
+     * Where the lookup cache is enabled the GAV count includes those found in the cache.
+     *
+     * @return the lookup statistics
+     */
+    @Getter
+    private final List<Map<String, Object>> lookupStatistics = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * The cache of lookup results.
+     *
+     * @return the cache or null if caching is not enabled
+     */
+    @Getter
+    private final DALookupCache lookupCache;
+
     /**
      * Constructs a new Dependency Analyzer service with the given configuration.
      *
      * @param configuration holds all configuration values for the plugins
      */
     public DAAlignmentService(Configuration configuration) {
+        this(configuration, null);
+    }
+
+    /**
+     * Constructs a new Dependency Analyzer service with the given configuration.
+     *
+     * @param configuration holds all configuration values for the plugins
+     * @param gradleUserHome the Gradle user home directory used to locate the default lookup cache directory
+     */
+    public DAAlignmentService(Configuration configuration, File gradleUserHome) {
         dependencySource = configuration.dependencyConfiguration();
         endpointUrl = configuration.daEndpoint();
         versionModification = configuration.versionModificationEnabled();
+        offline = RESTUtils.isOffline(configuration);
 
         logger.debug("endpointUrl = {}, dependencySource = {}", endpointUrl, dependencySource);
 
-        if (isEmpty(endpointUrl) && dependencySource != NONE) {
+        if (isEmpty(endpointUrl) && dependencySource != NONE && !offline) {
             throw new ManipulationUncheckedException(
                     "'{}' must be configured in order for dependency scanning to work",
                     Configuration.DA);
         }
 
         restEndpoint = RESTUtils.getTranslator(configuration);
+        translatorFactory = () -> RESTUtils.createTranslator(configuration);
+        cacheProjectVersions = configuration.restCacheProjectVersions();
+        concurrentRequests = configuration.restConcurrentRequests();
+        restMaxSize = configuration.restMaxSize();
+        chunkRetries = configuration.restChunkRetries();
+        adaptiveChunking = configuration.restAdaptiveChunking();
+        adaptiveMaxSize = configuration.restAdaptiveMaxSize();
+        // The offline snapshot is already local so there is nothing to gain from caching or exporting it.
+        lookupCache = offline ? null : DALookupCache.create(configuration, gradleUserHome);
+        snapshotExport = offline || isEmpty(configuration.restSnapshotExport()) ? null
+                : new File(configuration.restSnapshotExport());
     }
 
     /**
@@ -67,46 +164,134 @@ public class DAAlignmentService implements AlignmentService {
      */
     @Override
     public Response align(AlignmentService.Request request) throws RestException {
-        if (isEmpty(endpointUrl)) {
+        final ConcurrentRestLookup concurrent = createConcurrentLookup();
+        try {
+            return align(request, concurrent);
+        } finally {
+            if (concurrent != null) {
+                concurrent.close();
+            }
+        }
+    }
+
+    /**
+     * Performs the alignment of the given request with a concurrent lookup that may already have been used, e.g. by
+     * a {@link StreamingDependencyLookup}. The concurrent lookup is not closed.
+     *
+     * @param request both the collected project dependencies GAVs and the project GAVs
+     * @param concurrent the concurrent lookup or null to look up serially
+     * @return the resulting aligned dependencies from the dependency analyzer
+     * @throws RestException if an error occurs looking up the versions.
+     */
+    Response align(AlignmentService.Request request, ConcurrentRestLookup concurrent) throws RestException {
+        if (isEmpty(endpointUrl) && !offline) {
             logger.warn("No restUrl configured ; unable to call endpoint");
             return new Response(Collections.emptyMap());
         }
+        try {
+            final Response response = lookup(request, concurrent);
+            if (snapshotExport != null) {
+                exportSnapshot();
+            }
+            return response;
+        } finally {
+            if (concurrent != null) {
+                chunkStatistics = concurrent.getStatistics();
+            }
+            if (lookupCache != null) {
+                lookupCache.save();
+                logger.info("REST lookup cache {} statistics: {}", lookupCache.getFile(), lookupCache.getStatistics());
+            }
+        }
+    }
+
+    /**
+     * Looks up the aligned versions of the given dependencies, e.g. for a {@link StreamingDependencyLookup} while the
+     * projects are still being scanned. This uses the lookup cache (if enabled) but, unlike {@link #align}, does not
+     * save it.
+     *
+     * @param gavs the dependency GAVs
+     * @param concurrent the concurrent lookup, which is not closed, or null to look up serially
+     * @return the aligned versions of those dependencies that have one
+     * @throws RestException if an error occurs looking up the versions.
+     */
+    Map<ProjectVersionRef, String> lookupDependencies(List<ProjectVersionRef> gavs, ConcurrentRestLookup concurrent)
+            throws RestException {
+        final RestLookup dependencyLookup = concurrent == null ? restEndpoint::lookupVersions
+                : concurrent.chunked(g -> concurrent.getTranslator().lookupVersions(g));
+        return lookup(Lookup.DEPENDENCY, gavs, dependencyLookup);
+    }
+
+    /**
+     * Creates the concurrent lookup if more than one concurrent request or adaptive chunking is configured.
+     *
+     * @return the concurrent lookup, which the caller must close, or null to look up serially
+     */
+    ConcurrentRestLookup createConcurrentLookup() {
+        return concurrentRequests > 1 || adaptiveChunking
+                ? new ConcurrentRestLookup(
+                        Math.max(1, concurrentRequests),
+                        restMaxSize,
+                        chunkRetries,
+                        adaptiveChunking,
+                        adaptiveMaxSize,
+                        translatorFactory)
+                : null;
+    }
+
+    private Response lookup(AlignmentService.Request request, ConcurrentRestLookup concurrent)
+            throws RestException {
         final LogLevel originalLevel = FilteringCustomLogger.getContext().getLevel();
         final List<ProjectVersionRef> vParams = request.getDependencies();
-        final Map<ProjectVersionRef, String> vMap;
+        final List<ProjectVersionRef> pParams = request.getProject();
+        final boolean lookupDependencies = dependencySource != NONE;
+        // With streaming lookups all the dependencies may already have been looked up.
+        final boolean lookupRemaining = lookupDependencies && !vParams.isEmpty();
+        final boolean lookupProject = versionModification && !pParams.isEmpty();
+        final RestLookup dependencyLookup = concurrent == null ? restEndpoint::lookupVersions
+                : concurrent.chunked(g -> concurrent.getTranslator().lookupVersions(g));
+        final RestLookup projectLookup = concurrent == null ? restEndpoint::lookupProjectVersions
+                : concurrent.retrying(g -> concurrent.getTranslator().lookupProjectVersions(g));
+        Future<Map<ProjectVersionRef, String>> pFuture = null;
+        Map<ProjectVersionRef, String> vMap = new HashMap<>();
+        Map<ProjectVersionRef, String> pMap = null;
 
-        if (dependencySource == NONE) {
+        if (!lookupDependencies) {
             logger.warn("No dependencySource configured ; unable pass GAVs into endpoint");
-            vMap = new HashMap<>();
         } else {
             logger.info("Passing {} GAVs into the REST client api {}", vParams.size(), vParams);
-            try {
-                if (originalLevel == LogLevel.LIFECYCLE) {
-                    FilteringCustomLogger.getContext().setLevel(LogLevel.INFO);
-                }
-                vMap = restEndpoint.lookupVersions(vParams);
-            } finally {
-                FilteringCustomLogger.getContext().setLevel(originalLevel);
+        }
+        if (lookupProject) {
+            logger.debug("Passing {} project GAVs into the REST client api {}", pParams.size(), pParams);
+        }
+        try {
+            if (originalLevel == LogLevel.LIFECYCLE) {
+                FilteringCustomLogger.getContext().setLevel(LogLevel.INFO);
+            }
+            if (lookupProject && lookupRemaining && concurrentRequests > 1) {
+                // Look up the project versions at the same time as the dependencies.
+                pFuture = concurrent.submit(() -> lookup(Lookup.PROJECT, pParams, projectLookup));
+            }
+            if (lookupRemaining) {
+                vMap = lookup(Lookup.DEPENDENCY, vParams, dependencyLookup);
+            }
+            if (pFuture != null) {
+                pMap = ConcurrentRestLookup.get(pFuture);
+            } else if (lookupProject) {
+                pMap = lookup(Lookup.PROJECT, pParams, projectLookup);
             }
+        } finally {
+            if (pFuture != null) {
+                pFuture.cancel(true);
+            }
+            FilteringCustomLogger.getContext().setLevel(originalLevel);
+        }
+        if (lookupDependencies) {
             logger.info("REST Client returned: {}", vMap);
         }
         final Response response = new Response(vMap);
 
-        final List<ProjectVersionRef> pParams = request.getProject();
-
-        if (versionModification && !pParams.isEmpty()) {
-            logger.debug("Passing {} project GAVs into the REST client api {}", pParams.size(), pParams);
-
-            final Map<ProjectVersionRef, String> pMap;
-            try {
-                if (originalLevel == LogLevel.LIFECYCLE) {
-                    FilteringCustomLogger.getContext().setLevel(LogLevel.INFO);
-                }
-                pMap = restEndpoint.lookupProjectVersions(pParams);
-            } finally {
-                FilteringCustomLogger.getContext().setLevel(originalLevel);
-            }
-
+        if (lookupProject) {
             logger.info("REST Client returned for project versions: {}", pMap);
 
             final ProjectVersionRef projectVersion = pParams.get(0);
@@ -122,4 +307,68 @@ public class DAAlignmentService implements AlignmentService {
 
         return response;
     }
+
+    /**
+     * Looks up the given GAVs, recording the results if a snapshot is to be exported.
+     */
+    private Map<ProjectVersionRef, String> lookup(
+            Lookup type,
+            List<ProjectVersionRef> gavs,
+            RestLookup restLookup) throws RestException {
+        final long start = System.nanoTime();
+        final Map<ProjectVersionRef, String> result = lookupCached(type, gavs, restLookup);
+        final Map<String, Object> statistics = new LinkedHashMap<>();
+
+        statistics.put("type", type);
+        statistics.put("gavs", gavs.size());
+        statistics.put("found", result.size());
+        statistics.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        lookupStatistics.add(statistics);
+
+        if (snapshotExport != null) {
+            (type == Lookup.DEPENDENCY ? exportedDependencies : exportedProjects).putAll(result);
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the given GAVs, only passing those not found in the cache (if enabled) to the endpoint.
+     */
+    private Map<ProjectVersionRef, String> lookupCached(
+            Lookup type,
+            List<ProjectVersionRef> gavs,
+            RestLookup restLookup) throws RestException {
+        if (lookupCache == null || (type == Lookup.PROJECT && !cacheProjectVersions)) {
+            return restLookup.apply(gavs);
+        }
+        final List<ProjectVersionRef> uncached = new ArrayList<>();
+        final Map<ProjectVersionRef, String> result = lookupCache.lookup(type, gavs, uncached);
+
+        if (!uncached.isEmpty()) {
+            logger.info("Found {} of {} GAVs in the REST lookup cache", gavs.size() - uncached.size(), gavs.size());
+            final Map<ProjectVersionRef, String> found = restLookup.apply(uncached);
+            lookupCache.store(type, uncached, found);
+            result.putAll(found);
+        } else {
+            logger.info("Found all {} GAVs in the REST lookup cache", gavs.size());
+        }
+        return result;
+    }
+
+    private void exportSnapshot() {
+        try {
+            Files.createDirectories(snapshotExport.getAbsoluteFile().getParentFile().toPath());
+            OfflineTranslator.write(snapshotExport, exportedDependencies, exportedProjects);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to write offline snapshot {}", snapshotExport, e);
+        }
+    }
+
+    /**
+     * A lookup of aligned versions from the endpoint.
+     */
+    @FunctionalInterface
+    interface RestLookup {
+        Map<ProjectVersionRef, String> apply(List<ProjectVersionRef> gavs) throws RestException;
+    }
 }
@@ -0,0 +1,330 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.gradlemanipulator.common.utils.FileUtils;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+import org.slf4j.Logger;
+
+/**
+ * A persistent cache of the results of the Dependency Analyzer lookups used by {@link DAAlignmentService}.
+ * <p>
+ * As the result of a lookup depends upon the endpoint, the rest mode, the dependency source and whether brew pull is
+ * active, each such combination is stored in its own file (named from a digest of those values) within the cache
+ * directory. Within a file the entries are keyed by the lookup type and the GAV. Lookups that did not return an
+ * aligned version are cached as well so that they are not repeated.
+ * <p>
+ * Entries expire after the configured time to live and the least recently used entries are evicted once the
+ * configured maximum size is exceeded. The store is a compact binary file which is read once on creation and, if
+ * modified, atomically replaced by {@link #save()}. Should the file be unreadable (e.g. it is corrupt or was written
+ * by an incompatible version) the cache simply starts empty.
+ */
+public final class DALookupCache {
+
+    /**
+     * The name of the default cache directory within the Gradle user home.
+     */
+    static final String DIRECTORY = "gme-cache";
+
+    private static final int MAGIC = 0x474d4543;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The type of lookup as both are cached in the same store.
+     */
+    public enum Lookup {
+        DEPENDENCY,
+        PROJECT
+    }
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    /**
+     * The file the cache is stored in.
+     *
+     * @return the cache file
+     */
+    @Getter
+    private final File file;
+
+    private final long ttl;
+
+    private final int maxSize;
+
+    /**
+     * Ordered by access so that the eldest entry is the least recently used.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private boolean modified;
+
+    /**
+     * The number of GAVs found in the cache.
+     *
+     * @return the number of hits
+     */
+    @Getter
+    private int hits;
+
+    /**
+     * The number of GAVs not found in the cache (or whose entry had expired).
+     *
+     * @return the number of misses
+     */
+    @Getter
+    private int misses;
+
+    /**
+     * The number of entries removed due to expiry or the size bound.
+     *
+     * @return the number of evictions
+     */
+    @Getter
+    private int evictions;
+
+    /**
+     * Creates the cache, reading any existing content from the given file.
+     *
+     * @param file the file to store the cache in
+     * @param ttl the time to live of an entry in milliseconds
+     * @param maxSize the maximum number of entries
+     */
+    DALookupCache(File file, long ttl, int maxSize) {
+        this.file = file;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+
+        load();
+    }
+
+    /**
+     * Creates the cache for the given configuration.
+     *
+     * @param configuration the current configuration
+     * @param gradleUserHome the Gradle user home directory, or null to use <code>~/.gradle</code>
+     * @return the cache or null if caching is not enabled
+     */
+    public static DALookupCache create(Configuration configuration, File gradleUserHome) {
+        if (!configuration.restCache()) {
+            return null;
+        }
+        final File directory;
+        if (!isEmpty(configuration.restCacheDirectory())) {
+            directory = new File(configuration.restCacheDirectory());
+        } else if (gradleUserHome != null) {
+            directory = new File(gradleUserHome, DIRECTORY);
+        } else {
+            directory = new File(System.getProperty("user.home"), ".gradle" + File.separator + DIRECTORY);
+        }
+        final String scope = configuration.daEndpoint() + '|' + configuration.restMode() + '|'
+                + configuration.dependencyConfiguration() + '|' + configuration.restBrewPullActive();
+
+        return new DALookupCache(
+                new File(directory, "da-" + digest(scope) + ".cache"),
+                TimeUnit.SECONDS.toMillis(configuration.restCacheTTL()),
+                configuration.restCacheMaxSize());
+    }
+
+    /**
+     * Looks up the given GAVs.
+     *
+     * @param lookup the type of lookup
+     * @param gavs the GAVs to look up
+     * @param uncached populated with those GAVs that are not cached and must be looked up
+     * @return the cached aligned versions
+     */
+    public synchronized Map<ProjectVersionRef, String> lookup(
+            Lookup lookup,
+            List<ProjectVersionRef> gavs,
+            List<ProjectVersionRef> uncached) {
+        final long now = System.currentTimeMillis();
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+
+        for (ProjectVersionRef gav : gavs) {
+            final String key = key(lookup, gav);
+            final Entry entry = entries.get(key);
+
+            if (entry != null && isExpired(entry, now)) {
+                entries.remove(key);
+                modified = true;
+                evictions++;
+            } else if (entry != null) {
+                hits++;
+                if (entry.version != null) {
+                    result.put(gav, entry.version);
+                }
+                continue;
+            }
+            misses++;
+            uncached.add(gav);
+        }
+        logger.debug("Found {} of {} {} lookups in the cache", gavs.size() - uncached.size(), gavs.size(), lookup);
+
+        return result;
+    }
+
+    /**
+     * Records the result of looking up the given GAVs. Those GAVs that are absent from the result are recorded as
+     * having no aligned version.
+     *
+     * @param lookup the type of lookup
+     * @param gavs the GAVs that were looked up
+     * @param result the aligned versions returned
+     */
+    public synchronized void store(
+            Lookup lookup,
+            List<ProjectVersionRef> gavs,
+            Map<ProjectVersionRef, String> result) {
+        final long now = System.currentTimeMillis();
+
+        for (ProjectVersionRef gav : gavs) {
+            entries.put(key(lookup, gav), new Entry(result.get(gav), now));
+            modified = true;
+        }
+        trim();
+    }
+
+    /**
+     * Writes the cache to disk if it has been modified. Failures are logged rather than thrown as the cache is
+     * purely an optimisation.
+     */
+    public synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(entries.size() * 64 + 12);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                // Written in access order so that the least recently used remain the eldest when read.
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeBoolean(e.getValue().version != null);
+                    if (e.getValue().version != null) {
+                        out.writeUTF(e.getValue().version);
+                    }
+                    out.writeLong(e.getValue().created);
+                }
+            }
+            Files.createDirectories(file.getParentFile().toPath());
+            FileUtils.writeAtomically(file, bytes.toByteArray());
+            modified = false;
+            logger.debug("Wrote {} entries to {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.warn("Unable to write REST lookup cache {}", file, e);
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache for reporting.
+     *
+     * @return the hits, misses, evictions and size
+     */
+    public synchronized Map<String, Integer> getStatistics() {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("hits", hits);
+        result.put("misses", misses);
+        result.put("evictions", evictions);
+        result.put("size", entries.size());
+        return result;
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warn("Ignoring REST lookup cache {} with an unknown format", file);
+                return;
+            }
+            final int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                final String key = in.readUTF();
+                final String version = in.readBoolean() ? in.readUTF() : null;
+                final Entry entry = new Entry(version, in.readLong());
+
+                if (isExpired(entry, now)) {
+                    modified = true;
+                    evictions++;
+                } else {
+                    entries.put(key, entry);
+                }
+            }
+            trim();
+            logger.debug("Read {} entries from {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable REST lookup cache {}", file, e);
+            entries.clear();
+            modified = true;
+        }
+    }
+
+    private void trim() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            modified = true;
+            evictions++;
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.created > ttl;
+    }
+
+    private static String key(Lookup lookup, ProjectVersionRef gav) {
+        return lookup.name() + ':' + gav.getGroupId() + ':' + gav.getArtifactId() + ':' + gav.getVersionString();
+    }
+
+    private static String digest(String value) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder sb = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new ManipulationUncheckedException("Unable to create digest", e);
+        }
+    }
+
+    private static final class Entry {
+        private final String version;
+
+        private final long created;
+
+        private Entry(String version, long created) {
+            this.version = version;
+            this.created = created;
+        }
+    }
+}
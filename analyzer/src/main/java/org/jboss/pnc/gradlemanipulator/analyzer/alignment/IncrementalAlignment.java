@@ -0,0 +1,145 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.jboss.pnc.mavenmanipulator.core.state.DependencyState.DependencyPrecedence.NONE;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.io.ManipulationIO;
+import org.jboss.pnc.gradlemanipulator.common.io.ManipulationModelCache;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.common.versioning.RelaxedProjectVersionRef;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+
+/**
+ * Supports incremental alignment against the {@link ManipulationIO#MANIPULATION_FILE_NAME} of a previous alignment.
+ * <p>
+ * When a previous model exists the scanned dependencies of each project have already been updated to the previously
+ * aligned versions. A dependency is therefore unchanged if, in every project it is used, it is identical to the
+ * alignment recorded for that project in the previous model. Those alignments are reused and only the remaining new or
+ * changed GAVs are looked up. As the previous model only records aligned dependencies, those that were not aligned
+ * are always looked up again (the REST lookup cache may be used to avoid repeating those).
+ * <p>
+ * The previous alignment is assumed to have used the same configuration. If a time to live is configured a model older
+ * than that is ignored so that newer alignments are picked up.
+ */
+final class IncrementalAlignment {
+
+    private static final Logger logger = GMLogger.getLogger(IncrementalAlignment.class);
+
+    private final ManipulationModel previous;
+
+    /**
+     * The versions of the unchanged dependencies that are reused from the previous alignment.
+     *
+     * @return the reused alignments
+     */
+    @Getter
+    private final Map<ProjectVersionRef, String> reused = new HashMap<>();
+
+    private int changed;
+
+    private IncrementalAlignment(ManipulationModel previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Creates the incremental alignment if enabled and a suitable previous model exists.
+     *
+     * @param configuration the current configuration
+     * @param rootProject the root project
+     * @return the incremental alignment or null if a full alignment must be performed
+     */
+    static IncrementalAlignment create(Configuration configuration, Project rootProject) {
+        if (!configuration.incrementalAlignment() || isEmpty(configuration.daEndpoint())
+                || configuration.dependencyConfiguration() == NONE) {
+            return null;
+        }
+        final File manipulationFile = new File(rootProject.getRootDir(), ManipulationIO.MANIPULATION_FILE_NAME);
+
+        if (!manipulationFile.isFile()) {
+            logger.info("No previous {} found ; performing a full alignment", manipulationFile.getName());
+            return null;
+        }
+        final long ttl = TimeUnit.SECONDS.toMillis(configuration.incrementalAlignmentTTL());
+        if (ttl > 0 && System.currentTimeMillis() - manipulationFile.lastModified() > ttl) {
+            logger.info("Previous {} has expired ; performing a full alignment", manipulationFile.getName());
+            return null;
+        }
+        return new IncrementalAlignment(ManipulationModelCache.readManipulationModel(rootProject));
+    }
+
+    /**
+     * Determines the dependencies that must be looked up, recording the alignments of the remainder to be reused.
+     *
+     * @param dependencies the scanned dependencies of each project
+     * @param allDeps all distinct dependencies
+     * @return the new or changed dependencies
+     */
+    List<ProjectVersionRef> getChanged(
+            Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies,
+            List<ProjectVersionRef> allDeps) {
+        final Map<ProjectVersionRef, Boolean> unchanged = new HashMap<>();
+
+        dependencies.forEach((project, projectDependencies) -> {
+            final Map<String, ProjectVersionRef> aligned = getAlignedDependencies(project);
+            projectDependencies.forEach((d, pvr) -> {
+                final ProjectVersionRef previousAlignment = aligned.get(d.toString());
+                final boolean same = previousAlignment != null
+                        && previousAlignment.getGroupId().equals(pvr.getGroupId())
+                        && previousAlignment.getArtifactId().equals(pvr.getArtifactId())
+                        && previousAlignment.getVersionString().equals(pvr.getVersionString());
+                unchanged.merge(pvr, same, Boolean::logicalAnd);
+            });
+        });
+
+        final List<ProjectVersionRef> result = new ArrayList<>();
+        for (ProjectVersionRef pvr : allDeps) {
+            if (Boolean.TRUE.equals(unchanged.get(pvr))) {
+                reused.put(pvr, pvr.getVersionString());
+            } else {
+                result.add(pvr);
+            }
+        }
+        changed = result.size();
+        logger.info(
+                "Incremental alignment is reusing {} previous alignments and looking up {} new or changed GAVs",
+                reused.size(),
+                changed);
+
+        return result;
+    }
+
+    /**
+     * Returns the statistics for reporting.
+     *
+     * @return the number of reused and looked up dependencies
+     */
+    Map<String, Integer> getStatistics() {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("reused", reused.size());
+        result.put("changed", changed);
+        return result;
+    }
+
+    private Map<String, ProjectVersionRef> getAlignedDependencies(Project project) {
+        try {
+            return previous.findCorrespondingChild(project.getPath()).getAlignedDependencies();
+        } catch (ManipulationUncheckedException e) {
+            logger.debug("Project {} is not in the previous model", project.getPath());
+            return Collections.emptyMap();
+        }
+    }
+}
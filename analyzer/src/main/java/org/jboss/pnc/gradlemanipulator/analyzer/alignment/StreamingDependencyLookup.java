@@ -0,0 +1,241 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.jboss.pnc.mavenmanipulator.core.state.DependencyState.DependencyPrecedence.NONE;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.AlignmentService.Request;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.AlignmentService.Response;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.DAAlignmentService.RestLookup;
+import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.ManipulationCache;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.mavenmanipulator.io.rest.RestException;
+import org.slf4j.Logger;
+
+/**
+ * Looks up the dependencies with a {@link DAAlignmentService} while the projects are still being scanned. As each
+ * {@link AlignmentTask} adds its dependencies to the {@link ManipulationCache} those not seen before are queued and,
+ * once at least the configured batch size are queued, looked up in the background. The lookups are performed one
+ * batch at a time (each batch may itself be looked up in concurrent chunks by the service) so the number of requests
+ * in flight is no more than without streaming. All the batches and the final alignment share one
+ * {@link ConcurrentRestLookup}, so its pool and translators are only created once and its chunk statistics cover
+ * every lookup.
+ * <p>
+ * Once the last project has been scanned {@link #await(AlignmentService.Request)} looks up any remaining queued
+ * dependencies, waits for the batches still in flight and then performs the alignment of the project versions and
+ * any dependencies not yet looked up. The first batch to fail fails the alignment.
+ */
+final class StreamingDependencyLookup implements ManipulationCache.DependencyListener {
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    /**
+     * The service used for the lookups. This is also used by the alignment so that the lookup cache is shared.
+     *
+     * @return the alignment service
+     */
+    @Getter
+    private final DAAlignmentService alignmentService;
+
+    /**
+     * The concurrent lookup shared by the batches and the final alignment, or null to look up serially.
+     */
+    private final ConcurrentRestLookup concurrent;
+
+    private final RestLookup lookup;
+
+    private final int batchSize;
+
+    private final ThreadPoolExecutor executor;
+
+    private final List<ProjectVersionRef> pending = new ArrayList<>();
+
+    private final Set<ProjectVersionRef> submitted = new HashSet<>();
+
+    private final List<Future<Map<ProjectVersionRef, String>>> batches = new ArrayList<>();
+
+    private volatile long waitMillis;
+
+    /**
+     * Creates the streaming lookup.
+     *
+     * @param alignmentService the service used for the lookups and the alignment
+     * @param batchSize the minimum number of dependencies in a batch
+     */
+    StreamingDependencyLookup(DAAlignmentService alignmentService, int batchSize) {
+        this(alignmentService, alignmentService.createConcurrentLookup(), batchSize);
+    }
+
+    private StreamingDependencyLookup(
+            DAAlignmentService alignmentService,
+            ConcurrentRestLookup concurrent,
+            int batchSize) {
+        this(alignmentService, concurrent, g -> alignmentService.lookupDependencies(g, concurrent), batchSize);
+    }
+
+    /**
+     * Creates the streaming lookup.
+     *
+     * @param alignmentService the service used by the alignment
+     * @param concurrent the concurrent lookup, which is closed by {@link #await(Request)}, or null
+     * @param lookup the lookup of a batch of dependencies
+     * @param batchSize the minimum number of dependencies in a batch
+     */
+    StreamingDependencyLookup(
+            DAAlignmentService alignmentService,
+            ConcurrentRestLookup concurrent,
+            RestLookup lookup,
+            int batchSize) {
+        this.alignmentService = alignmentService;
+        this.concurrent = concurrent;
+        this.lookup = lookup;
+        this.batchSize = Math.max(1, batchSize);
+        // The thread is allowed to time out so that it does not linger in the Gradle daemon should the alignment
+        // never complete.
+        this.executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            final Thread thread = new Thread(r, "gme-streaming-lookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Installs the streaming lookup as the dependency listener of the cache if streaming is enabled. It is not used
+     * with incremental alignment as that only looks up the dependencies that have changed once all the projects have
+     * been scanned.
+     *
+     * @param configuration the current configuration
+     * @param cache the cache
+     */
+    static void install(Configuration configuration, ManipulationCache cache) {
+        if (!configuration.restStreaming() || configuration.incrementalAlignment()
+                || isEmpty(configuration.daEndpoint()) || configuration.dependencyConfiguration() == NONE) {
+            return;
+        }
+        synchronized (cache) {
+            if (cache.getDependencyListener() == null) {
+                final DAAlignmentService alignmentService = new DAAlignmentService(
+                        configuration,
+                        cache.getRootProject().getGradle().getGradleUserHomeDir());
+                cache.setDependencyListener(
+                        new StreamingDependencyLookup(alignmentService, configuration.restStreamingBatchSize()));
+            }
+        }
+    }
+
+    /**
+     * Returns the streaming lookup of the cache.
+     *
+     * @param cache the cache
+     * @return the streaming lookup or null if streaming is not enabled
+     */
+    static StreamingDependencyLookup get(ManipulationCache cache) {
+        final ManipulationCache.DependencyListener listener = cache.getDependencyListener();
+        return listener instanceof StreamingDependencyLookup ? (StreamingDependencyLookup) listener : null;
+    }
+
+    @Override
+    public synchronized void discovered(List<ProjectVersionRef> gavs) {
+        pending.addAll(gavs);
+        if (pending.size() >= batchSize) {
+            submit();
+        }
+    }
+
+    /**
+     * Looks up any remaining queued dependencies, waits for all the lookups to complete and then aligns the request,
+     * only looking up those of its dependencies that have not been streamed. The concurrent lookup is closed once
+     * done.
+     *
+     * @param request both the collected project dependencies GAVs and the project GAVs
+     * @return the resulting aligned dependencies, including those that were streamed
+     * @throws RestException if a lookup failed
+     */
+    Response await(Request request) throws RestException {
+        final List<Future<Map<ProjectVersionRef, String>>> futures;
+        synchronized (this) {
+            if (!pending.isEmpty()) {
+                submit();
+            }
+            futures = new ArrayList<>(batches);
+        }
+        final long start = System.nanoTime();
+        final Map<ProjectVersionRef, String> streamed = new HashMap<>();
+        try {
+            try {
+                for (Future<Map<ProjectVersionRef, String>> future : futures) {
+                    streamed.putAll(ConcurrentRestLookup.get(future));
+                }
+            } finally {
+                // Only has an effect if a batch failed.
+                futures.forEach(f -> f.cancel(true));
+                executor.shutdown();
+                waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            logger.info(
+                    "Streamed lookups of {} GAVs in {} batches ; waited {} ms for those in flight",
+                    submitted.size(),
+                    futures.size(),
+                    waitMillis);
+
+            final List<ProjectVersionRef> remaining = request.getDependencies()
+                    .stream()
+                    .filter(d -> !isSubmitted(d))
+                    .collect(Collectors.toList());
+            final Response response = alignmentService.align(new Request(request.getProject(), remaining), concurrent);
+            streamed.forEach(response.getTranslationMap()::putIfAbsent);
+            return response;
+        } finally {
+            if (concurrent != null) {
+                concurrent.close();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given dependency has been looked up.
+     *
+     * @param gav the dependency
+     * @return true if it has been submitted for lookup
+     */
+    synchronized boolean isSubmitted(ProjectVersionRef gav) {
+        return submitted.contains(gav);
+    }
+
+    /**
+     * Returns the statistics of the streamed lookups for reporting.
+     *
+     * @return the number of GAVs and batches and the time waited once scanning completed
+     */
+    synchronized Map<String, Object> getStatistics() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("gavs", submitted.size());
+        result.put("batches", batches.size());
+        result.put("waitMillis", waitMillis);
+        return result;
+    }
+
+    private void submit() {
+        final List<ProjectVersionRef> batch = new ArrayList<>(pending);
+        pending.clear();
+        submitted.addAll(batch);
+
+        logger.debug("Submitting streamed lookup of {} GAVs", batch.size());
+        batches.add(executor.submit(() -> lookup.apply(batch)));
+    }
+}
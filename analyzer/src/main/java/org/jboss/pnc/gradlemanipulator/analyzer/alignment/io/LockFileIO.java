@@ -6,12 +6,17 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.experimental.UtilityClass;
@@ -21,6 +26,7 @@ import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.gradle.api.logging.Logger;
 import org.jboss.pnc.gradlemanipulator.common.versioning.DynamicVersionParser;
+import org.jboss.pnc.gradlemanipulator.common.versioning.GAVPool;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
 
 /**
@@ -41,8 +47,26 @@ public class LockFileIO {
      */
     public Set<ProjectVersionRef> allProjectVersionRefsFromLockfiles(File locksRootPath)
             throws IOException {
+        return allProjectVersionRefsFromLockfiles(locksRootPath, null);
+    }
+
+    /**
+     * Returns a set containing all project version refs from lock files in the given path, interned within the given
+     * pool as the same entries are typically locked by many projects. This is not recursive.
+     *
+     * @param locksRootPath the path to the root for the lock files
+     * @param pool the pool to intern the project version refs within, or null
+     * @throws IOException if an error occurs
+     * @return the set of all project version refs
+     */
+    public Set<ProjectVersionRef> allProjectVersionRefsFromLockfiles(File locksRootPath, GAVPool pool)
+            throws IOException {
         final Set<ProjectVersionRef> result = new HashSet<>();
-        getLockFiles(locksRootPath).forEach(f -> result.addAll(readProjectVersionRefLocksOfFile(f)));
+        for (File lockFile : getLockFiles(locksRootPath)) {
+            for (ProjectVersionRef pvr : readProjectVersionRefLocksOfFile(lockFile)) {
+                result.add(pool == null ? pvr : pool.intern(pvr));
+            }
+        }
         return result;
     }
 
@@ -82,7 +106,77 @@ public class LockFileIO {
         }
     }
 
-    public void updateLockfiles(
+    /**
+     * Updates the lock files of multiple directories concurrently on a pool bounded by the number of processors. The
+     * updates for a single directory are applied in order by one thread. The first failure cancels the remaining
+     * updates and is rethrown.
+     *
+     * @param logger the logger to use
+     * @param updates a map of directory to the aligned dependencies to apply to its lock files
+     * @return the total number of lock files that were modified
+     */
+    public int updateLockfiles(Logger logger, Map<File, List<Map<String, ProjectVersionRef>>> updates) {
+        final int threads = Math.min(updates.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            int modifiedFiles = 0;
+            for (Map.Entry<File, List<Map<String, ProjectVersionRef>>> update : updates.entrySet()) {
+                modifiedFiles += updateLockfiles(logger, update.getKey(), update.getValue());
+            }
+            return modifiedFiles;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+            updates.forEach(
+                    (directory, alignedDependencies) -> completionService
+                            .submit(() -> updateLockfiles(logger, directory, alignedDependencies)));
+
+            int modifiedFiles = 0;
+            for (int i = 0; i < updates.size(); i++) {
+                modifiedFiles += completionService.take().get();
+            }
+            return modifiedFiles;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManipulationUncheckedException("Interrupted updating lock files", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ManipulationUncheckedException("Unable to update lock files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int updateLockfiles(
+            Logger logger,
+            File directory,
+            List<Map<String, ProjectVersionRef>> alignedDependencies) {
+        int modifiedFiles = 0;
+        for (Map<String, ProjectVersionRef> a : alignedDependencies) {
+            modifiedFiles += updateLockfiles(logger, directory, a);
+        }
+        return modifiedFiles;
+    }
+
+    /**
+     * Updates the versions within the lock files of the given directory to their aligned versions. Each lock file is
+     * processed in a single pass ; every entry is looked up in an index of the aligned dependencies and the file is
+     * only rewritten (atomically) if an entry has changed.
+     * <p>
+     * It is possible that an aligned dependency has a dynamic version recorded as its key while the lock file
+     * has an explicit value. Therefore, entries that don't match exactly are matched on group:artifact against the
+     * dynamic keys. One potential issue is that multiple same group:artifact with dynamic versions will all end up
+     * being replaced.
+     *
+     * @param logger the logger to use
+     * @param directory the directory containing the lock files
+     * @param alignedDependencies the map of original dependency to aligned dependency
+     * @return the number of lock files that were modified
+     */
+    public int updateLockfiles(
             Logger logger,
             File directory,
             Map<String, ProjectVersionRef> alignedDependencies) {
@@ -93,45 +187,88 @@ public class LockFileIO {
         } catch (IOException e) {
             throw new ManipulationUncheckedException(e);
         }
+        if (locksFiles.isEmpty() || alignedDependencies.isEmpty()) {
+            return 0;
+        }
+
+        final Map<String, ProjectVersionRef> exact = new HashMap<>();
+        final Map<String, ProjectVersionRef> dynamic = new HashMap<>();
+        alignedDependencies.forEach((key, value) -> {
+            ProjectVersionRef keyProjectVersionRef = SimpleProjectVersionRef.parse(key);
+            if (DynamicVersionParser.isDynamic(keyProjectVersionRef.getVersionString())) {
+                dynamic.put(keyProjectVersionRef.asProjectRef().toString(), value);
+            } else {
+                exact.put(key, value);
+            }
+        });
 
+        int modifiedFiles = 0;
         for (File lockFile : locksFiles) {
             logger.debug("Examining lockfile {}", lockFile);
 
             try {
-                List<String> lockFileLines = FileUtils.readLines(lockFile, Charset.defaultCharset());
-                AtomicBoolean modified = new AtomicBoolean(false);
-
-                alignedDependencies.forEach((key, value) -> {
-                    ProjectVersionRef keyProjectVersionRef = SimpleProjectVersionRef.parse(key);
-                    boolean dynamic = DynamicVersionParser.isDynamic(keyProjectVersionRef.getVersionString());
-                    String matcher = key;
-                    // Its possible alignedDependencies has a DynamicValue recorded as key but the lockfile has an
-                    // explicit value. Therefore, we have to filter to find a partial match on group:artifact.
-                    // One potential issue is that multiple same group:artifact with dynamic versions will
-                    // all end up being replaced.
-                    if (dynamic) {
-                        matcher = keyProjectVersionRef.asProjectRef().toString();
-                    }
+                final List<String> lockFileLines = FileUtils.readLines(lockFile, Charset.defaultCharset());
+                boolean modified = false;
 
-                    for (int i = 0; i < lockFileLines.size(); i++) {
-                        String line = lockFileLines.get(i);
-                        if (line.contains(matcher)) {
-                            logger.debug("Found lock file element '{}' to be replaced by {}", line, value);
-                            line = line.replaceFirst(
-                                    matcher +
-                                            (dynamic ? ":([a-zA-Z0-9.]+)(=.*)*" : "(=.*)*"),
-                                    value + (dynamic ? "$2" : "$1"));
-                            lockFileLines.set(i, line);
-                            modified.set(true);
-                        }
+                for (int i = 0; i < lockFileLines.size(); i++) {
+                    final String line = lockFileLines.get(i);
+                    final String replacement = updateLockfileLine(line, exact, dynamic);
+
+                    if (replacement != null) {
+                        logger.debug(
+                                "Found lock file element '{}' to be replaced by {}",
+                                line,
+                                replacement);
+                        lockFileLines.set(i, replacement);
+                        modified = true;
                     }
-                });
-                if (modified.get()) {
-                    FileUtils.writeLines(lockFile, lockFileLines);
+                }
+                if (modified) {
+                    final StringBuilder content = new StringBuilder();
+                    for (String line : lockFileLines) {
+                        content.append(line).append(System.lineSeparator());
+                    }
+                    org.jboss.pnc.gradlemanipulator.common.utils.FileUtils
+                            .writeAtomically(lockFile, content.toString(), Charset.defaultCharset());
+                    modifiedFiles++;
                 }
             } catch (IOException e) {
                 throw new ManipulationUncheckedException(e);
             }
         }
+        return modifiedFiles;
+    }
+
+    /**
+     * Replaces the group:artifact:version of a lock file entry (of the form {@code g:a:v=configurations}).
+     *
+     * @param line the lock file line
+     * @param exact the aligned dependencies keyed by group:artifact:version
+     * @param dynamic the aligned dependencies with a dynamic version keyed by group:artifact
+     * @return the replacement line or null if it is unchanged
+     */
+    private String updateLockfileLine(
+            String line,
+            Map<String, ProjectVersionRef> exact,
+            Map<String, ProjectVersionRef> dynamic) {
+        if (line.isEmpty() || line.startsWith("#")) {
+            return null;
+        }
+        final int separator = line.indexOf('=');
+        final String gav = separator == -1 ? line : line.substring(0, separator);
+        final String configurations = separator == -1 ? "" : line.substring(separator);
+
+        ProjectVersionRef aligned = exact.get(gav);
+        if (aligned == null && !dynamic.isEmpty()) {
+            final int versionSeparator = gav.lastIndexOf(':');
+            if (versionSeparator > 0) {
+                aligned = dynamic.get(gav.substring(0, versionSeparator));
+            }
+        }
+        if (aligned == null) {
+            return null;
+        }
+        final String replacement = aligned + configurations;
+        return replacement.equals(line) ? null : replacement;
     }
 }
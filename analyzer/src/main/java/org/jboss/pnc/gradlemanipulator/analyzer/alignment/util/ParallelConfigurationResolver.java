@@ -0,0 +1,197 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.util.GradleVersion;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+
+/**
+ * Resolves the configurations of a project concurrently on a pool bounded by the number of processors and the
+ * maximum number of Gradle workers.
+ * <p>
+ * Before Gradle 6 a configuration may be resolved from any thread. Later versions only permit resolution from a
+ * thread that holds the project lock (or has been granted uncontrolled access to project state) and the build
+ * operations performed during resolution require a worker lease. Therefore, on those versions, each resolution runs
+ * as a Gradle worker thread with uncontrolled access to the project while the task thread releases its own locks and
+ * lease until all have completed. As the internal API required for this differs between Gradle versions it is looked
+ * up reflectively ; where it is not available {@link #create(Project)} returns null and the caller should resolve
+ * serially.
+ */
+public final class ParallelConfigurationResolver {
+
+    /**
+     * Gradle versions from which configurations may only be resolved while holding the project lock.
+     */
+    private static final GradleVersion PROJECT_LOCK_VERSION = GradleVersion.version("6.0");
+
+    private static final String WORKER_LEASE_SERVICE = "org.gradle.internal.work.WorkerLeaseService";
+
+    private static final String FACTORY = "org.gradle.internal.Factory";
+
+    private static final String PROJECT_INTERNAL = "org.gradle.api.internal.project.ProjectInternal";
+
+    private static final String SERVICE_REGISTRY = "org.gradle.internal.service.ServiceRegistry";
+
+    private static final Logger logger = GMLogger.getLogger(ParallelConfigurationResolver.class);
+
+    private final Object workerLeaseService;
+
+    private final Method runAsWorkerThread;
+
+    private final Method allowUncontrolledAccessToAnyProject;
+
+    private final Method blocking;
+
+    private final Class<?> factoryClass;
+
+    private final int maxThreads;
+
+    private ParallelConfigurationResolver(
+            Object workerLeaseService,
+            Method runAsWorkerThread,
+            Method allowUncontrolledAccessToAnyProject,
+            Method blocking,
+            Class<?> factoryClass,
+            int maxThreads) {
+        this.workerLeaseService = workerLeaseService;
+        this.runAsWorkerThread = runAsWorkerThread;
+        this.allowUncontrolledAccessToAnyProject = allowUncontrolledAccessToAnyProject;
+        this.blocking = blocking;
+        this.factoryClass = factoryClass;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Creates the resolver for the given project.
+     *
+     * @param project the project whose configurations will be resolved
+     * @return the resolver or null if the configurations may not be resolved concurrently by this Gradle version
+     */
+    public static ParallelConfigurationResolver create(Project project) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+
+        if (GradleVersion.current().compareTo(PROJECT_LOCK_VERSION) < 0) {
+            return new ParallelConfigurationResolver(null, null, null, null, null, processors);
+        }
+        try {
+            final Class<?> serviceClass = Class.forName(WORKER_LEASE_SERVICE);
+            final Class<?> factoryClass = Class.forName(FACTORY);
+            final Object services = Class.forName(PROJECT_INTERNAL).getMethod("getServices").invoke(project);
+            final Object service = Class.forName(SERVICE_REGISTRY)
+                    .getMethod("get", Class.class)
+                    .invoke(services, serviceClass);
+            final Object maxWorkers = serviceClass.getMethod("getMaxWorkerCount").invoke(service);
+
+            return new ParallelConfigurationResolver(
+                    service,
+                    serviceClass.getMethod("runAsWorkerThread", Runnable.class),
+                    serviceClass.getMethod("allowUncontrolledAccessToAnyProject", factoryClass),
+                    serviceClass.getMethod("blocking", Runnable.class),
+                    factoryClass,
+                    Math.min(processors, (Integer) maxWorkers));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            logger.debug("Unable to locate the Gradle worker lease API", e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs the resolutions concurrently, returning once all have completed. The first failure is rethrown once the
+     * remaining resolutions have been cancelled.
+     *
+     * @param project the project whose configurations are resolved
+     * @param resolutions the resolutions to run
+     */
+    public void resolve(Project project, List<? extends Runnable> resolutions) {
+        final int threads = Math.min(resolutions.size(), maxThreads);
+
+        if (threads <= 1) {
+            resolutions.forEach(Runnable::run);
+            return;
+        }
+        logger.info(
+                "Resolving {} configurations of project {} using {} threads",
+                resolutions.size(),
+                project.getPath(),
+                threads);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(resolutions.size());
+            for (Runnable resolution : resolutions) {
+                futures.add(executor.submit(() -> runAsWorker(resolution)));
+            }
+            final Runnable await = () -> {
+                try {
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ManipulationUncheckedException("Interrupted resolving configurations of {}", project, e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    } else if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw new ManipulationUncheckedException(
+                            "Unable to resolve configurations of {}",
+                            project,
+                            e.getCause());
+                }
+            };
+            if (workerLeaseService == null) {
+                await.run();
+            } else {
+                // Release the project lock and worker lease of the task thread so that the workers may proceed.
+                invoke(blocking, await);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runAsWorker(Runnable resolution) {
+        if (workerLeaseService == null) {
+            resolution.run();
+            return;
+        }
+        final Object factory = Proxy.newProxyInstance(
+                factoryClass.getClassLoader(),
+                new Class<?>[] { factoryClass },
+                (proxy, method, args) -> {
+                    if ("create".equals(method.getName())) {
+                        resolution.run();
+                        return null;
+                    }
+                    return method.invoke(resolution, args);
+                });
+        invoke(runAsWorkerThread, (Runnable) () -> invoke(allowUncontrolledAccessToAnyProject, factory));
+    }
+
+    private void invoke(Method method, Object argument) {
+        try {
+            method.invoke(workerLeaseService, argument);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new ManipulationUncheckedException("Unable to invoke {}", method.getName(), e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new ManipulationUncheckedException("Unable to invoke {}", method.getName(), e);
+        }
+    }
+}
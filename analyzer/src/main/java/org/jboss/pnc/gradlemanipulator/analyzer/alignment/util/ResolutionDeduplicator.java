@@ -0,0 +1,283 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Getter;
+import org.apache.commons.beanutils.ContextClassLoaderLocal;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.gradle.api.Action;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ResolutionStrategy;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.logging.Logger;
+import org.gradle.util.GradleVersion;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+
+/**
+ * Tracks the configurations of a single project that have been resolved so that configurations with identical
+ * resolution inputs share one resolved graph.
+ * <p>
+ * The fingerprint of a configuration is built from the identity of its declared dependencies, constraints and
+ * resolution listeners (inherited ones are the same instances in each extending configuration, and Gradle registers a
+ * single shared listener with every configuration), its attributes, exclude rules, forced modules and conflict
+ * resolution (which reflects <code>preferProjectModules</code> and <code>failOnVersionConflict</code>). Hence a
+ * <code>beforeResolve</code> action prevents sharing unless it was inherited. As rules and actions cannot be compared,
+ * configurations using dependency substitution, component selection or capability resolution rules, having
+ * <code>defaultDependencies</code> or <code>withDependencies</code> actions anywhere in their hierarchy (as attached
+ * by plugins such as dependency management) or using dependency locking (which is keyed by configuration name) are
+ * never deduplicated.
+ * <p>
+ * These inputs are only available through the internal Gradle API which differs between versions. Should they not be
+ * determinable no configurations are deduplicated, which is logged once per build.
+ *
+ * @param <T> the type representing a resolution
+ */
+public final class ResolutionDeduplicator<T> {
+
+    private static final Logger logger = GMLogger.getLogger(ResolutionDeduplicator.class);
+
+    /**
+     * The fields of the internal configuration holding actions run before resolution which may change the result.
+     */
+    private static final String[] DEPENDENCY_ACTIONS = { "defaultDependencyActions", "withDependencyActions" };
+
+    /**
+     * The methods of the internal listener broadcast which visit the registered listeners, in order of preference.
+     */
+    private static final String[] VISIT_LISTENERS = { "visitListenersUntyped", "visitListeners" };
+
+    private static final ContextClassLoaderLocal<AtomicBoolean> reflectionOutput = new ContextClassLoaderLocal<AtomicBoolean>() {
+        @Override
+        protected AtomicBoolean initialValue() {
+            return new AtomicBoolean();
+        }
+    };
+
+    private final Map<Object, Integer> identities = new IdentityHashMap<>();
+
+    private final Map<String, T> resolutions = new HashMap<>();
+
+    /**
+     * The number of configurations that reused an earlier resolution.
+     *
+     * @return the number of hits
+     */
+    @Getter
+    private int hits;
+
+    /**
+     * The number of configurations examined.
+     *
+     * @return the number of configurations
+     */
+    @Getter
+    private int total;
+
+    /**
+     * Returns the resolution previously registered for a configuration with identical inputs. If there is none the
+     * candidate is registered (if the configuration can be fingerprinted) and null is returned.
+     *
+     * @param configuration the configuration about to be resolved
+     * @param recursive whether the configuration will be copied including its super-configurations
+     * @param candidate the resolution to register
+     * @return the earlier resolution or null
+     */
+    public T deduplicate(Configuration configuration, boolean recursive, T candidate) {
+        total++;
+
+        final String fingerprint = fingerprint(configuration, recursive);
+        if (fingerprint == null) {
+            return null;
+        }
+        final T previous = resolutions.putIfAbsent(fingerprint, candidate);
+        if (previous != null) {
+            hits++;
+        }
+        return previous;
+    }
+
+    /**
+     * Creates the fingerprint of the resolution inputs of a configuration.
+     *
+     * @param configuration the configuration
+     * @param recursive whether the configuration will be copied including its super-configurations
+     * @return the fingerprint or null if the configuration may not be deduplicated
+     */
+    String fingerprint(Configuration configuration, boolean recursive) {
+        final ResolutionStrategy resolutionStrategy = configuration.getResolutionStrategy();
+        final Set<Configuration> hierarchy = recursive ? configuration.getHierarchy()
+                : Collections.singleton(configuration);
+        final String rules;
+        final Object conflictResolution;
+        final List<Object> listeners = new ArrayList<>();
+        try {
+            rules = findRules(resolutionStrategy, configuration.getHierarchy());
+            conflictResolution = invoke(resolutionStrategy, "getConflictResolution");
+            for (Configuration c : configuration.getHierarchy()) {
+                listeners.addAll(listeners(c));
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (!reflectionOutput.get().getAndSet(true)) {
+                logger.info(
+                        "Unable to determine the resolution rules of configurations with {} ; identical resolutions "
+                                + "will not be shared",
+                        GradleVersion.current());
+            }
+            logger.debug("Unable to determine the resolution rules of {}", configuration.getName(), e);
+            return null;
+        }
+        if (rules != null) {
+            logger.debug("Configuration {} has {} ; not deduplicating", configuration.getName(), rules);
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append(recursive).append(';').append(configuration.isTransitive());
+        sb.append(";dependencies:").append(identities(configuration.getAllDependencies()));
+        sb.append(";constraints:").append(identities(configuration.getAllDependencyConstraints()));
+        sb.append(";listeners:").append(identities(listeners));
+        if (!recursive) {
+            // A standard copy only includes those declared directly on this configuration.
+            sb.append(";declared:").append(identities(configuration.getDependencies()));
+            sb.append(";declaredConstraints:").append(identities(configuration.getDependencyConstraints()));
+        }
+        sb.append(";attributes:").append(attributes(configuration.getAttributes()));
+        sb.append(";excludes:");
+        for (Configuration c : hierarchy) {
+            final Set<String> excludes = new TreeSet<>();
+            for (ExcludeRule e : c.getExcludeRules()) {
+                excludes.add(e.getGroup() + ':' + e.getModule());
+            }
+            sb.append(excludes);
+        }
+        final Set<String> forced = new TreeSet<>();
+        for (ModuleVersionSelector m : resolutionStrategy.getForcedModules()) {
+            forced.add(m.getGroup() + ':' + m.getName() + ':' + m.getVersion());
+        }
+        sb.append(";forced:").append(forced);
+        sb.append(";conflict:").append(conflictResolution);
+
+        return sb.toString();
+    }
+
+    private Set<Integer> identities(Collection<?> objects) {
+        final Set<Integer> result = new TreeSet<>();
+        for (Object o : objects) {
+            Integer id = identities.get(o);
+            if (id == null) {
+                id = identities.size();
+                identities.put(o, id);
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    private static String attributes(AttributeContainer container) {
+        final Map<String, String> result = new TreeMap<>();
+        for (Attribute<?> attribute : container.keySet()) {
+            result.put(attribute.getName(), String.valueOf(container.getAttribute(attribute)));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Uses reflection as the internal configuration and resolution strategy API differs between Gradle versions.
+     * Actions are checked throughout the hierarchy as those of super-configurations may add inherited dependencies.
+     *
+     * @return a description of the rules found or null if there are none
+     * @throws ReflectiveOperationException if the rules cannot be determined
+     */
+    private static String findRules(ResolutionStrategy resolutionStrategy, Set<Configuration> hierarchy)
+            throws ReflectiveOperationException {
+        if (Boolean.TRUE.equals(invoke(resolutionStrategy, "isDependencyLockingEnabled"))) {
+            return "dependency locking";
+        }
+        if (!isEmpty(invoke(resolutionStrategy, "getDependencySubstitutionRule"))) {
+            return "dependency substitution rules";
+        }
+        if (!isEmpty(invoke(invoke(resolutionStrategy, "getComponentSelection"), "getRules"))) {
+            return "component selection rules";
+        }
+        for (Configuration c : hierarchy) {
+            for (String field : DEPENDENCY_ACTIONS) {
+                if (!isEmpty(FieldUtils.readField(c, field, true))) {
+                    return field + " in " + c.getName();
+                }
+            }
+        }
+        final Object capabilities;
+        try {
+            capabilities = invoke(resolutionStrategy, "getCapabilitiesResolution");
+        } catch (NoSuchMethodException e) {
+            // Capability resolution rules are not supported by this Gradle version.
+            return null;
+        }
+        if (!isEmpty(FieldUtils.readField(capabilities, "actions", true))) {
+            return "capability resolution rules";
+        }
+        return null;
+    }
+
+    private static List<Object> listeners(Configuration configuration) throws ReflectiveOperationException {
+        final Object broadcast = FieldUtils.readField(configuration, "dependencyResolutionListeners", true);
+        final List<Object> result = new ArrayList<>();
+        final Action<Object> visitor = result::add;
+
+        for (String name : VISIT_LISTENERS) {
+            final Method method;
+            try {
+                method = broadcast.getClass().getMethod(name, Action.class);
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+            invoke(broadcast, method, visitor);
+            return result;
+        }
+        throw new NoSuchMethodException("visitListeners of " + broadcast.getClass().getName());
+    }
+
+    private static boolean isEmpty(Object value) throws ReflectiveOperationException {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).isEmpty();
+        }
+        final Object result = invoke(value, "isEmpty");
+        if (!(result instanceof Boolean)) {
+            throw new NoSuchMethodException("isEmpty of " + value.getClass().getName());
+        }
+        return (Boolean) result;
+    }
+
+    private static Object invoke(Object target, String name) throws ReflectiveOperationException {
+        if (target == null) {
+            throw new NoSuchMethodException(name + " on null");
+        }
+        return invoke(target, target.getClass().getMethod(name));
+    }
+
+    private static Object invoke(Object target, Method method, Object... args) throws ReflectiveOperationException {
+        method.setAccessible(true);
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
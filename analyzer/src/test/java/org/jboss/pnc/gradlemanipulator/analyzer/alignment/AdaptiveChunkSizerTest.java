@@ -0,0 +1,55 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class AdaptiveChunkSizerTest {
+
+    @Test
+    public void verifyAdditiveIncreaseMultiplicativeDecrease() {
+        final AdaptiveChunkSizer sizer = new AdaptiveChunkSizer(true, 10, 35);
+
+        sizer.success(10, 1000);
+        assertThat(sizer.next()).isEqualTo(20);
+        // Latency per GAV improved.
+        sizer.success(20, 1500);
+        assertThat(sizer.next()).isEqualTo(30);
+        sizer.success(30, 2000);
+        assertThat(sizer.next()).isEqualTo(35);
+        // Latency per GAV worsened so the size is held.
+        sizer.success(35, 7000);
+        assertThat(sizer.next()).isEqualTo(35);
+
+        sizer.failure(35, 30000);
+        assertThat(sizer.next()).isEqualTo(17);
+        sizer.failure(17, 30000);
+        assertThat(sizer.next()).isEqualTo(8);
+    }
+
+    @Test
+    public void verifyFixed() {
+        final AdaptiveChunkSizer sizer = new AdaptiveChunkSizer(false, 10, 10);
+
+        sizer.success(10, 1000);
+        sizer.failure(10, 1000);
+        assertThat(sizer.next()).isEqualTo(10);
+    }
+
+    @Test
+    public void verifyStatistics() {
+        final AdaptiveChunkSizer sizer = new AdaptiveChunkSizer(true, 10, 100);
+
+        sizer.success(10, 2_000_000);
+        sizer.failure(20, 4_000_000);
+
+        final Map<String, Object> statistics = sizer.getStatistics();
+        assertThat(statistics).containsEntry("initialSize", 10).containsEntry("finalSize", 10);
+        assertThat((List<?>) statistics.get("chunks")).hasSize(2);
+        assertThat((Map<?, ?>) ((List<?>) statistics.get("chunks")).get(1)).containsEntry("size", 20)
+                .containsEntry("millis", 4L)
+                .containsEntry("success", false);
+    }
+}
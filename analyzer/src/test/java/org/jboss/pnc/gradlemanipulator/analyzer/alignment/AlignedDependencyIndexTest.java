@@ -0,0 +1,52 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.gradle.api.artifacts.Dependency;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.AlignmentTask.AlignedDependencyIndex;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.common.versioning.RelaxedProjectVersionRef;
+import org.junit.Test;
+
+public class AlignedDependencyIndexTest {
+
+    private static final ProjectVersionRef ALIGNED = withGAV("org.acme", "lib", "1.0.redhat-00001");
+
+    private static AlignedDependencyIndex createIndex() {
+        final ManipulationModel module = ManipulationModel.Builder.build("module", "module", "org.acme");
+
+        module.getAlignedDependencies().put("org.acme:lib:1.0", ALIGNED);
+        module.getAlignedDependencies().put("org.acme:other", withGAV("org.acme", "other", "2.0.redhat-00001"));
+        return new AlignedDependencyIndex(module);
+    }
+
+    private static RelaxedProjectVersionRef versionless(String group, String name) {
+        final Dependency dependency = mock(Dependency.class);
+        when(dependency.getGroup()).thenReturn(group);
+        when(dependency.getName()).thenReturn(name);
+        return new RelaxedProjectVersionRef(dependency);
+    }
+
+    @Test
+    public void verifyVersionedMatchesByGav() {
+        final AlignedDependencyIndex index = createIndex();
+
+        assertThat(index.get(new RelaxedProjectVersionRef(withGAV("org.acme", "lib", "1.0")))).isEqualTo(ALIGNED);
+        assertThat(index.get(new RelaxedProjectVersionRef(withGAV("org.acme", "lib", "2.0")))).isNull();
+    }
+
+    @Test
+    public void verifyVersionlessMatchesByGa() {
+        final AlignedDependencyIndex index = createIndex();
+
+        // As with RelaxedProjectVersionRef.equals a dependency without a version matches any version of its GA.
+        assertThat(index.get(versionless("org.acme", "lib"))).isEqualTo(ALIGNED);
+        assertThat(index.get(versionless("org.acme", "missing"))).isNull();
+        // Entries stored without a version are not indexed.
+        assertThat(index.get(versionless("org.acme", "other"))).isNull();
+    }
+}
@@ -0,0 +1,131 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.DAAlignmentService.RestLookup;
+import org.jboss.pnc.mavenmanipulator.io.rest.RestException;
+import org.jboss.pnc.mavenmanipulator.io.rest.Translator;
+import org.junit.Test;
+
+public class ConcurrentRestLookupTest {
+
+    private static List<ProjectVersionRef> createGavs(int count) {
+        final List<ProjectVersionRef> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(withGAV("org.acme", "artifact" + i, "1.0"));
+        }
+        return result;
+    }
+
+    private static Map<ProjectVersionRef, String> align(List<ProjectVersionRef> gavs) {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        gavs.forEach(g -> result.put(g, g.getVersionString() + ".redhat-00001"));
+        return result;
+    }
+
+    @Test
+    public void verifyChunksMerged() throws Exception {
+        final List<ProjectVersionRef> gavs = createGavs(10);
+        final List<Integer> chunkSizes = new ArrayList<>();
+
+        try (ConcurrentRestLookup concurrent = new ConcurrentRestLookup(4, 3, 0)) {
+            final Map<ProjectVersionRef, String> result = concurrent.chunked(g -> {
+                synchronized (chunkSizes) {
+                    chunkSizes.add(g.size());
+                }
+                return align(g);
+            }).apply(gavs);
+
+            assertThat(result).hasSize(10).containsEntry(gavs.get(9), "1.0.redhat-00001");
+            assertThat(chunkSizes).containsExactlyInAnyOrder(3, 3, 3, 1);
+        }
+    }
+
+    @Test
+    public void verifyChunksRetriedIndividually() throws Exception {
+        final List<ProjectVersionRef> gavs = createGavs(4);
+        final Map<ProjectVersionRef, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        final RestLookup flaky = g -> {
+            if (attempts.computeIfAbsent(g.get(0), k -> new AtomicInteger()).incrementAndGet() == 1
+                    && g.contains(gavs.get(0))) {
+                throw new RestException("Transient failure");
+            }
+            return align(g);
+        };
+
+        try (ConcurrentRestLookup concurrent = new ConcurrentRestLookup(2, 0, 1)) {
+            assertThat(concurrent.chunked(flaky).apply(gavs)).hasSize(4);
+        }
+        assertThat(attempts.get(gavs.get(0))).hasValue(2);
+        assertThat(attempts.get(gavs.get(2))).hasValue(1);
+    }
+
+    @Test
+    public void verifyFailureAfterRetries() {
+        final List<ProjectVersionRef> gavs = createGavs(4);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        try (ConcurrentRestLookup concurrent = new ConcurrentRestLookup(2, 2, 2)) {
+            assertThatThrownBy(() -> concurrent.chunked(g -> {
+                if (g.contains(gavs.get(3))) {
+                    attempts.incrementAndGet();
+                    throw new RestException("Permanent failure");
+                }
+                return align(g);
+            }).apply(gavs)).isInstanceOf(RestException.class).hasMessageContaining("Permanent failure");
+        }
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    public void verifyTranslatorPerThread() throws Exception {
+        final List<ProjectVersionRef> gavs = createGavs(20);
+        final List<Translator> created = Collections.synchronizedList(new ArrayList<>());
+        final Map<Thread, List<Translator>> used = new ConcurrentHashMap<>();
+        // Holds the first chunk of each worker until both are in flight.
+        final CountDownLatch inFlight = new CountDownLatch(2);
+
+        try (ConcurrentRestLookup concurrent = new ConcurrentRestLookup(2, 5, 0, false, 5, () -> {
+            final Translator translator = mock(Translator.class);
+            created.add(translator);
+            return translator;
+        })) {
+            final Map<ProjectVersionRef, String> result = concurrent.chunked(g -> {
+                used.computeIfAbsent(Thread.currentThread(), t -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(concurrent.getTranslator());
+                inFlight.countDown();
+                try {
+                    if (!inFlight.await(10, TimeUnit.SECONDS)) {
+                        throw new RestException("Chunks were not in flight together");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RestException("Interrupted waiting for the chunks to be in flight");
+                }
+                return align(g);
+            }).apply(gavs);
+
+            assertThat(result).hasSize(20);
+        }
+        assertThat(used).hasSize(2);
+        assertThat(created).hasSize(2).doesNotHaveDuplicates();
+        used.values().forEach(translators -> assertThat(translators).containsOnly(translators.get(0)));
+        assertThat(used.values().stream().map(t -> t.get(0)).collect(Collectors.toList()))
+                .containsExactlyInAnyOrderElementsOf(created);
+    }
+}
@@ -2,10 +2,14 @@ package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+import static org.junit.Assume.assumeTrue;
 
 import com.github.tomakehurst.wiremock.junit.WireMockClassRule;
 import java.io.File;
@@ -13,7 +17,9 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.aeonbits.owner.ConfigFactory;
@@ -130,6 +136,118 @@ public class DAAlignmentServiceWiremockTest {
         });
     }
 
+    @Test
+    public void alignmentWithConcurrentRequests()
+            throws RestException, IOException, URISyntaxException {
+        assumeTrue(precedence != DependencyState.DependencyPrecedence.NONE);
+        // Delay the responses so that the requests are in flight together.
+        stubFor(
+                post(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS))
+                        .willReturn(
+                                aResponse()
+                                        .withStatus(200)
+                                        .withFixedDelay(250)
+                                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                                        .withBody(readSampleDAResponse())));
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("dependencySource", precedence.toString());
+        System.setProperty("restConcurrentRequests", "3");
+        System.setProperty("restMaxSize", "1");
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final DAAlignmentService sut = new DAAlignmentService(configuration);
+
+        final ProjectVersionRef projectGav = withGAV("org.acme", "dummy", "1.0.0");
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        final AlignmentService.Response response = sut.align(
+                new AlignmentService.Request(
+                        Collections.singletonList(projectGav),
+                        Stream.of(
+                                hibernateGav,
+                                undertowGav,
+                                mockitoGav).collect(Collectors.toList())));
+
+        final File simpleProjectRoot = tempDir.newFolder("dummy");
+        final Project project = ProjectBuilder.builder().withProjectDir(simpleProjectRoot).build();
+        project.setVersion("1.0.0");
+        project.setGroup("org.acme");
+
+        verify(3, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+        assertThat(sut.getChunkStatistics()).isNotNull();
+        assertThat(response.getAlignedVersionOfGav(project, hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(project, undertowGav)).isEqualTo("2.0.15.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(project, mockitoGav)).isNull();
+    }
+
+    @Test
+    public void streamedBatchesShareConcurrentLookup()
+            throws RestException, IOException {
+        assumeTrue(precedence != DependencyState.DependencyPrecedence.NONE);
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("dependencySource", precedence.toString());
+        System.setProperty("versionModification", "false");
+        System.setProperty("restConcurrentRequests", "2");
+        System.setProperty("restMaxSize", "1");
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final DAAlignmentService sut = new DAAlignmentService(configuration);
+        final StreamingDependencyLookup streaming = new StreamingDependencyLookup(sut, 2);
+
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        streaming.discovered(Arrays.asList(hibernateGav, undertowGav));
+        final AlignmentService.Response response = streaming.await(
+                new AlignmentService.Request(
+                        Collections.singletonList(withGAV("org.acme", "dummy", "1.0.0")),
+                        Arrays.asList(hibernateGav, undertowGav, mockitoGav)));
+
+        final File simpleProjectRoot = tempDir.newFolder("dummy");
+        final Project project = ProjectBuilder.builder().withProjectDir(simpleProjectRoot).build();
+        project.setVersion("1.0.0");
+        project.setGroup("org.acme");
+
+        // The chunks of the streamed batch and of the final alignment are all reported.
+        verify(3, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+        assertThat((List<?>) sut.getChunkStatistics().get("chunks")).hasSize(3);
+        assertThat(response.getAlignedVersionOfGav(project, hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(project, undertowGav)).isEqualTo("2.0.15.Final-redhat-00001");
+    }
+
+    @Test
+    public void adaptiveChunkingRetriesTimeouts() {
+        assumeTrue(precedence != DependencyState.DependencyPrecedence.NONE);
+        stubFor(
+                post(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS))
+                        .willReturn(aResponse().withStatus(504)));
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("dependencySource", precedence.toString());
+        System.setProperty("versionModification", "false");
+        System.setProperty("restAdaptiveChunking", "true");
+        System.setProperty("restChunkRetries", "2");
+        System.setProperty("restMaxSize", "8");
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final DAAlignmentService sut = new DAAlignmentService(configuration);
+
+        assertThatThrownBy(
+                () -> sut.align(
+                        new AlignmentService.Request(
+                                Collections.singletonList(withGAV("org.acme", "dummy", "1.0.0")),
+                                Stream.of(
+                                        withGAV("org.hibernate", "hibernate-core", "5.3.7.Final"),
+                                        withGAV("io.undertow", "undertow-core", "2.0.15.Final"),
+                                        withGAV("org.mockito", "mockito-core", "2.27.0"))
+                                        .collect(Collectors.toList()))))
+                .isInstanceOf(RestException.class);
+
+        // The translator neither splits nor retries the chunk itself so only the chunk retries are observed.
+        verify(3, postRequestedFor(urlEqualTo("/da/rest/v-1/" + DefaultTranslator.Endpoint.LOOKUP_GAVS)));
+        assertThat((List<?>) sut.getChunkStatistics().get("chunks")).hasSize(3);
+    }
+
     private String readSampleDAResponse() throws URISyntaxException, IOException {
         return FileUtils.readFileToString(
                 Paths.get(
@@ -0,0 +1,101 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.DALookupCache.Lookup;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DALookupCacheTest {
+
+    private static final long TTL = 60_000;
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    private final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    @Test
+    public void verifyPersistedBetweenInstances() throws Exception {
+        final File file = new File(tempDir.getRoot(), "cache/da.cache");
+        final List<ProjectVersionRef> gavs = Arrays.asList(hibernateGav, undertowGav, mockitoGav);
+
+        final DALookupCache first = new DALookupCache(file, TTL, 10);
+        final List<ProjectVersionRef> uncached = new ArrayList<>();
+        assertThat(first.lookup(Lookup.DEPENDENCY, gavs, uncached)).isEmpty();
+        assertThat(uncached).containsExactlyElementsOf(gavs);
+        first.store(Lookup.DEPENDENCY, uncached, Collections.singletonMap(hibernateGav, "5.3.7.Final-redhat-00001"));
+        first.save();
+        assertThat(file).isFile();
+
+        final DALookupCache second = new DALookupCache(file, TTL, 10);
+        uncached.clear();
+        final Map<ProjectVersionRef, String> result = second.lookup(Lookup.DEPENDENCY, gavs, uncached);
+        assertThat(uncached).isEmpty();
+        assertThat(result).hasSize(1).containsEntry(hibernateGav, "5.3.7.Final-redhat-00001");
+        assertThat(second.getHits()).isEqualTo(3);
+        assertThat(second.getMisses()).isZero();
+
+        // Project lookups are cached independently.
+        assertThat(second.lookup(Lookup.PROJECT, gavs, uncached)).isEmpty();
+        assertThat(uncached).containsExactlyElementsOf(gavs);
+    }
+
+    @Test
+    public void verifyExpiredEntriesEvicted() {
+        final File file = new File(tempDir.getRoot(), "da.cache");
+        final List<ProjectVersionRef> gavs = Collections.singletonList(hibernateGav);
+
+        final DALookupCache first = new DALookupCache(file, -1, 10);
+        first.store(Lookup.DEPENDENCY, gavs, Collections.singletonMap(hibernateGav, "5.3.7.Final-redhat-00001"));
+
+        final List<ProjectVersionRef> uncached = new ArrayList<>();
+        assertThat(first.lookup(Lookup.DEPENDENCY, gavs, uncached)).isEmpty();
+        assertThat(uncached).containsExactly(hibernateGav);
+        assertThat(first.getEvictions()).isEqualTo(1);
+        assertThat(first.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void verifySizeBounded() {
+        final File file = new File(tempDir.getRoot(), "da.cache");
+        final DALookupCache cache = new DALookupCache(file, TTL, 2);
+
+        cache.store(Lookup.DEPENDENCY, Arrays.asList(hibernateGav, undertowGav), Collections.emptyMap());
+        // Access hibernate so that undertow is the least recently used.
+        cache.lookup(Lookup.DEPENDENCY, Collections.singletonList(hibernateGav), new ArrayList<>());
+        cache.store(Lookup.DEPENDENCY, Collections.singletonList(mockitoGav), Collections.emptyMap());
+
+        final List<ProjectVersionRef> uncached = new ArrayList<>();
+        cache.lookup(Lookup.DEPENDENCY, Arrays.asList(hibernateGav, undertowGav, mockitoGav), uncached);
+        assertThat(uncached).containsExactly(undertowGav);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.getStatistics()).containsEntry("size", 2);
+    }
+
+    @Test
+    public void verifyCorruptFileIgnored() throws Exception {
+        final File file = new File(tempDir.getRoot(), "da.cache");
+        FileUtils.writeStringToFile(file, "not a cache", StandardCharsets.UTF_8);
+
+        final DALookupCache cache = new DALookupCache(file, TTL, 10);
+        final List<ProjectVersionRef> uncached = new ArrayList<>();
+        cache.lookup(Lookup.DEPENDENCY, Collections.singletonList(hibernateGav), uncached);
+        assertThat(uncached).containsExactly(hibernateGav);
+    }
+}
@@ -0,0 +1,116 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.aeonbits.owner.ConfigFactory;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.io.ManipulationIO;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.common.versioning.RelaxedProjectVersionRef;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestRule;
+import uk.org.webcompere.systemstubs.rules.SystemPropertiesRule;
+
+public class IncrementalAlignmentTest {
+
+    private static final ProjectVersionRef A = withGAV("org.acme", "a", "1.0");
+
+    private static final ProjectVersionRef A_ALIGNED = withGAV("org.acme", "a", "1.0.0.redhat-00001");
+
+    private static final ProjectVersionRef B = withGAV("org.acme", "b", "2.0");
+
+    private static final ProjectVersionRef C = withGAV("org.acme", "c", "3.0");
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Rule
+    public final TestRule restoreSystemProperties = new SystemPropertiesRule();
+
+    private Project root;
+
+    private Project sub;
+
+    @Before
+    public void before() throws IOException {
+        System.setProperty("daEndpoint", "http://localhost/da/rest/v-1");
+        System.setProperty("incrementalAlignment", "true");
+
+        root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder("root")).build();
+        sub = ProjectBuilder.builder().withName("sub").withParent(root).build();
+    }
+
+    @Test
+    public void verifyOnlyChangedAreLookedUp() throws ManipulationException {
+        writePreviousModel();
+
+        final IncrementalAlignment incremental = IncrementalAlignment
+                .create(ConfigFactory.create(Configuration.class), root);
+        assertThat(incremental).isNotNull();
+
+        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = new HashMap<>();
+        dependencies.computeIfAbsent(root, p -> new HashMap<>()).put(new RelaxedProjectVersionRef(A), A_ALIGNED);
+        dependencies.get(root).put(new RelaxedProjectVersionRef(B), B);
+        dependencies.computeIfAbsent(sub, p -> new HashMap<>()).put(new RelaxedProjectVersionRef(C), C);
+
+        final List<ProjectVersionRef> changed = incremental
+                .getChanged(dependencies, Arrays.asList(A_ALIGNED, B, C));
+
+        assertThat(changed).containsExactly(B, C);
+        assertThat(incremental.getReused()).hasSize(1).containsEntry(A_ALIGNED, A_ALIGNED.getVersionString());
+        assertThat(incremental.getStatistics()).containsEntry("reused", 1).containsEntry("changed", 2);
+    }
+
+    @Test
+    public void verifyConflictingUseIsLookedUp() throws ManipulationException {
+        writePreviousModel();
+
+        final IncrementalAlignment incremental = IncrementalAlignment
+                .create(ConfigFactory.create(Configuration.class), root);
+        final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = new HashMap<>();
+        dependencies.computeIfAbsent(root, p -> new HashMap<>()).put(new RelaxedProjectVersionRef(A), A_ALIGNED);
+        dependencies.computeIfAbsent(sub, p -> new HashMap<>())
+                .put(new RelaxedProjectVersionRef(A_ALIGNED), A_ALIGNED);
+
+        assertThat(incremental.getChanged(dependencies, Arrays.asList(A_ALIGNED))).containsExactly(A_ALIGNED);
+        assertThat(incremental.getReused()).isEmpty();
+    }
+
+    @Test
+    public void verifyFullAlignment() throws ManipulationException {
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+        assertThat(IncrementalAlignment.create(configuration, root)).isNull();
+
+        writePreviousModel();
+        assertThat(IncrementalAlignment.create(configuration, root)).isNotNull();
+
+        System.setProperty("incrementalAlignmentTTL", "60");
+        assertThat(new File(root.getRootDir(), ManipulationIO.MANIPULATION_FILE_NAME).setLastModified(0)).isTrue();
+        assertThat(IncrementalAlignment.create(ConfigFactory.create(Configuration.class), root)).isNull();
+
+        System.setProperty("incrementalAlignment", "false");
+        System.setProperty("incrementalAlignmentTTL", "0");
+        assertThat(IncrementalAlignment.create(ConfigFactory.create(Configuration.class), root)).isNull();
+    }
+
+    private void writePreviousModel() throws ManipulationException {
+        final ManipulationModel model = ManipulationModel.Builder.build(root);
+        model.getAlignedDependencies().put(A.toString(), A_ALIGNED);
+        model.addChild(ManipulationModel.Builder.build(sub));
+        ManipulationIO.writeManipulationModel(root.getRootDir(), model);
+    }
+}
@@ -0,0 +1,101 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.AlignmentService.Request;
+import org.jboss.pnc.gradlemanipulator.analyzer.alignment.AlignmentService.Response;
+import org.jboss.pnc.mavenmanipulator.io.rest.RestException;
+import org.junit.Test;
+
+public class StreamingDependencyLookupTest {
+
+    private static final ProjectVersionRef A = withGAV("org.acme", "a", "1.0");
+
+    private static final ProjectVersionRef B = withGAV("org.acme", "b", "1.0");
+
+    private static final ProjectVersionRef C = withGAV("org.acme", "c", "1.0");
+
+    private static final ProjectVersionRef D = withGAV("org.acme", "d", "1.0");
+
+    private static final ProjectVersionRef PROJECT = withGAV("org.acme", "project", "1.0");
+
+    private static Map<ProjectVersionRef, String> align(List<ProjectVersionRef> gavs) {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        gavs.forEach(g -> result.put(g, g.getVersionString() + ".redhat-00001"));
+        return result;
+    }
+
+    @Test
+    public void verifyBatchesLookedUpBeforeAwait() throws Exception {
+        final List<List<ProjectVersionRef>> batches = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch firstBatch = new CountDownLatch(1);
+        final List<Request> requests = new ArrayList<>();
+        final DAAlignmentService alignmentService = mock(DAAlignmentService.class);
+        when(alignmentService.align(any(Request.class), isNull())).thenAnswer(i -> {
+            final Request request = i.getArgument(0);
+            requests.add(request);
+            return new Response(align(request.getDependencies()));
+        });
+        final StreamingDependencyLookup streaming = new StreamingDependencyLookup(alignmentService, null, g -> {
+            batches.add(g);
+            firstBatch.countDown();
+            return align(g);
+        }, 2);
+
+        streaming.discovered(Collections.singletonList(A));
+        assertThat(batches).isEmpty();
+
+        // The batch size is reached so the lookup starts while scanning continues.
+        streaming.discovered(Collections.singletonList(B));
+        assertThat(firstBatch.await(10, TimeUnit.SECONDS)).isTrue();
+
+        streaming.discovered(Collections.singletonList(C));
+        assertThat(streaming.isSubmitted(A)).isTrue();
+        assertThat(streaming.isSubmitted(C)).isFalse();
+
+        final Map<ProjectVersionRef, String> result = streaming
+                .await(new Request(Collections.singletonList(PROJECT), Arrays.asList(A, B, C, D)))
+                .getTranslationMap();
+
+        assertThat(result).hasSize(4).containsEntry(C, "1.0.redhat-00001").containsEntry(D, "1.0.redhat-00001");
+        assertThat(batches).containsExactly(Arrays.asList(A, B), Collections.singletonList(C));
+        // Only the dependency that was never streamed is looked up by the alignment.
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).getProject()).containsExactly(PROJECT);
+        assertThat(requests.get(0).getDependencies()).containsExactly(D);
+        assertThat(streaming.isSubmitted(C)).isTrue();
+        assertThat(streaming.getStatistics()).containsEntry("gavs", 3).containsEntry("batches", 2);
+    }
+
+    @Test
+    public void verifyFailurePropagated() throws Exception {
+        final DAAlignmentService alignmentService = mock(DAAlignmentService.class);
+        final StreamingDependencyLookup streaming = new StreamingDependencyLookup(alignmentService, null, g -> {
+            throw new RestException("Lookup failure");
+        }, 1);
+
+        streaming.discovered(Collections.singletonList(A));
+
+        assertThatThrownBy(() -> streaming.await(new Request(Collections.emptyList(), Collections.singletonList(A))))
+                .isInstanceOf(RestException.class)
+                .hasMessage("Lookup failure");
+        verify(alignmentService, never()).align(any(Request.class), any());
+    }
+}
@@ -2,13 +2,17 @@ package org.jboss.pnc.gradlemanipulator.analyzer.alignment.io;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,8 +21,10 @@ import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
+import org.gradle.testfixtures.ProjectBuilder;
 import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
 import org.jboss.pnc.gradlemanipulator.common.rules.LoggingRule;
+import org.jboss.pnc.gradlemanipulator.common.versioning.GAVPool;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -60,6 +66,21 @@ public class LockFileIOTest {
                         tuple("xnio-nio", "3.3.8.Final"));
     }
 
+    @Test
+    public void readValidFilesShouldInternResults() throws URISyntaxException, IOException {
+        copyToLockfilesRoot("compileClasspath.lockfile");
+        copyToLockfilesRoot("runtimeClasspath.lockfile");
+
+        final GAVPool pool = GAVPool.getPool(ProjectBuilder.builder().build());
+        final ProjectVersionRef guava = pool.intern(withGAV("com.google.guava", "guava", "25.1-android"));
+        final Set<ProjectVersionRef> result = LockFileIO.allProjectVersionRefsFromLockfiles(tempDir.getRoot(), pool);
+
+        assertThat(result).hasSize(6).containsOnlyOnce(guava);
+        assertThat(result.stream().filter(guava::equals).findFirst()).containsSame(guava);
+        // Both lock files contain undertow-core.
+        assertThat(pool.getStatistics()).containsEntry("gavs", 6L).containsEntry("duplicatesReplaced", 2L);
+    }
+
     @Test
     public void testGetLockFile() throws URISyntaxException, IOException {
         copyToLockfilesRoot("compileClasspath.lockfile");
@@ -114,4 +135,62 @@ public class LockFileIOTest {
                         + ".8' to be replaced by org.apache.commons:commons-lang3:3.8.redhat-00001");
 
     }
+
+    @Test
+    public void testUpdateLockFileDynamicAndPartialMatches() throws IOException {
+        final File lockFile = tempDir.newFile("runtimeClasspath.lockfile");
+        FileUtils.writeLines(
+                lockFile,
+                Arrays.asList(
+                        "# comment org.apache.commons:commons-lang3:3.8",
+                        "org.apache.commons:commons-lang3:3.8.1=runtimeClasspath",
+                        "org.apache.commons:commons-lang3:3.8=runtimeClasspath",
+                        "com.google.guava:guava:25.1-android=runtimeClasspath",
+                        "empty=annotationProcessor"));
+
+        final Map<String, ProjectVersionRef> map = new HashMap<>();
+        map.put(
+                "org.apache.commons:commons-lang3:3.8",
+                SimpleProjectVersionRef.parse("org.apache.commons:commons-lang3:3.8.redhat-00001"));
+        map.put(
+                "com.google.guava:guava:25.+",
+                SimpleProjectVersionRef.parse("com.google.guava:guava:25.1-android-redhat-00002"));
+
+        assertThat(LockFileIO.updateLockfiles(logger, tempDir.getRoot(), map)).isEqualTo(1);
+        assertThat(FileUtils.readLines(lockFile, Charset.defaultCharset())).containsExactly(
+                "# comment org.apache.commons:commons-lang3:3.8",
+                "org.apache.commons:commons-lang3:3.8.1=runtimeClasspath",
+                "org.apache.commons:commons-lang3:3.8.redhat-00001=runtimeClasspath",
+                "com.google.guava:guava:25.1-android-redhat-00002=runtimeClasspath",
+                "empty=annotationProcessor");
+
+        // Already aligned so nothing is rewritten.
+        assertThat(LockFileIO.updateLockfiles(logger, tempDir.getRoot(), map)).isZero();
+    }
+
+    @Test
+    public void testUpdateLockFilesInMultipleDirectories() throws IOException {
+        final Map<File, List<Map<String, ProjectVersionRef>>> updates = new LinkedHashMap<>();
+        final Map<String, ProjectVersionRef> map = Collections.singletonMap(
+                "org.apache.commons:commons-lang3:3.8",
+                SimpleProjectVersionRef.parse("org.apache.commons:commons-lang3:3.8.redhat-00001"));
+
+        for (int i = 0; i < 10; i++) {
+            final File directory = tempDir.newFolder("module" + i);
+            FileUtils.writeLines(
+                    new File(directory, "compileClasspath.lockfile"),
+                    Collections.singletonList("org.apache.commons:commons-lang3:3.8=compileClasspath"));
+            FileUtils.writeLines(
+                    new File(directory, "runtimeClasspath.lockfile"),
+                    Collections.singletonList("org.apache.commons:commons-lang3:3.9=runtimeClasspath"));
+            updates.put(directory, Collections.singletonList(map));
+        }
+
+        assertThat(LockFileIO.updateLockfiles(logger, updates)).isEqualTo(10);
+        for (File directory : updates.keySet()) {
+            assertThat(LockFileIO.allProjectVersionRefsFromLockfiles(directory))
+                    .extracting("versionString")
+                    .containsOnly("3.8.redhat-00001", "3.9");
+        }
+    }
 }
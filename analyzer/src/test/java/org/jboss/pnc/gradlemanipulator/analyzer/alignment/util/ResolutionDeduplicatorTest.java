@@ -0,0 +1,119 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.CapabilityResolutionDetails;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResolutionDeduplicatorTest {
+
+    private static final Attribute<String> USAGE = Attribute.of("org.acme.usage", String.class);
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Project createProject() throws Exception {
+        final Project project = ProjectBuilder.builder().withProjectDir(tempDir.newFolder()).build();
+        final Configuration implementation = project.getConfigurations().create("implementation");
+        project.getDependencies().add("implementation", "org.apache.commons:commons-lang3:3.12.0");
+        project.getConfigurations().create("first").extendsFrom(implementation);
+        project.getConfigurations().create("second").extendsFrom(implementation);
+        return project;
+    }
+
+    @Test
+    public void verifyIdenticalInputsShared() throws Exception {
+        final Project project = createProject();
+        final ResolutionDeduplicator<String> deduplicator = new ResolutionDeduplicator<>();
+
+        assertThat(deduplicator.deduplicate(project.getConfigurations().getByName("first"), true, "first")).isNull();
+        assertThat(deduplicator.deduplicate(project.getConfigurations().getByName("second"), true, "second"))
+                .isEqualTo("first");
+        assertThat(deduplicator.getHits()).isEqualTo(1);
+        assertThat(deduplicator.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    public void verifyDifferentInputsNotShared() throws Exception {
+        final Project project = createProject();
+        final ResolutionDeduplicator<String> deduplicator = new ResolutionDeduplicator<>();
+        final Configuration first = project.getConfigurations().getByName("first");
+        final Configuration second = project.getConfigurations().getByName("second");
+
+        // Standard copies contain no inherited dependencies so differ from recursive copies.
+        assertThat(deduplicator.fingerprint(first, true)).isNotEqualTo(deduplicator.fingerprint(first, false));
+
+        second.getAttributes().attribute(USAGE, "runtime");
+        assertThat(deduplicator.fingerprint(first, true)).isNotEqualTo(deduplicator.fingerprint(second, true));
+
+        second.getAttributes().attribute(USAGE, "api");
+        first.getAttributes().attribute(USAGE, "api");
+        project.getDependencies().add("second", "org.apache.commons:commons-text:1.10.0");
+        assertThat(deduplicator.fingerprint(first, true)).isNotEqualTo(deduplicator.fingerprint(second, true));
+    }
+
+    @Test
+    public void verifyRulesNotShared() throws Exception {
+        final Project project = createProject();
+        final ResolutionDeduplicator<String> deduplicator = new ResolutionDeduplicator<>();
+        final Configuration second = project.getConfigurations().getByName("second");
+
+        second.getResolutionStrategy()
+                .getDependencySubstitution()
+                .all(d -> {
+                });
+
+        assertThat(deduplicator.fingerprint(second, true)).isNull();
+        assertThat(deduplicator.deduplicate(second, true, "second")).isNull();
+        assertThat(deduplicator.deduplicate(second, true, "again")).isNull();
+        assertThat(deduplicator.getHits()).isZero();
+    }
+
+    @Test
+    public void verifyCapabilityRulesNotShared() throws Exception {
+        final Project project = createProject();
+        final ResolutionDeduplicator<String> deduplicator = new ResolutionDeduplicator<>();
+        final Configuration second = project.getConfigurations().getByName("second");
+
+        second.getResolutionStrategy()
+                .capabilitiesResolution(c -> c.all(CapabilityResolutionDetails::selectHighestVersion));
+
+        assertThat(deduplicator.fingerprint(project.getConfigurations().getByName("first"), true)).isNotNull();
+        assertThat(deduplicator.fingerprint(second, true)).isNull();
+    }
+
+    @Test
+    public void verifyDependencyActionsNotShared() throws Exception {
+        final Project project = createProject();
+        final ResolutionDeduplicator<String> deduplicator = new ResolutionDeduplicator<>();
+        final Configuration first = project.getConfigurations().getByName("first");
+        final Configuration second = project.getConfigurations().getByName("second");
+
+        // The configurations only differ by an action that could add dependencies before resolution.
+        second.withDependencies(d -> {
+        });
+
+        assertThat(deduplicator.deduplicate(first, true, "first")).isNull();
+        assertThat(deduplicator.deduplicate(second, true, "second")).isNull();
+        assertThat(deduplicator.getHits()).isZero();
+        assertThat(deduplicator.getTotal()).isEqualTo(2);
+
+        final Configuration third = project.getConfigurations().create("third");
+        third.extendsFrom(project.getConfigurations().getByName("implementation"));
+        third.getIncoming().beforeResolve(d -> {
+        });
+        assertThat(deduplicator.fingerprint(third, true)).isNotNull()
+                .isNotEqualTo(deduplicator.fingerprint(first, true));
+
+        // Actions of a super-configuration apply to all that extend it.
+        project.getConfigurations().getByName("implementation").defaultDependencies(d -> {
+        });
+        assertThat(deduplicator.fingerprint(first, true)).isNull();
+    }
+}
@@ -0,0 +1,52 @@
+import kotlin.reflect.full.memberFunctions
+
+// JMH micro-benchmarks of the GME hot paths. This project is only part of the build when the 'benchmarks' property
+// is set ; run them with 'gradlew -Pbenchmarks :benchmarks:jmh' optionally passing JMH arguments via -PjmhArgs
+// (e.g. "-prof gc" or a regular expression selecting the benchmarks). The results are written as JSON to
+// build/reports/jmh/results-<version>.json so that they may be compared between releases.
+plugins { java }
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    implementation(project(":common"))
+    implementation(project(":analyzer"))
+    implementation(project(":manipulation"))
+    implementation(localGroovy())
+    implementation(gradleApi())
+
+    implementation("org.commonjava.atlas:atlas-identities:${project.extra.get("atlasVersion")}") {
+        exclude(group = "ch.qos.logback")
+    }
+    implementation("commons-io:commons-io:${project.extra.get("commonsIOVersion")}")
+    implementation("org.jboss.pnc.maven-manipulator:pom-manipulation-common-lite:${project.extra.get("pmeVersion")}") {
+        exclude(group = "ch.qos.logback")
+        exclude(group = "org.commonjava.maven.galley")
+        // Exclude until new release due to Quarkus bom
+        exclude(group = "org.jboss.pnc.otel")
+    }
+
+    implementation("org.openjdk.jmh:jmh-core:${project.extra.get("jmhVersion")}")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:${project.extra.get("jmhVersion")}")
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs JMH micro-benchmarks"
+    group = "verification"
+    classpath = sourceSets["main"].runtimeClasspath
+    // JavaExec.main was replaced by mainClass in Gradle 6.4 ; use reflection to support both.
+    val mainClassMethod = JavaExec::class.memberFunctions.find { it.name == "getMainClass" }
+    if (mainClassMethod != null) {
+        @Suppress("UNCHECKED_CAST")
+        (mainClassMethod.call(this) as Property<String>).set("org.openjdk.jmh.Main")
+    } else {
+        JavaExec::class.memberFunctions.find { it.name == "setMain" }?.call(this, "org.openjdk.jmh.Main")
+    }
+    val results = File(project.layout.buildDirectory.get().asFile, "reports/jmh/results-${project.version}.json")
+    args("-rf", "json", "-rff", results.path)
+    project.findProperty("jmhArgs")?.let { args(it.toString().split(" ").filter { a -> a.isNotBlank() }) }
+    doFirst { results.parentFile.mkdirs() }
+}
@@ -0,0 +1,119 @@
+package org.jboss.pnc.gradlemanipulator.analyzer.alignment.io;
+
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.gradle.api.logging.Logger;
+import org.jboss.pnc.gradlemanipulator.benchmarks.Console;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link LockFileIO#updateLockfiles(Logger, Map)} on the given number of module directories each holding
+ * the given number of lock files, where every other entry of a lock file is aligned. As the update rewrites the lock
+ * files they are restored before every invocation ; this is excluded from the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LockFileIOBenchmark {
+
+    @Param("20")
+    private int modules;
+
+    @Param("5")
+    private int lockfiles;
+
+    @Param("500")
+    private int entries;
+
+    private Logger logger;
+
+    private File rootDir;
+
+    private String content;
+
+    private Map<File, List<Map<String, ProjectVersionRef>>> updates;
+
+    @Setup
+    public void setup() throws IOException {
+        Console.discard();
+        logger = GMLogger.getLogger(LockFileIOBenchmark.class);
+        rootDir = Files.createTempDirectory("lockfile-io-benchmark").toFile();
+
+        final StringBuilder sb = new StringBuilder(
+                "# This is a Gradle generated file for dependency locking.\n"
+                        + "# Manual edits can break the build and are not advised.\n"
+                        + "# This file is expected to be part of source control.\n");
+        final Map<String, ProjectVersionRef> alignedDependencies = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            final String gav = "org.acme.group" + i % 10 + ":artifact-" + i + ":1.0." + i;
+            sb.append(gav).append("=compileClasspath,runtimeClasspath\n");
+            if (i % 2 == 0) {
+                alignedDependencies.put(
+                        gav,
+                        withGAV("org.acme.group" + i % 10, "artifact-" + i, "1.0." + i + ".redhat-00001"));
+            }
+        }
+        sb.append("empty=annotationProcessor\n");
+        content = sb.toString();
+
+        updates = new LinkedHashMap<>();
+        for (int m = 0; m < modules; m++) {
+            final File directory = new File(rootDir, "module-" + m + "/gradle/dependency-locks");
+            if (!directory.mkdirs()) {
+                throw new IOException("Unable to create " + directory);
+            }
+            updates.put(directory, Collections.singletonList(alignedDependencies));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreLockfiles() throws IOException {
+        for (File directory : updates.keySet()) {
+            for (int l = 0; l < lockfiles; l++) {
+                FileUtils.writeStringToFile(
+                        new File(directory, "configuration-" + l + ".lockfile"),
+                        content,
+                        Charset.defaultCharset());
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(rootDir);
+        Console.restore();
+    }
+
+    @Benchmark
+    public int updateLockfiles() {
+        return LockFileIO.updateLockfiles(logger, updates);
+    }
+}
@@ -0,0 +1,37 @@
+package org.jboss.pnc.gradlemanipulator.benchmarks;
+
+import java.io.PrintStream;
+import org.apache.commons.io.output.NullOutputStream;
+
+/**
+ * Discards the standard output and error streams so that benchmarks of code which logs at a level enabled by default
+ * measure the logging rather than the console. Outside a Gradle build the Gradle logging writes to the streams that
+ * are current when it is initialised so {@link #discard()} must be called before the first logger is created.
+ */
+public final class Console {
+
+    private static PrintStream out;
+
+    private static PrintStream err;
+
+    private Console() {
+    }
+
+    public static synchronized void discard() {
+        if (out == null) {
+            out = System.out;
+            err = System.err;
+            System.setOut(new PrintStream(NullOutputStream.NULL_OUTPUT_STREAM));
+            System.setErr(new PrintStream(NullOutputStream.NULL_OUTPUT_STREAM));
+        }
+    }
+
+    public static synchronized void restore() {
+        if (out != null) {
+            System.setOut(out);
+            System.setErr(err);
+            out = null;
+            err = null;
+        }
+    }
+}
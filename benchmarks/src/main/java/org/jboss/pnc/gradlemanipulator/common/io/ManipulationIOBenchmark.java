@@ -0,0 +1,144 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.output.NullOutputStream;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.common.utils.SerializationUtils;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading and writing a synthetic {@link ManipulationIO#MANIPULATION_FILE_NAME} with 50 modules each holding
+ * 1000 aligned dependencies. The token streaming deserializer is compared with the previous approach of reading a
+ * tree for every GAV, and streaming the model to a file with rendering it to a String first (note the streaming
+ * write also forces the file to disk before renaming it), as well as a {@link SerializationUtils} round-trip of the
+ * model in memory. Run with {@code -PjmhArgs="-prof gc"} to compare the allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManipulationIOBenchmark {
+
+    @Param("50")
+    private int modules;
+
+    @Param("1000")
+    private int dependencies;
+
+    private ManipulationModel model;
+
+    private byte[] json;
+
+    private ObjectMapper treeMapper;
+
+    private File rootDir;
+
+    @Setup
+    public void setup() throws IOException {
+        model = ManipulationModel.Builder.build("root", "root", "org.acme");
+        model.setVersion("1.0.0.redhat-00001");
+        for (int m = 0; m < modules; m++) {
+            final ManipulationModel child = ManipulationModel.Builder.build("module-" + m, "module-" + m, "org.acme");
+            child.setVersion("1.0.0.redhat-00001");
+            for (int d = 0; d < dependencies; d++) {
+                child.getAlignedDependencies()
+                        .put(
+                                "org.acme.group" + d % 100 + ":artifact-" + d + ":1.0." + d,
+                                withGAV("org.acme.group" + d % 100, "artifact-" + d, "1.0." + d + ".redhat-00001"));
+            }
+            model.addChild(child);
+        }
+        json = SerializationUtils.getObjectMapper()
+                .writerWithDefaultPrettyPrinter()
+                .writeValueAsBytes(model);
+
+        treeMapper = new ObjectMapper();
+        treeMapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+        treeMapper.registerModule(
+                new SimpleModule().addDeserializer(ProjectVersionRef.class, new TreeProjectVersionRefDeserializer()));
+
+        rootDir = Files.createTempDirectory("manipulation-io-benchmark").toFile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        org.apache.commons.io.FileUtils.deleteDirectory(rootDir);
+    }
+
+    @Benchmark
+    public ManipulationModel readStreaming() throws IOException {
+        return SerializationUtils.getObjectMapper().readValue(json, ManipulationModel.class);
+    }
+
+    @Benchmark
+    public ManipulationModel readTree() throws IOException {
+        return treeMapper.readValue(json, ManipulationModel.class);
+    }
+
+    @Benchmark
+    public void writeStreaming() throws ManipulationException {
+        ManipulationIO.writeManipulationModel(rootDir, model);
+    }
+
+    @Benchmark
+    public void writeString() throws IOException {
+        org.apache.commons.io.FileUtils.writeStringToFile(
+                new File(rootDir, ManipulationIO.MANIPULATION_FILE_NAME),
+                SerializationUtils.getObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(model)
+                        + System.lineSeparator(),
+                StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ManipulationModel roundTrip() throws IOException {
+        final ObjectMapper mapper = SerializationUtils.getObjectMapper();
+        return mapper.readValue(mapper.writeValueAsBytes(model), ManipulationModel.class);
+    }
+
+    @Benchmark
+    public void serializeOnly() throws IOException {
+        SerializationUtils.getObjectMapper()
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(NullOutputStream.NULL_OUTPUT_STREAM, model);
+    }
+
+    /**
+     * The previous deserializer which reads a tree for every GAV.
+     */
+    private static class TreeProjectVersionRefDeserializer extends JsonDeserializer<ProjectVersionRef> {
+
+        @Override
+        public ProjectVersionRef deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            final JsonNode node = p.getCodec().readTree(p);
+            return withGAV(node.get("groupId").asText(), node.get("artifactId").asText(), node.get("version").asText());
+        }
+    }
+}
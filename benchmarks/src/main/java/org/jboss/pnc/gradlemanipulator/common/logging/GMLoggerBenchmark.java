@@ -0,0 +1,76 @@
+package org.jboss.pnc.gradlemanipulator.common.logging;
+
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.logging.Logger;
+import org.jboss.pnc.gradlemanipulator.benchmarks.Console;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of {@link GMLogger} calls whose level is disabled (the default Gradle level is lifecycle so
+ * GME debug and trace output is suppressed) and, with the console output discarded, of those whose level is enabled
+ * (GME info output is sent to the lifecycle level). Run with {@code -PjmhArgs="-prof gc"} ; the
+ * {@code gc.alloc.rate.norm} figure for the disabled benchmarks should be zero bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GMLoggerBenchmark {
+
+    private Logger logger;
+
+    private Object argument;
+
+    @Setup
+    public void setup() {
+        Console.discard();
+        logger = GMLogger.getLogger(GMLoggerBenchmark.class);
+        argument = "org.jboss:dummy:1.0";
+
+        if (logger.isDebugEnabled()) {
+            throw new IllegalStateException("Debug logging must be disabled for this benchmark");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Console.restore();
+    }
+
+    @Benchmark
+    public void disabledDebug() {
+        logger.debug("Found dependency {}", argument);
+    }
+
+    @Benchmark
+    public void disabledDebugTwoArguments() {
+        logger.debug("Found dependency {} in {}", argument, argument);
+    }
+
+    @Benchmark
+    public void disabledTrace() {
+        logger.trace("Resolved dependency {}", argument);
+    }
+
+    @Benchmark
+    public void enabledInfo() {
+        logger.info("Found dependency {}", argument);
+    }
+
+    @Benchmark
+    public void enabledWarn() {
+        logger.warn("Found dependency {} in {}", argument, argument);
+    }
+}
@@ -0,0 +1,91 @@
+package org.jboss.pnc.gradlemanipulator.common.model;
+
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares looking up an aligned dependency by the string form of a newly created {@link ProjectVersionRef} in the
+ * module's aligned dependencies with looking it up by its components in an {@link AlignedDependencyIndex}. Run with
+ * {@code -PjmhArgs="-prof gc"} ; the {@code gc.alloc.rate.norm} figure for the index benchmarks should be zero bytes
+ * per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlignedDependencyIndexBenchmark {
+
+    @Param("10000")
+    private int size;
+
+    private Map<String, ProjectVersionRef> alignedDependencies;
+
+    private AlignedDependencyIndex index;
+
+    private String[] names;
+
+    private String[] versions;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        alignedDependencies = new TreeMap<>();
+        names = new String[size];
+        versions = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = "artifact-" + i;
+            versions[i] = "1.0." + i;
+            alignedDependencies.put(
+                    "org.acme.group:" + names[i] + ':' + versions[i],
+                    withGAV("org.acme.group", names[i], versions[i] + ".redhat-00001"));
+        }
+        index = new AlignedDependencyIndex(alignedDependencies);
+    }
+
+    @Benchmark
+    public ProjectVersionRef stringKeyHit() {
+        final int i = next();
+        return alignedDependencies.get(withGAV("org.acme.group", names[i], versions[i]).toString());
+    }
+
+    @Benchmark
+    public ProjectVersionRef stringKeyMiss() {
+        return alignedDependencies.get(withGAV("org.acme.group", names[next()], "2.0").toString());
+    }
+
+    @Benchmark
+    public ProjectVersionRef indexHit() {
+        final int i = next();
+        return index.get("org.acme.group", names[i], versions[i]);
+    }
+
+    @Benchmark
+    public ProjectVersionRef indexMiss() {
+        return index.get("org.acme.group", names[next()], "2.0");
+    }
+
+    private int next() {
+        if (++next == size) {
+            next = 0;
+        }
+        return next;
+    }
+}
@@ -0,0 +1,81 @@
+package org.jboss.pnc.gradlemanipulator.common.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ManipulationModel#findCorrespondingChild(String)} on a tree of the given depth where every module
+ * has the given number of children, looking up the modules of every level by their project path in turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManipulationModelBenchmark {
+
+    @Param({ "2", "6" })
+    private int depth;
+
+    @Param("5")
+    private int breadth;
+
+    private ManipulationModel root;
+
+    private String[] paths;
+
+    private String deepestPath;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        final List<String> result = new ArrayList<>();
+
+        root = ManipulationModel.Builder.build("root", "root", "org.acme");
+        addChildren(root, "", 1, result);
+        paths = result.toArray(new String[0]);
+        deepestPath = paths[paths.length - 1];
+    }
+
+    @Benchmark
+    public ManipulationModel findDeepest() {
+        return root.findCorrespondingChild(deepestPath);
+    }
+
+    @Benchmark
+    public ManipulationModel findAny() {
+        if (++next == paths.length) {
+            next = 0;
+        }
+        return root.findCorrespondingChild(paths[next]);
+    }
+
+    private void addChildren(ManipulationModel parent, String parentPath, int level, List<String> result) {
+        for (int i = 0; i < breadth; i++) {
+            final String name = "module-" + level + '-' + i;
+            final String path = parentPath + ':' + name;
+            final ManipulationModel child = ManipulationModel.Builder.build(name, name, "org.acme");
+
+            parent.addChild(child);
+            result.add(path);
+            // Only the last child of each level is expanded so that the tree remains a reasonable size.
+            if (level < depth && i == breadth - 1) {
+                addChildren(child, path, level + 1, result);
+            }
+        }
+    }
+}
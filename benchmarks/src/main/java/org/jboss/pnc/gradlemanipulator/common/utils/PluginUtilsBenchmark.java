@@ -0,0 +1,103 @@
+package org.jboss.pnc.gradlemanipulator.common.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.logging.Logger;
+import org.jboss.pnc.gradlemanipulator.benchmarks.Console;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PluginUtils#pluginRemoval(Logger, File, java.util.Set)} removing the Gradle Enterprise and signing
+ * plugins (and thereby the block removal) from a Kotlin DSL build file with the given number of unrelated task
+ * blocks. As the removal rewrites the build file it is restored before every invocation ; this is excluded from the
+ * measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PluginUtilsBenchmark {
+
+    @Param("2000")
+    private int blocks;
+
+    private Logger logger;
+
+    private File rootDir;
+
+    private File buildFile;
+
+    private String content;
+
+    @Setup
+    public void setup() throws IOException {
+        Console.discard();
+        logger = GMLogger.getLogger(PluginUtilsBenchmark.class);
+        rootDir = Files.createTempDirectory("plugin-utils-benchmark").toFile();
+        buildFile = new File(rootDir, "build.gradle.kts");
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append("plugins {\n")
+                .append("    java\n")
+                .append("    signing\n")
+                .append("    `gradle-enterprise`\n")
+                .append("}\n\n")
+                .append("gradleEnterprise {\n")
+                .append("    buildScan {\n")
+                .append("        // Agree to the terms { of service }\n")
+                .append("        termsOfServiceAgree = \"yes\"\n")
+                .append("    }\n")
+                .append("}\n\n");
+        for (int i = 0; i < blocks; i++) {
+            sb.append("// Task ").append(i).append(" prints the \"{\" of its block\n")
+                    .append("tasks.register(\"task").append(i).append("\") {\n")
+                    .append("    doLast {\n")
+                    .append("        println(\"Running task ").append(i).append(" { }\")\n")
+                    .append("    }\n")
+                    .append("}\n\n");
+        }
+        sb.append("signing {\n")
+                .append("    useGpgCmd()\n")
+                .append("    sign(publishing.publications[\"mavenJava\"])\n")
+                .append("}\n");
+        content = sb.toString();
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreBuildFile() throws IOException {
+        FileUtils.writeStringToFile(buildFile, content, Charset.defaultCharset());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(rootDir);
+        Console.restore();
+    }
+
+    @Benchmark
+    public void pluginRemoval() throws ManipulationException {
+        PluginUtils.pluginRemoval(logger, rootDir, new HashSet<>(Arrays.asList("gradle-enterprise", "signing")));
+    }
+}
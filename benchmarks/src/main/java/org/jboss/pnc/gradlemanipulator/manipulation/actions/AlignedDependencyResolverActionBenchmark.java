@@ -0,0 +1,122 @@
+package org.jboss.pnc.gradlemanipulator.manipulation.actions;
+
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.artifacts.DependencyResolveDetails;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.jboss.pnc.gradlemanipulator.benchmarks.Console;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.manipulation.ResolvedDependenciesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link AlignedDependencyResolverAction#execute(DependencyResolveDetails)} for dependencies that are
+ * aligned (which are logged and overridden) and those that are not, against a module with the given number of
+ * aligned dependencies. The resolve details are proxies as their implementations are internal to Gradle, and the
+ * console output is discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlignedDependencyResolverActionBenchmark {
+
+    @Param("1000")
+    private int size;
+
+    private AlignedDependencyResolverAction action;
+
+    private DependencyResolveDetails[] aligned;
+
+    private DependencyResolveDetails[] unaligned;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        Console.discard();
+
+        final ManipulationModel module = ManipulationModel.Builder.build("module", "module", "org.acme");
+        aligned = new DependencyResolveDetails[size];
+        unaligned = new DependencyResolveDetails[size];
+        for (int i = 0; i < size; i++) {
+            module.getAlignedDependencies()
+                    .put(
+                            "org.acme.group" + i % 10 + ":artifact-" + i + ":1.0." + i,
+                            withGAV("org.acme.group" + i % 10, "artifact-" + i, "1.0." + i + ".redhat-00001"));
+            aligned[i] = details("org.acme.group" + i % 10, "artifact-" + i, "1.0." + i);
+            unaligned[i] = details("org.acme.group" + i % 10, "artifact-" + i, "2.0." + i);
+        }
+        action = new AlignedDependencyResolverAction(module, new ResolvedDependenciesRepository());
+    }
+
+    @TearDown
+    public void tearDown() {
+        Console.restore();
+    }
+
+    @Benchmark
+    public void executeAligned() {
+        action.execute(aligned[next()]);
+    }
+
+    @Benchmark
+    public void executeUnaligned() {
+        action.execute(unaligned[next()]);
+    }
+
+    private int next() {
+        if (++next == size) {
+            next = 0;
+        }
+        return next;
+    }
+
+    private static DependencyResolveDetails details(String group, String name, String version) {
+        final ModuleVersionSelector requested = proxy(ModuleVersionSelector.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getGroup":
+                    return group;
+                case "getName":
+                    return name;
+                case "getVersion":
+                    return version;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return proxy(DependencyResolveDetails.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getRequested":
+                case "getTarget":
+                    return requested;
+                case "because":
+                    return proxy;
+                case "useVersion":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+}
@@ -266,6 +266,7 @@ subprojects {
     extra["ivyVersion"] = "2.6.0"
     // Must use 6.x series as 7.x and above require JDK17
     extra["jgitVersion"] = "6.10.1.202505221210-r"
+    extra["jmhVersion"] = "1.37"
     extra["junitVersion"] = "4.13.2"
     // CLI targets JDK11, so 1.5.x is fine (1.4.x+ requires JDK11).
     extra["logbackVersion"] = "1.5.38"
@@ -276,6 +277,11 @@ subprojects {
     extra["slf4jVersion"] = "2.0.17"
     extra["systemStubsVersion"] = "2.1.8"
 
+    // The benchmarks are neither published nor shadowed ; they only need the versions above.
+    if (project.name == "benchmarks") {
+        return@subprojects
+    }
+
     apply(plugin = "idea")
     apply(plugin = "com.adarshr.test-logger")
     apply(plugin = "io.freefair.lombok")
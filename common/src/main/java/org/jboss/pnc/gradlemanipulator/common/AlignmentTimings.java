@@ -0,0 +1,219 @@
+package org.jboss.pnc.gradlemanipulator.common;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Records where the time of an alignment is spent: the resolution of every configuration of every project, the
+ * phases of the alignment once all projects are scanned, the Groovy scripts and the REST lookups. Recording is a
+ * {@link System#nanoTime()} pair and a map update so it is always enabled. It is serialized as the {@code timings}
+ * section of the JSON report.
+ */
+public class AlignmentTimings {
+
+    /**
+     * The cumulative time of each named phase, in the order they were first recorded.
+     *
+     * @return the phases
+     */
+    @Getter
+    private final Map<String, Timing> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * The timings of each project, keyed by project path.
+     *
+     * @return the projects
+     */
+    @Getter
+    private final Map<String, ProjectTimings> projects = new ConcurrentSkipListMap<>();
+
+    /**
+     * The cumulative time of each Groovy script (including compiling or loading it), keyed by script name.
+     *
+     * @return the scripts
+     */
+    @Getter
+    private final Map<String, Timing> scripts = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * The REST lookups of the alignment with their type, GAV counts and duration.
+     *
+     * @param restLookups the REST lookups
+     * @return the REST lookups
+     */
+    @Getter
+    @Setter
+    private volatile List<Map<String, Object>> restLookups = Collections.emptyList();
+
+    /**
+     * Adds the duration to the given phase.
+     *
+     * @param phase the name of the phase
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordPhase(String phase, long nanos) {
+        phases.computeIfAbsent(phase, p -> new Timing()).add(nanos);
+    }
+
+    /**
+     * Adds the duration to the given script.
+     *
+     * @param script the name of the script
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordScript(String script, long nanos) {
+        scripts.computeIfAbsent(script, s -> new Timing()).add(nanos);
+    }
+
+    /**
+     * Records the time taken to scan the given project.
+     *
+     * @param path the project path
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordProject(String path, long nanos) {
+        getProject(path).add(nanos);
+    }
+
+    /**
+     * Records the time taken to resolve and process a configuration.
+     *
+     * @param path the project path
+     * @param configuration the name of the configuration
+     * @param nanos the duration in nanoseconds
+     * @param edges the number of dependency edges in the resolved graph
+     */
+    public void recordConfiguration(String path, String configuration, long nanos, int edges) {
+        final ConfigurationTiming timing = getProject(path).configurations
+                .computeIfAbsent(configuration, c -> new ConfigurationTiming(path, configuration));
+        timing.add(nanos);
+        timing.edges = edges;
+    }
+
+    /**
+     * Returns the configurations that took the longest to resolve and process across all projects.
+     *
+     * @param limit the maximum number of configurations to return
+     * @return the slowest configurations, slowest first
+     */
+    public List<ConfigurationTiming> getSlowestConfigurations(int limit) {
+        final List<ConfigurationTiming> result = new ArrayList<>();
+
+        for (ProjectTimings project : projects.values()) {
+            synchronized (project.configurations) {
+                result.addAll(project.configurations.values());
+            }
+        }
+        result.sort(Comparator.comparingLong(Timing::getNanos).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, Math.max(0, limit))) : result;
+    }
+
+    private ProjectTimings getProject(String path) {
+        return projects.computeIfAbsent(path, p -> new ProjectTimings());
+    }
+
+    /**
+     * A cumulative duration.
+     */
+    public static class Timing {
+
+        private long nanos;
+
+        private int count;
+
+        synchronized void add(long duration) {
+            nanos += duration;
+            count++;
+        }
+
+        synchronized long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * The number of times the duration was recorded.
+         *
+         * @return the count
+         */
+        public synchronized int getCount() {
+            return count;
+        }
+
+        /**
+         * The total duration.
+         *
+         * @return the duration in milliseconds
+         */
+        public synchronized long getMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+
+    /**
+     * The timings of a single project.
+     */
+    public static class ProjectTimings extends Timing {
+
+        /**
+         * The timings of the configurations of the project, in the order they were processed.
+         *
+         * @return the configurations
+         */
+        @Getter
+        private final Map<String, ConfigurationTiming> configurations = Collections
+                .synchronizedMap(new LinkedHashMap<>());
+    }
+
+    /**
+     * The timing of a single configuration.
+     */
+    public static class ConfigurationTiming extends Timing {
+
+        private final String project;
+
+        private final String name;
+
+        /**
+         * The number of dependency edges in the resolved graph of the configuration.
+         *
+         * @return the number of edges
+         */
+        @Getter
+        private volatile int edges;
+
+        ConfigurationTiming(String project, String name) {
+            this.project = project;
+            this.name = name;
+        }
+
+        /**
+         * The path of the project of the configuration. This is not serialized as the configurations are already
+         * keyed by project.
+         *
+         * @return the project path
+         */
+        @JsonIgnore
+        public String getProject() {
+            return project;
+        }
+
+        /**
+         * The name of the configuration.
+         *
+         * @return the configuration name
+         */
+        @JsonIgnore
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -112,7 +112,8 @@ public interface Configuration extends Accessible, Reloadable {
 
     /**
      * Mode of the artifacts to align. For temporary builds, the mode is: 'TEMPORARY', 'PERSISTENT' for permanent,
-     * 'SERVICE' for service builds, and 'SERVICE-TEMPORARY' for temporary service builds.
+     * 'SERVICE' for service builds, and 'SERVICE-TEMPORARY' for temporary service builds. The mode 'OFFLINE' answers
+     * the lookups from the {@link #restOfflineSnapshot()} rather than the Dependency Analyzer.
      * <p>
      * Default value: empty string
      *
@@ -143,6 +144,230 @@ public interface Configuration extends Accessible, Reloadable {
     @DefaultValue("")
     Map<String, String> restHeaders();
 
+    /**
+     * The maximum number of REST requests in flight. If greater than one, the project version lookup is performed
+     * at the same time as the dependency lookup and the dependencies are looked up in concurrent chunks of at most
+     * {@link #restMaxSize()} GAVs (or split evenly over the requests if that is not set). Defaults to 1, i.e. the
+     * lookups are performed serially.
+     *
+     * @return the maximum number of concurrent REST requests
+     */
+    @Key("restConcurrentRequests")
+    @DefaultValue("1")
+    int restConcurrentRequests();
+
+    /**
+     * The number of times a failed chunk is retried when {@link #restConcurrentRequests()} is greater than one or
+     * {@link #restAdaptiveChunking()} is enabled. Defaults to 2.
+     *
+     * @return the number of retries per chunk
+     */
+    @Key("restChunkRetries")
+    @DefaultValue("2")
+    int restChunkRetries();
+
+    /**
+     * Whether the number of GAVs in each dependency lookup request adapts to the performance of the endpoint. The
+     * size starts at {@link #restMaxSize()} (or 64 if that is not set), grows while the latency per GAV improves and
+     * halves on failures. The sizes and timings of each request are recorded in the alignment report. Defaults to
+     * false.
+     * <p>
+     * So that the latency and failures of each request are observed directly, the REST client used for alignment
+     * neither splits nor retries a request itself when enabled ; {@link #restRetryDuration()} is ignored and a failed
+     * request is instead retried up to {@link #restChunkRetries()} times at the (reduced) current size. The REST
+     * client passed to Groovy scripts is unaffected.
+     *
+     * @return whether adaptive chunk sizing is enabled
+     */
+    @Key("restAdaptiveChunking")
+    @DefaultValue("false")
+    boolean restAdaptiveChunking();
+
+    /**
+     * The maximum number of GAVs in a dependency lookup request when {@link #restAdaptiveChunking()} is enabled.
+     *
+     * @return the maximum adaptive chunk size
+     */
+    @Key("restAdaptiveMaxSize")
+    @DefaultValue("1024")
+    int restAdaptiveMaxSize();
+
+    /**
+     * Whether the results of the REST lookups are cached on disk so that subsequent builds only send the GAVs
+     * that have not been looked up before (or whose cached result has expired). Defaults to false.
+     *
+     * @return whether the REST lookup cache is enabled
+     */
+    @Key("restCache")
+    @DefaultValue("false")
+    boolean restCache();
+
+    /**
+     * The directory the REST lookup cache is stored in. If empty, <code>gme-cache</code> within the Gradle user
+     * home (i.e. <code>~/.gradle/gme-cache</code>) is used.
+     *
+     * @return the REST lookup cache directory
+     */
+    @Key("restCacheDirectory")
+    @DefaultValue("")
+    String restCacheDirectory();
+
+    /**
+     * The number of seconds a cached REST lookup result remains valid for. Defaults to one day.
+     *
+     * @return the time to live in seconds
+     */
+    @Key("restCacheTTL")
+    @DefaultValue("86400")
+    long restCacheTTL();
+
+    /**
+     * The maximum number of entries retained in the REST lookup cache. When exceeded, the least recently used
+     * entries are evicted.
+     *
+     * @return the maximum number of entries
+     */
+    @Key("restCacheMaxSize")
+    @DefaultValue("100000")
+    int restCacheMaxSize();
+
+    /**
+     * Whether the project version lookups are also cached. As the suffix returned for the project depends upon what
+     * has since been built this is disabled by default, and should only be enabled where the project versions are
+     * not going to be built.
+     *
+     * @return whether project version lookups are cached
+     */
+    @Key("restCacheProjectVersions")
+    @DefaultValue("false")
+    boolean restCacheProjectVersions();
+
+    /**
+     * Whether, if a previous <code>manipulation.json</code> exists, the alignments of the dependencies that have not
+     * changed since are reused so that only new or changed GAVs are looked up. Defaults to false.
+     *
+     * @return whether incremental alignment is enabled
+     */
+    @Key("incrementalAlignment")
+    @DefaultValue("false")
+    boolean incrementalAlignment();
+
+    /**
+     * The number of seconds after which a previous <code>manipulation.json</code> is no longer used for incremental
+     * alignment. Defaults to 0, i.e. it never expires.
+     *
+     * @return the time to live in seconds
+     */
+    @Key("incrementalAlignmentTTL")
+    @DefaultValue("0")
+    long incrementalAlignmentTTL();
+
+    /**
+     * Whether to also write a compact binary sidecar of <code>manipulation.json</code> which allows the manipulation
+     * plugin to read only the module of each project rather than parsing the entire model. The JSON remains the
+     * source of truth and the sidecar is ignored if it does not match it. Defaults to false.
+     *
+     * @return whether to write the sidecar
+     */
+    @Key("manipulationSidecar")
+    @DefaultValue("false")
+    boolean manipulationSidecar();
+
+    /**
+     * Whether to retain the previous generation of <code>manipulation.json</code> as
+     * <code>manipulation.json.prev</code> when it is rewritten. Defaults to false.
+     *
+     * @return whether to keep the previous file
+     */
+    @Key("manipulationKeepPrevious")
+    @DefaultValue("false")
+    boolean manipulationKeepPrevious();
+
+    /**
+     * Whether the Groovy scripts are cached on disk, keyed by their URL and the hash of their content. The cache
+     * holds the downloaded source, the compiled classes and the invocation point of each script so that a script is
+     * only compiled when its content changes and is skipped without compilation in a stage it does not run in.
+     * Defaults to false.
+     *
+     * @return whether the Groovy script cache is enabled
+     */
+    @Key("groovyScriptCache")
+    @DefaultValue("false")
+    boolean groovyScriptCache();
+
+    /**
+     * The directory the Groovy script cache is stored in. If empty, <code>gme-cache/groovy-scripts</code> within the
+     * Gradle user home (i.e. <code>~/.gradle/gme-cache/groovy-scripts</code>) is used.
+     *
+     * @return the Groovy script cache directory
+     */
+    @Key("groovyScriptCacheDirectory")
+    @DefaultValue("")
+    String groovyScriptCacheDirectory();
+
+    /**
+     * The number of seconds a downloaded remote Groovy script is reused before it is downloaded again. Scripts that
+     * are local files are always read. Defaults to one hour.
+     *
+     * @return the time to live in seconds
+     */
+    @Key("groovyScriptCacheTTL")
+    @DefaultValue("3600")
+    long groovyScriptCacheTTL();
+
+    /**
+     * The maximum number of scripts retained in the Groovy script cache. When exceeded, the least recently used
+     * scripts are evicted.
+     *
+     * @return the maximum number of scripts
+     */
+    @Key("groovyScriptCacheMaxSize")
+    @DefaultValue("50")
+    int groovyScriptCacheMaxSize();
+
+    /**
+     * Whether the dependencies are looked up while the projects are still being scanned. Each project's newly
+     * discovered dependencies are queued and looked up in the background so that the alignment only waits for the
+     * lookups still in flight once the last project has been scanned. This is not used with incremental alignment.
+     * Defaults to false.
+     *
+     * @return whether the dependency lookups are streamed
+     */
+    @Key("restStreaming")
+    @DefaultValue("false")
+    boolean restStreaming();
+
+    /**
+     * The minimum number of queued dependencies sent in a single background lookup when streaming. Any remaining
+     * dependencies are sent once the last project has been scanned.
+     *
+     * @return the batch size
+     */
+    @Key("restStreamingBatchSize")
+    @DefaultValue("256")
+    int restStreamingBatchSize();
+
+    /**
+     * The snapshot the lookups are answered from when {@link #restMode()} is <code>OFFLINE</code>. The snapshot is
+     * written by a previous run with {@link #restSnapshotExport()} set.
+     *
+     * @return the path of the snapshot
+     */
+    @Key("restOfflineSnapshot")
+    @DefaultValue("")
+    String restOfflineSnapshot();
+
+    /**
+     * If set, the results of the dependency and project version lookups are written to a snapshot at this path so
+     * that they may be replayed with {@link #restMode()} <code>OFFLINE</code>. Only the GAVs that are looked up are
+     * included, so for a complete snapshot neither incremental alignment nor offline mode should be enabled.
+     *
+     * @return the path to write the snapshot to
+     */
+    @Key("restSnapshotExport")
+    @DefaultValue("")
+    String restSnapshotExport();
+
     @Key("ignoreUnresolvableDependencies")
     @DefaultValue("false")
     boolean ignoreUnresolvableDependencies();
@@ -188,6 +413,19 @@ public interface Configuration extends Accessible, Reloadable {
     @DefaultValue("false")
     Boolean useLegacyConfigurationCopy();
 
+    /**
+     * Whether the configurations of each project may be resolved concurrently on a pool bounded by the number of
+     * processors and the maximum number of Gradle workers. The results are merged in declaration order so the output
+     * is identical to serial resolution. From Gradle 6 the resolutions run as Gradle worker threads with access to
+     * the project state while the task thread waits ; should the required internal API not be available this falls
+     * back to serial resolution. Defaults to false.
+     *
+     * @return whether to resolve configurations concurrently
+     */
+    @Key("parallelConfigurationResolution")
+    @DefaultValue("false")
+    boolean parallelConfigurationResolution();
+
     /**
      * This is primarily used by the tests. Since NCLSUP-1402 we skip projects with no publication when scanning
      * for alignment. However, many integration tests predate that and the publications have not been added. This
@@ -257,6 +495,18 @@ public interface Configuration extends Accessible, Reloadable {
     @DefaultValue("false")
     boolean reportNonAligned();
 
+    /**
+     * The number of the slowest configurations (to resolve and process) to list in the text report. The timings of
+     * every configuration are always included in the JSON report.
+     * <p>
+     * Default value: 10
+     *
+     * @return the number of configurations to list
+     */
+    @Key("reportSlowestConfigurations")
+    @DefaultValue("10")
+    int reportSlowestConfigurations();
+
     /**
      * Indicates whether we want to search for artifacts in brew or not.
      * <p>
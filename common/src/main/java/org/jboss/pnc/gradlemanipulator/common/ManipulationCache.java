@@ -2,13 +2,14 @@ package org.jboss.pnc.gradlemanipulator.common;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.Setter;
@@ -16,15 +17,23 @@ import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
 import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
 import org.jboss.pnc.gradlemanipulator.common.utils.PluginUtils.DokkaVersion;
 import org.jboss.pnc.gradlemanipulator.common.utils.ProjectUtils;
+import org.jboss.pnc.gradlemanipulator.common.versioning.GAVPool;
 import org.jboss.pnc.gradlemanipulator.common.versioning.RelaxedProjectVersionRef;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
 import org.jboss.pnc.mavenmanipulator.core.impl.Version;
 
 /**
  * Cache that is stored in the root project extensions.
+ * <p>
+ * The alignment tasks of each project may be executed concurrently (e.g. with {@code --parallel}) so all state is
+ * held in concurrent collections. Where the order of the results affects the output (the dependencies, project GAVs
+ * and repositories) it is kept sorted so that the result is identical regardless of the order the tasks completed in.
  */
 public class ManipulationCache {
 
@@ -43,7 +52,13 @@ public class ManipulationCache {
      * and is used to make sure that the result of alignment is only written once (by the last alignment task to be
      * performed).
      */
-    private final Set<String> projectCounter = Collections.synchronizedSet(new HashSet<>());
+    private final Set<String> projectCounter = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of entries remaining in {@link #projectCounter}. This is decremented atomically so that exactly one
+     * caller of {@link #removeProject(Project)} observes the completion.
+     */
+    private final AtomicInteger projectsRemaining = new AtomicInteger();
 
     /**
      * Root model.
@@ -53,23 +68,41 @@ public class ManipulationCache {
     @Getter
     private ManipulationModel model;
 
-    private final List<ProjectVersionRef> projectVersionRefs = new ArrayList<>();
+    /**
+     * The project GAVs keyed by project path.
+     */
+    private final Map<String, ProjectVersionRef> projectVersionRefs = new ConcurrentSkipListMap<>();
 
     /**
      * This is the project dependencies - it represents a mapping of project module to a map of the original Dependency
-     * (which might be dynamic) to the fully resolved GAV.
+     * (which might be dynamic) to the fully resolved GAV. The projects are ordered as Gradle orders them (by depth and
+     * then path).
      *
      * @return the project dependencies
      */
     @Getter
-    private final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = new LinkedHashMap<>();
+    private final Map<Project, Map<RelaxedProjectVersionRef, ProjectVersionRef>> dependencies = new ConcurrentSkipListMap<>();
+
+    private final Map<ArtifactRepository, Path> repositories = new ConcurrentHashMap<>();
+
+    /**
+     * The dependency GAVs that have been passed to the {@link #dependencyListener}.
+     */
+    private final Set<ProjectVersionRef> discoveredDependencies = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Notified of the dependency GAVs not seen before as each project's dependencies are added.
+     *
+     * @param dependencyListener the listener or null
+     * @return the listener or null if none is set
+     */
     @Getter
-    private final Map<ArtifactRepository, Path> repositories = new HashMap<>();
+    @Setter
+    private volatile DependencyListener dependencyListener;
 
     @Getter
     @Setter
-    private DokkaVersion dokkaVersion = DokkaVersion.NONE;
+    private volatile DokkaVersion dokkaVersion = DokkaVersion.NONE;
 
     /**
      * OpenTelemetry builds utilise constraints but this can affect the entire project leading to
@@ -80,7 +113,23 @@ public class ManipulationCache {
      */
     @Getter
     @Setter
-    private boolean constraints = false;
+    private volatile boolean constraints = false;
+
+    /**
+     * Additional named sections (e.g. statistics) to be appended to the alignment reports, sorted by name.
+     *
+     * @return the report sections
+     */
+    @Getter
+    private final Map<String, Object> reportSections = new ConcurrentSkipListMap<>();
+
+    /**
+     * Where the time of the alignment is spent, for the alignment reports.
+     *
+     * @return the timings
+     */
+    @Getter
+    private final AlignmentTimings timings = new AlignmentTimings();
 
     /**
      * Retrieves the cache given any project. It will access the root project, check if the
@@ -109,15 +158,14 @@ public class ManipulationCache {
         if (project == null) {
             throw new ManipulationUncheckedException("Null project");
         }
-        ManipulationCache cache;
+        ExtraPropertiesExtension extra = project.getRootProject().getExtensions().getExtraProperties();
 
-        if (!project.getRootProject().getExtensions().getExtraProperties().has(NAME_PREFIX)) {
-            cache = new ManipulationCache(project.getRootProject());
-            project.getRootProject().getExtensions().getExtraProperties().set(NAME_PREFIX, cache);
-        } else {
-            cache = (ManipulationCache) project.getRootProject().getExtensions().getExtraProperties().get(NAME_PREFIX);
+        synchronized (ManipulationCache.class) {
+            if (!extra.has(NAME_PREFIX)) {
+                extra.set(NAME_PREFIX, new ManipulationCache(project.getRootProject()));
+            }
+            return (ManipulationCache) extra.get(NAME_PREFIX);
         }
-        return cache;
     }
 
     private ManipulationCache(Project rootProject) {
@@ -130,22 +178,44 @@ public class ManipulationCache {
      * @param project the project
      */
     public void addProject(Project project) {
-        projectCounter.add(project.getPath());
+        if (projectCounter.add(project.getPath())) {
+            projectsRemaining.incrementAndGet();
+        }
     }
 
     /**
-     * Tracking projects - remove the project when it is evaluated.
+     * Tracking projects - remove the project when it is evaluated. This is safe to call concurrently ; only the
+     * caller that removes the final project will receive true.
      *
      * @param project the project
      * @return true if all projects are now handled.
      */
     public boolean removeProject(Project project) {
-        projectCounter.remove(project.getPath());
-        return projectCounter.isEmpty();
+        return projectCounter.remove(project.getPath()) && projectsRemaining.decrementAndGet() == 0;
     }
 
+    /**
+     * Stores the dependencies of a project. As many projects share the same dependencies they are interned within the
+     * build's {@link GAVPool}. Those not seen before are passed to the {@link DependencyListener}, if any.
+     *
+     * @param project the project
+     * @param deps the dependencies keyed by the original dependency
+     */
     public void addDependencies(Project project, Map<RelaxedProjectVersionRef, ProjectVersionRef> deps) {
-        dependencies.put(project, deps);
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> interned = GAVPool.getPool(rootProject).intern(deps);
+
+        dependencies.put(project, interned);
+
+        final DependencyListener listener = dependencyListener;
+        if (listener != null) {
+            final List<ProjectVersionRef> discovered = interned.values()
+                    .stream()
+                    .filter(discoveredDependencies::add)
+                    .collect(Collectors.toList());
+            if (!discovered.isEmpty()) {
+                listener.discovered(discovered);
+            }
+        }
     }
 
     /**
@@ -160,7 +230,7 @@ public class ManipulationCache {
         if (project != null && model != null) {
             model.findCorrespondingChild(project.getPath()).setGroup(ProjectUtils.getRealGroupId(project));
         }
-        this.projectVersionRefs.add(gav);
+        this.projectVersionRefs.put(project == null ? gav.toString() : project.getPath(), gav);
     }
 
     @Override
@@ -168,12 +238,48 @@ public class ManipulationCache {
         return rootProject.getName();
     }
 
+    /**
+     * Records a repository. As the same repository (e.g. from the settings plugin management) may be recorded from
+     * multiple projects the lowest project directory is retained so the result does not depend upon task ordering.
+     *
+     * @param repository the repository
+     * @param projectDir the relative project directory the repository was found in
+     */
     public void addRepository(ArtifactRepository repository, Path projectDir) {
-        repositories.put(repository, projectDir);
+        repositories.merge(repository, projectDir, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+    }
+
+    /**
+     * Returns the repositories sorted by project directory, name and URL.
+     *
+     * @return a map of repository to the relative project directory that it was found in
+     */
+    public Map<ArtifactRepository, Path> getRepositories() {
+        final List<Map.Entry<ArtifactRepository, Path>> entries = new ArrayList<>(repositories.entrySet());
+        entries.sort(
+                Comparator.comparing((Map.Entry<ArtifactRepository, Path> e) -> e.getValue())
+                        .thenComparing(e -> String.valueOf(e.getKey().getName()))
+                        .thenComparing(e -> getRepositoryUrl(e.getKey())));
+
+        final Map<ArtifactRepository, Path> result = new LinkedHashMap<>();
+        entries.forEach(e -> result.put(e.getKey(), e.getValue()));
+        return result;
+    }
+
+    /**
+     * Records an additional section for the alignment reports. The value is serialized as is into the JSON report;
+     * if it is a {@link Map} each entry is also listed in the text report.
+     *
+     * @param name the name of the section
+     * @param value the content of the section
+     */
+    public void addReportSection(String name, Object value) {
+        reportSections.put(name, value);
     }
 
     public List<ProjectVersionRef> getProjectVersionRefs(boolean versionSuffixSnapshot) {
-        return projectVersionRefs.stream()
+        return projectVersionRefs.values()
+                .stream()
                 .map(
                         e -> !versionSuffixSnapshot
                                 ? new SimpleProjectVersionRef(
@@ -184,6 +290,30 @@ public class ManipulationCache {
     }
 
     public String getProjectCounterRemaining() {
-        return projectCounter.toString();
+        return projectCounter.stream().sorted().collect(Collectors.toList()).toString();
+    }
+
+    private static String getRepositoryUrl(ArtifactRepository repository) {
+        if (repository instanceof MavenArtifactRepository) {
+            return String.valueOf(((MavenArtifactRepository) repository).getUrl());
+        } else if (repository instanceof IvyArtifactRepository) {
+            return String.valueOf(((IvyArtifactRepository) repository).getUrl());
+        }
+        return "";
+    }
+
+    /**
+     * Receives the dependency GAVs as they are discovered so that they may be processed (e.g. looked up) while the
+     * remaining projects are still being scanned. This may be called concurrently.
+     */
+    @FunctionalInterface
+    public interface DependencyListener {
+
+        /**
+         * Called with the dependency GAVs of a project that have not been passed to the listener before.
+         *
+         * @param gavs the newly discovered GAVs
+         */
+        void discovered(List<ProjectVersionRef> gavs);
     }
 }
@@ -0,0 +1,490 @@
+package org.jboss.pnc.gradlemanipulator.common.groovy;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.utils.FileUtils;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+import org.jboss.pnc.mavenmanipulator.core.groovy.InvocationStage;
+import org.jboss.pnc.mavenmanipulator.io.FileIO;
+import org.slf4j.Logger;
+
+/**
+ * A persistent cache of the Groovy scripts run by
+ * {@link org.jboss.pnc.gradlemanipulator.common.utils.GroovyUtils#runCustomGroovyScript}.
+ * <p>
+ * Each script URL has its own directory (named from a digest of the URL) holding the downloaded source, a
+ * <code>script.properties</code> file recording the hash of the source and its invocation point, and the compiled
+ * class files. The compiled classes and the invocation point are only valid for the content hash they were recorded
+ * with and are discarded once the source changes. As the {@link CompilerConfiguration} differs between the stages
+ * (the Grab transformation is disabled in the last stage) the classes are stored per variant of the configuration.
+ * <p>
+ * Remote scripts are reused until the configured time to live has passed whereas local files are always read. The
+ * least recently used scripts are evicted by {@link #trim()} once the configured maximum size is exceeded. As the
+ * cache is purely an optimisation, a corrupt entry is simply recompiled and a failure to read or write the cache is
+ * logged and reported to the caller by a null result so that it may fall back to the uncached path.
+ */
+public final class GroovyScriptCache {
+
+    /**
+     * The name of the default cache directory within the Gradle user home.
+     */
+    static final String DIRECTORY = "gme-cache" + File.separator + "groovy-scripts";
+
+    static final String METADATA = "script.properties";
+
+    private static final String URL = "url";
+
+    private static final String SOURCE = "source";
+
+    private static final String HASH = "hash";
+
+    private static final String DOWNLOADED = "downloaded";
+
+    private static final String INVOCATION_POINT = "invocationPoint";
+
+    private static final String MAIN_CLASS = "mainClass.";
+
+    private static final String CLASSES = "classes-";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Logger logger;
+
+    /**
+     * The directory the cache is stored in.
+     *
+     * @return the cache directory
+     */
+    @Getter
+    private final File directory;
+
+    private final long ttl;
+
+    private final int maxSize;
+
+    /**
+     * The number of remote scripts that were not downloaded again.
+     *
+     * @return the number of downloads avoided
+     */
+    @Getter
+    private int downloadsAvoided;
+
+    /**
+     * The number of scripts whose classes were loaded from the cache rather than compiled.
+     *
+     * @return the number of compilations avoided
+     */
+    @Getter
+    private int compilationsAvoided;
+
+    /**
+     * The number of scripts compiled.
+     *
+     * @return the number of compilations
+     */
+    @Getter
+    private int compilations;
+
+    /**
+     * The number of scripts removed due to the size bound.
+     *
+     * @return the number of evictions
+     */
+    @Getter
+    private int evictions;
+
+    /**
+     * Creates the cache.
+     *
+     * @param logger the logger to use ; this is the SLF4J logger of the caller to allow interaction with the CLI
+     * @param directory the directory to store the cache in
+     * @param ttl the time in milliseconds a remote script is reused for
+     * @param maxSize the maximum number of scripts
+     */
+    GroovyScriptCache(Logger logger, File directory, long ttl, int maxSize) {
+        this.logger = logger;
+        this.directory = directory;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates the cache for the given configuration.
+     *
+     * @param logger the logger to use ; this is the SLF4J logger of the caller to allow interaction with the CLI
+     * @param configuration the current configuration
+     * @param gradleUserHome the Gradle user home directory, or null to use <code>~/.gradle</code>
+     * @return the cache or null if caching is not enabled
+     */
+    public static GroovyScriptCache create(Logger logger, Configuration configuration, File gradleUserHome) {
+        if (!configuration.groovyScriptCache()) {
+            return null;
+        }
+        final File directory;
+        if (!isEmpty(configuration.groovyScriptCacheDirectory())) {
+            directory = new File(configuration.groovyScriptCacheDirectory());
+        } else if (gradleUserHome != null) {
+            directory = new File(gradleUserHome, DIRECTORY);
+        } else {
+            directory = new File(System.getProperty("user.home"), ".gradle" + File.separator + DIRECTORY);
+        }
+        return new GroovyScriptCache(
+                logger,
+                directory,
+                TimeUnit.SECONDS.toMillis(configuration.groovyScriptCacheTTL()),
+                configuration.groovyScriptCacheMaxSize());
+    }
+
+    /**
+     * Resolves the script at the given URL. A remote script that was downloaded within the time to live is not
+     * downloaded again ; otherwise the script is resolved and stored in the cache. Should its content have changed,
+     * any compiled classes and the recorded invocation point are discarded.
+     *
+     * @param url the URL or path of the script
+     * @return the cache entry of the script or null if the script cannot be resolved through the cache
+     */
+    public Entry resolve(String url) {
+        try {
+            return resolveEntry(url);
+        } catch (IOException e) {
+            logger.warn("Unable to resolve script {} through the Groovy script cache {}", url, directory, e);
+            return null;
+        }
+    }
+
+    private Entry resolveEntry(String url) throws IOException {
+        final File entryDirectory = new File(directory, digest(url.getBytes(StandardCharsets.UTF_8)));
+        final File metadataFile = new File(entryDirectory, METADATA);
+        final Properties metadata = load(metadataFile);
+        final String sourceName = metadata.getProperty(SOURCE);
+
+        if (isRemote(url) && url.equals(metadata.getProperty(URL)) && sourceName != null) {
+            final File source = new File(entryDirectory, sourceName);
+            final long downloaded = NumberUtils.toLong(metadata.getProperty(DOWNLOADED));
+
+            if (System.currentTimeMillis() - downloaded <= ttl && source.isFile()
+                    && digest(Files.readAllBytes(source.toPath())).equals(metadata.getProperty(HASH))) {
+                logger.debug("Using cached script {} for {}", source, url);
+                downloadsAvoided++;
+                touch(metadataFile);
+                return new Entry(entryDirectory, source, metadata);
+            }
+        }
+        Files.createDirectories(directory.toPath());
+        final File downloadDirectory = Files.createTempDirectory(directory.toPath(), "download").toFile();
+        try {
+            final File resolved = new FileIO(downloadDirectory).resolveURL(url);
+            final byte[] content = Files.readAllBytes(resolved.toPath());
+            final String hash = digest(content);
+
+            if (!hash.equals(metadata.getProperty(HASH))) {
+                logger.debug("Content of script {} has changed ; discarding any cached classes", url);
+                metadata.clear();
+                deleteClasses(entryDirectory);
+            }
+            if (sourceName != null && !sourceName.equals(resolved.getName())) {
+                Files.deleteIfExists(new File(entryDirectory, sourceName).toPath());
+            }
+            final File source = new File(entryDirectory, resolved.getName());
+            if (!source.isFile() || metadata.isEmpty()) {
+                Files.createDirectories(entryDirectory.toPath());
+                FileUtils.writeAtomically(source, content);
+            }
+
+            metadata.setProperty(URL, url);
+            metadata.setProperty(SOURCE, source.getName());
+            metadata.setProperty(HASH, hash);
+            metadata.setProperty(DOWNLOADED, Long.toString(System.currentTimeMillis()));
+            save(metadataFile, metadata);
+
+            return new Entry(entryDirectory, source, metadata);
+        } finally {
+            org.apache.commons.io.FileUtils.deleteQuietly(downloadDirectory);
+        }
+    }
+
+    /**
+     * Loads the script class of the given entry. If the classes for this variant of the compiler configuration were
+     * previously compiled they are defined from the cache ; otherwise the script is compiled and its classes stored.
+     *
+     * @param entry the cache entry of the script
+     * @param parent the parent class loader for the script
+     * @param config the compiler configuration
+     * @return the script class or null if the compiled classes cannot be stored
+     */
+    public Class<? extends Script> loadScriptClass(Entry entry, ClassLoader parent, CompilerConfiguration config) {
+        final String variant = variant(config);
+        final File classes = new File(entry.directory, CLASSES + variant);
+        final String mainClass = entry.metadata.getProperty(MAIN_CLASS + variant);
+
+        if (mainClass != null && classes.isDirectory()) {
+            try {
+                final Map<String, byte[]> bytes = new HashMap<>();
+                for (File file : listFiles(classes)) {
+                    if (file.getName().endsWith(CLASS_SUFFIX)) {
+                        bytes.put(
+                                file.getName().substring(0, file.getName().length() - CLASS_SUFFIX.length()),
+                                Files.readAllBytes(file.toPath()));
+                    }
+                }
+                final Class<? extends Script> result = new ScriptClassLoader(parent, config, bytes)
+                        .loadClass(mainClass)
+                        .asSubclass(Script.class);
+                logger.debug("Loaded cached classes of script {}", entry.source);
+                compilationsAvoided++;
+                return result;
+            } catch (IOException | ClassNotFoundException | LinkageError | ClassCastException e) {
+                logger.warn("Ignoring unusable cached classes of script {}", entry.source, e);
+            }
+        }
+
+        final ScriptClassLoader loader = new ScriptClassLoader(parent, config, new HashMap<>());
+        final CompilationUnit unit = new CompilationUnit(config, null, loader);
+        unit.addSource(entry.source);
+        unit.compile(Phases.CLASS_GENERATION);
+        compilations++;
+
+        final String compiledClass = unit.getAST().getModules().get(0).getMainClassName();
+        for (GroovyClass groovyClass : unit.getClasses()) {
+            loader.classes.put(groovyClass.getName(), groovyClass.getBytes());
+        }
+        try {
+            store(entry, unit, classes);
+            entry.metadata.setProperty(MAIN_CLASS + variant, compiledClass);
+            save(new File(entry.directory, METADATA), entry.metadata);
+        } catch (IOException e) {
+            logger.warn(
+                    "Unable to store the compiled classes of script {} in the Groovy script cache",
+                    entry.source,
+                    e);
+            entry.metadata.remove(MAIN_CLASS + variant);
+            return null;
+        }
+
+        try {
+            return loader.loadClass(compiledClass).asSubclass(Script.class);
+        } catch (ClassNotFoundException e) {
+            throw new ManipulationUncheckedException("Unable to load compiled script class {}", compiledClass, e);
+        }
+    }
+
+    /**
+     * Records the invocation point of the script so that it may be skipped without compilation in another stage.
+     *
+     * @param entry the cache entry of the script
+     * @param stage the invocation point declared by the script
+     */
+    public void record(Entry entry, InvocationStage stage) {
+        if (stage.name().equals(entry.metadata.getProperty(INVOCATION_POINT))) {
+            return;
+        }
+        entry.metadata.setProperty(INVOCATION_POINT, stage.name());
+        try {
+            save(new File(entry.directory, METADATA), entry.metadata);
+        } catch (IOException e) {
+            logger.warn("Unable to record the invocation point of script {}", entry.source, e);
+        }
+    }
+
+    /**
+     * Evicts the least recently used scripts until the cache holds no more than the maximum number. Failures are
+     * logged rather than thrown as the cache is purely an optimisation.
+     */
+    public void trim() {
+        final List<File> entries = new ArrayList<>();
+        for (File file : listFiles(directory)) {
+            if (file.isDirectory() && new File(file, METADATA).isFile()) {
+                entries.add(file);
+            }
+        }
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(f -> new File(f, METADATA).lastModified()));
+
+        for (File entry : entries.subList(0, entries.size() - maxSize)) {
+            try {
+                org.apache.commons.io.FileUtils.deleteDirectory(entry);
+                evictions++;
+            } catch (IOException e) {
+                logger.warn("Unable to evict {} from the Groovy script cache", entry, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache for reporting.
+     *
+     * @return the downloads avoided, compilations avoided, compilations and evictions
+     */
+    public Map<String, Integer> getStatistics() {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("downloadsAvoided", downloadsAvoided);
+        result.put("compilationsAvoided", compilationsAvoided);
+        result.put("compilations", compilations);
+        result.put("evictions", evictions);
+        return result;
+    }
+
+    private static void store(Entry entry, CompilationUnit unit, File classes) throws IOException {
+        final File compiledDirectory = Files.createTempDirectory(entry.directory.toPath(), CLASSES).toFile();
+        try {
+            for (GroovyClass groovyClass : unit.getClasses()) {
+                Files.write(
+                        new File(compiledDirectory, groovyClass.getName() + CLASS_SUFFIX).toPath(),
+                        groovyClass.getBytes());
+            }
+            org.apache.commons.io.FileUtils.deleteDirectory(classes);
+            if (!compiledDirectory.renameTo(classes)) {
+                throw new IOException("Unable to rename " + compiledDirectory + " to " + classes);
+            }
+        } finally {
+            org.apache.commons.io.FileUtils.deleteQuietly(compiledDirectory);
+        }
+    }
+
+    private Properties load(File file) {
+        final Properties result = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                result.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Ignoring unreadable Groovy script cache entry {}", file, e);
+                result.clear();
+            }
+        }
+        return result;
+    }
+
+    private static void save(File file, Properties metadata) throws IOException {
+        FileUtils.writeAtomically(file, (OutputStream out) -> metadata.store(out, null));
+    }
+
+    private static void touch(File file) {
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+    }
+
+    private static void deleteClasses(File entryDirectory) throws IOException {
+        for (File file : listFiles(entryDirectory)) {
+            if (file.isDirectory() && file.getName().startsWith(CLASSES)) {
+                org.apache.commons.io.FileUtils.deleteDirectory(file);
+            }
+        }
+    }
+
+    private static File[] listFiles(File dir) {
+        final File[] result = dir.listFiles();
+        return result == null ? new File[0] : result;
+    }
+
+    private static boolean isRemote(String url) {
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    /**
+     * The compiled classes depend upon the global AST transformations that are disabled.
+     */
+    private static String variant(CompilerConfiguration config) {
+        final TreeSet<String> disabled = new TreeSet<>();
+        if (config.getDisabledGlobalASTTransformations() != null) {
+            disabled.addAll(config.getDisabledGlobalASTTransformations());
+        }
+        return disabled.isEmpty() ? "default" : digest(String.join(",", disabled).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String digest(byte[] value) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(value);
+            final StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new ManipulationUncheckedException("Unable to create digest", e);
+        }
+    }
+
+    /**
+     * A script held in the cache.
+     */
+    public static final class Entry {
+        private final File directory;
+
+        /**
+         * The cached source of the script.
+         *
+         * @return the source file
+         */
+        @Getter
+        private final File source;
+
+        private final Properties metadata;
+
+        private Entry(File directory, File source, Properties metadata) {
+            this.directory = directory;
+            this.source = source;
+            this.metadata = metadata;
+        }
+
+        /**
+         * Returns the invocation point recorded when the script was last compiled.
+         *
+         * @return the invocation point or null if it is not known
+         */
+        public InvocationStage getInvocationStage() {
+            final String stage = metadata.getProperty(INVOCATION_POINT);
+            return stage == null ? null : InvocationStage.valueOf(stage);
+        }
+    }
+
+    /**
+     * Defines the classes of a script from their bytes. This extends {@link GroovyClassLoader} as the code generated
+     * for Grab annotations requires the script to have been loaded by one.
+     */
+    private static final class ScriptClassLoader extends GroovyClassLoader {
+        private final Map<String, byte[]> classes;
+
+        private ScriptClassLoader(ClassLoader parent, CompilerConfiguration config, Map<String, byte[]> classes) {
+            super(parent, config);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            final byte[] bytes = classes.get(name);
+            if (bytes != null) {
+                return defineClass(name, bytes);
+            }
+            return super.findClass(name);
+        }
+    }
+}
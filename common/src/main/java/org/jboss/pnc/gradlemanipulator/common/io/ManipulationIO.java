@@ -1,10 +1,15 @@
 package org.jboss.pnc.gradlemanipulator.common.io;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import org.apache.commons.io.FileUtils;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.common.utils.FileUtils;
 import org.jboss.pnc.gradlemanipulator.common.utils.SerializationUtils;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
@@ -12,6 +17,8 @@ import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedExce
 public final class ManipulationIO {
     public static final String MANIPULATION_FILE_NAME = "manipulation.json";
 
+    public static final String PREVIOUS_MANIPULATION_FILE_NAME = MANIPULATION_FILE_NAME + ".prev";
+
     private ManipulationIO() {
     }
 
@@ -41,23 +48,71 @@ public final class ManipulationIO {
      * @param updatedManipulationModel whether to update the manipulation model
      * @throws ManipulationException if an error occurs
      */
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     public static void writeManipulationModel(File rootDir, ManipulationModel updatedManipulationModel)
             throws ManipulationException {
+        writeManipulationModel(rootDir, updatedManipulationModel, false);
+    }
+
+    /**
+     * Write the model to disk - override any existing file that might exist - optionally with a binary sidecar.
+     * Any existing sidecar is removed if a new one is not written.
+     *
+     * @param rootDir the root directory
+     * @param updatedManipulationModel whether to update the manipulation model
+     * @param sidecar whether to also write the {@link ManipulationSidecar}
+     * @throws ManipulationException if an error occurs
+     */
+    public static void writeManipulationModel(File rootDir, ManipulationModel updatedManipulationModel, boolean sidecar)
+            throws ManipulationException {
+        writeManipulationModel(rootDir, updatedManipulationModel, sidecar, false);
+    }
+
+    /**
+     * Write the model to disk, optionally with a binary sidecar and retaining the previous generation as
+     * {@link #PREVIOUS_MANIPULATION_FILE_NAME}. Any existing sidecar is removed if a new one is not written.
+     * <p>
+     * The model is written to a temporary file which is forced to disk and then atomically renamed over any existing
+     * file, so an interrupted write leaves the previous file intact rather than no file at all.
+     *
+     * @param rootDir the root directory
+     * @param updatedManipulationModel whether to update the manipulation model
+     * @param sidecar whether to also write the {@link ManipulationSidecar}
+     * @param keepPrevious whether to copy any existing file to {@link #PREVIOUS_MANIPULATION_FILE_NAME} first
+     * @throws ManipulationException if an error occurs
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public static void writeManipulationModel(
+            File rootDir,
+            ManipulationModel updatedManipulationModel,
+            boolean sidecar,
+            boolean keepPrevious) throws ManipulationException {
         final File manipulationFilePath = new File(rootDir, MANIPULATION_FILE_NAME);
+        final CRC32 crc = new CRC32();
 
-        // first delete any existing file
-        manipulationFilePath.delete();
+        // first delete any existing sidecar so that it is never newer than the model
+        new File(rootDir, ManipulationSidecar.SIDECAR_FILE_NAME).delete();
 
         try {
-            FileUtils.writeStringToFile(
-                    manipulationFilePath,
-                    SerializationUtils.getObjectMapper()
-                            .writerWithDefaultPrettyPrinter()
-                            .writeValueAsString(
-                                    updatedManipulationModel)
-                            + System.lineSeparator(),
-                    StandardCharsets.UTF_8.name());
+            if (keepPrevious && manipulationFilePath.isFile()) {
+                FileUtils.writeAtomically(
+                        new File(rootDir, PREVIOUS_MANIPULATION_FILE_NAME),
+                        output -> Files.copy(manipulationFilePath.toPath(), output));
+            }
+            // Stream the model straight to the file rather than rendering it to a String first.
+            FileUtils.writeAtomically(manipulationFilePath, output -> {
+                final OutputStream checked = new CheckedOutputStream(output, crc);
+                SerializationUtils.getObjectMapper()
+                        .writerWithDefaultPrettyPrinter()
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .writeValue(checked, updatedManipulationModel);
+                checked.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+                checked.flush();
+            });
+
+            if (sidecar) {
+                ManipulationSidecar
+                        .write(rootDir, updatedManipulationModel, manipulationFilePath.length(), crc.getValue());
+            }
         } catch (IOException e) {
             throw new ManipulationException("Unable to write manipulation.json in project root", e);
         }
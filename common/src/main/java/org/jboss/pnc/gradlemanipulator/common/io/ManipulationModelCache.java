@@ -0,0 +1,158 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.common.versioning.GAVPool;
+
+/**
+ * Build scoped cache of the deserialized {@link ManipulationIO#MANIPULATION_FILE_NAME} which is stored in the root
+ * project extensions. This allows every project within a build to share a single parsed instance rather than each
+ * one deserializing the entire model tree again.
+ * <p>
+ * The cached model is keyed by the file path, modification time and size so that if the file is rewritten during
+ * the build it will be read again.
+ * <p>
+ * The aligned dependencies of the model are interned within the build's {@link GAVPool}. The returned model is shared
+ * and therefore should be treated as read-only.
+ */
+public final class ManipulationModelCache {
+
+    private static final String NAME_PREFIX = "manipulationModelFileCache";
+
+    private final Logger logger = GMLogger.getLogger(getClass());
+
+    private File file;
+
+    private long lastModified;
+
+    private long length;
+
+    private ManipulationModel model;
+
+    /**
+     * The sidecar, if one exists and is valid, with the modules read from it keyed by project path.
+     */
+    private ManipulationSidecar sidecar;
+
+    private boolean sidecarChecked;
+
+    private final Map<String, ManipulationModel> modules = new HashMap<>();
+
+    /**
+     * The number of times the model has been deserialized.
+     *
+     * @return the number of reads
+     */
+    @Getter
+    private int reads;
+
+    private ManipulationModelCache() {
+    }
+
+    /**
+     * Retrieves the root {@link ManipulationModel} for the build that the given project belongs to, only reading
+     * it from disk if it has not been read yet or has changed since.
+     *
+     * @param project the {@link Project} reference.
+     * @return a valid manipulation model
+     */
+    public static ManipulationModel readManipulationModel(Project project) {
+        return getCache(project).read(project);
+    }
+
+    /**
+     * Retrieves the {@link ManipulationModel} module corresponding to the given project. If a valid
+     * {@link ManipulationSidecar} exists (and the full model has not been read already) only that module is read from
+     * it ; such a module does not contain its children. Otherwise, this is equivalent to finding the corresponding
+     * child of {@link #readManipulationModel(Project)}.
+     *
+     * @param project the {@link Project} reference.
+     * @return the corresponding module
+     */
+    public static ManipulationModel readCorrespondingModule(Project project) {
+        return getCache(project).readModule(project);
+    }
+
+    /**
+     * Retrieves the cache given any project. It will access the root project, check if the
+     * cache exists and create it if required.
+     *
+     * @param project the {@link Project} reference.
+     * @return the ManipulationModelCache object.
+     */
+    static ManipulationModelCache getCache(Project project) {
+        ExtraPropertiesExtension extra = project.getRootProject().getExtensions().getExtraProperties();
+
+        synchronized (ManipulationModelCache.class) {
+            if (!extra.has(NAME_PREFIX)) {
+                extra.set(NAME_PREFIX, new ManipulationModelCache());
+            }
+            return (ManipulationModelCache) extra.get(NAME_PREFIX);
+        }
+    }
+
+    private synchronized ManipulationModel read(Project project) {
+        final File rootDir = project.getRootDir();
+
+        refresh(rootDir);
+        if (model == null) {
+            logger.debug("Reading {}", file);
+            model = ManipulationIO.readManipulationModel(rootDir);
+            GAVPool.getPool(project).intern(model);
+            reads++;
+        }
+        return model;
+    }
+
+    private synchronized ManipulationModel readModule(Project project) {
+        final String path = project.getPath();
+
+        refresh(project.getRootDir());
+        if (model == null) {
+            if (!sidecarChecked) {
+                sidecar = ManipulationSidecar.open(project.getRootDir());
+                sidecarChecked = true;
+            }
+            if (sidecar != null) {
+                ManipulationModel module = modules.get(path);
+                if (module == null && (module = sidecar.readModule(path)) != null) {
+                    GAVPool.getPool(project).intern(module);
+                    modules.put(path, module);
+                }
+                if (module != null) {
+                    return module;
+                }
+            }
+        }
+        return read(project).findCorrespondingChild(path);
+    }
+
+    /**
+     * Discards the cached model and sidecar if the file has changed since they were read.
+     */
+    private void refresh(File rootDir) {
+        final File current = new File(rootDir, ManipulationIO.MANIPULATION_FILE_NAME);
+        final long currentLastModified = current.lastModified();
+        final long currentLength = current.length();
+
+        if (!current.equals(file) || currentLastModified != lastModified || currentLength != length) {
+            if (file != null) {
+                logger.debug("Cached model of {} is stale", current);
+            }
+            model = null;
+            sidecar = null;
+            sidecarChecked = false;
+            modules.clear();
+            file = current;
+            lastModified = currentLastModified;
+            length = currentLength;
+        }
+    }
+}
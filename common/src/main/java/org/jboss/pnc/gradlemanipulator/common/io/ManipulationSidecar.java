@@ -0,0 +1,233 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import org.apache.commons.lang3.tuple.Pair;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.gradle.api.logging.Logger;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.gradlemanipulator.common.utils.FileUtils;
+
+/**
+ * An optional compact binary copy of {@link ManipulationIO#MANIPULATION_FILE_NAME} which allows a single module to be
+ * read without parsing the entire model. The JSON file remains the source of truth ; the sidecar records the length
+ * and CRC32 checksum of the JSON it was written with and is ignored if those no longer match.
+ * <p>
+ * The sidecar is memory mapped. It consists of a header, an index of the offset of each module's record keyed by the
+ * project path and then the records themselves. A record holds the fields and aligned dependencies of a single module
+ * (but not its children) so a module read from the sidecar has no children. All values are big endian and strings are
+ * written as their UTF-8 length (or -1 for null) followed by their bytes.
+ *
+ * <pre>
+ * header  : magic (int), format version (int), JSON length (long), JSON CRC32 (long), module count (int)
+ * index   : for each module, path (string) and offset relative to the first record (int)
+ * records : for each module, group, name, projectPathName, version and originalVersion (strings), aligned dependency
+ *           count (int) and for each, the key, group, artifact and version (strings)
+ * </pre>
+ */
+public final class ManipulationSidecar {
+
+    public static final String SIDECAR_FILE_NAME = "manipulation.bin";
+
+    private static final int MAGIC = 0x474d4542;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Logger logger = GMLogger.getLogger(ManipulationSidecar.class);
+
+    private final ByteBuffer buffer;
+
+    private final Map<String, Integer> index;
+
+    private ManipulationSidecar(ByteBuffer buffer, Map<String, Integer> index) {
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    /**
+     * Writes the sidecar for the given model.
+     *
+     * @param rootDir the root directory
+     * @param model the root model
+     * @param jsonLength the length of the {@link ManipulationIO#MANIPULATION_FILE_NAME} the model was written to
+     * @param jsonChecksum the CRC32 checksum of the {@link ManipulationIO#MANIPULATION_FILE_NAME}
+     * @throws IOException if an error occurs
+     */
+    static void write(File rootDir, ManipulationModel model, long jsonLength, long jsonChecksum) throws IOException {
+        final List<Pair<String, ManipulationModel>> modules = new ArrayList<>();
+        collect(":", model, modules);
+
+        final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        final DataOutputStream recordsOutput = new DataOutputStream(records);
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(result);
+
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeLong(jsonLength);
+        output.writeLong(jsonChecksum);
+        output.writeInt(modules.size());
+
+        for (Pair<String, ManipulationModel> module : modules) {
+            final ManipulationModel m = module.getRight();
+
+            writeString(output, module.getLeft());
+            output.writeInt(recordsOutput.size());
+
+            writeString(recordsOutput, m.getGroup());
+            writeString(recordsOutput, m.getName());
+            writeString(recordsOutput, m.getProjectPathName());
+            writeString(recordsOutput, m.getVersion());
+            writeString(recordsOutput, m.getOriginalVersion());
+            recordsOutput.writeInt(m.getAlignedDependencies().size());
+            for (Map.Entry<String, ProjectVersionRef> aligned : m.getAlignedDependencies().entrySet()) {
+                writeString(recordsOutput, aligned.getKey());
+                writeString(recordsOutput, aligned.getValue().getGroupId());
+                writeString(recordsOutput, aligned.getValue().getArtifactId());
+                writeString(recordsOutput, aligned.getValue().getVersionString());
+            }
+        }
+        recordsOutput.flush();
+        records.writeTo(output);
+        output.flush();
+
+        FileUtils.writeAtomically(new File(rootDir, SIDECAR_FILE_NAME), result.toByteArray());
+    }
+
+    /**
+     * Opens the sidecar if it exists and was written with the current {@link ManipulationIO#MANIPULATION_FILE_NAME}.
+     *
+     * @param rootDir the root directory
+     * @return the sidecar or null if it does not exist or is stale or invalid
+     */
+    public static ManipulationSidecar open(File rootDir) {
+        final File sidecar = new File(rootDir, SIDECAR_FILE_NAME);
+        final File json = new File(rootDir, ManipulationIO.MANIPULATION_FILE_NAME);
+
+        if (!sidecar.isFile() || !json.isFile()) {
+            return null;
+        }
+        try {
+            final ByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(sidecar.toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                logger.info("Ignoring {} with an unknown format", sidecar);
+                return null;
+            }
+            final long length = buffer.getLong();
+            final long checksum = buffer.getLong();
+            if (length != json.length() || checksum != checksum(json)) {
+                logger.info("Ignoring {} as it is stale", sidecar);
+                return null;
+            }
+            final int count = buffer.getInt();
+            final Map<String, Integer> offsets = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                final String path = readString(buffer);
+                offsets.put(path, buffer.getInt());
+            }
+            final int recordsStart = buffer.position();
+            offsets.replaceAll((path, offset) -> recordsStart + offset);
+
+            logger.debug("Using {} with {} modules", sidecar, count);
+            return new ManipulationSidecar(buffer, offsets);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.info("Ignoring invalid {}: {}", sidecar, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a single module. The returned module does not contain its children.
+     *
+     * @param path the project path of the module (e.g. {@code :} for the root project or {@code :a:b})
+     * @return the module or null if it is not in the sidecar
+     */
+    public synchronized ManipulationModel readModule(String path) {
+        final Integer offset = index.get(path);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            buffer.position(offset);
+
+            final String group = readString(buffer);
+            final String name = readString(buffer);
+            final ManipulationModel result = ManipulationModel.Builder.build(readString(buffer), name, group);
+            result.setVersion(readString(buffer));
+            result.setOriginalVersion(readString(buffer));
+
+            final int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                final String key = readString(buffer);
+                result.getAlignedDependencies()
+                        .put(key, withGAV(readString(buffer), readString(buffer), readString(buffer)));
+            }
+            return result;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            logger.info("Unable to read module {} from {}: {}", path, SIDECAR_FILE_NAME, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Collects the modules in pre-order keyed by the project path built from the names of their children.
+     */
+    private static void collect(String path, ManipulationModel model, List<Pair<String, ManipulationModel>> result) {
+        result.add(Pair.of(path, model));
+        for (Map.Entry<String, ManipulationModel> child : model.getChildren().entrySet()) {
+            collect((":".equals(path) ? "" : path) + ':' + child.getKey(), child.getValue(), result);
+        }
+    }
+
+    private static long checksum(File file) throws IOException {
+        try (CheckedInputStream input = new CheckedInputStream(Files.newInputStream(file.toPath()), new CRC32())) {
+            final byte[] buffer = new byte[8192];
+            while (input.read(buffer) != -1) {
+                // Only the checksum is required.
+            }
+            return input.getChecksum().getValue();
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        } else if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,243 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.gradle.api.logging.Logger;
+import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.gradlemanipulator.common.utils.FileUtils;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+import org.jboss.pnc.mavenmanipulator.io.rest.Translator;
+
+/**
+ * A {@link Translator} which answers the lookups from a snapshot of the results of a previous run rather than the
+ * Dependency Analyzer, e.g. for air-gapped rebuilds or to check that a build is reproducible. GAVs that are not in
+ * the snapshot have no aligned version.
+ * <p>
+ * The snapshot is memory mapped and holds a separate table for the dependency and project version lookups. Each
+ * table is an index of the offsets of its records sorted by key (the UTF-8 bytes of {@code group:artifact:version}
+ * compared as unsigned bytes) so that a lookup is a binary search of the mapped file. Nothing is copied to the heap on
+ * opening so even large snapshots are available immediately. All values are big endian.
+ *
+ * <pre>
+ * header  : magic (int), format version (int), dependency count (int), project count (int)
+ * index   : for each dependency and then each project, the offset of its record from the start of the file (int)
+ * records : for each, the key and the aligned version as their UTF-8 length (int) followed by their bytes
+ * </pre>
+ */
+public final class OfflineTranslator implements Translator {
+
+    private static final int MAGIC = 0x474d4553;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final Logger logger = GMLogger.getLogger(OfflineTranslator.class);
+
+    /**
+     * The snapshot the lookups are answered from.
+     *
+     * @return the snapshot file
+     */
+    @Getter
+    private final File file;
+
+    private final ByteBuffer buffer;
+
+    private final int dependencies;
+
+    private final int projects;
+
+    private OfflineTranslator(File file, ByteBuffer buffer, int dependencies, int projects) {
+        this.file = file;
+        this.buffer = buffer;
+        this.dependencies = dependencies;
+        this.projects = projects;
+    }
+
+    /**
+     * Opens the snapshot.
+     *
+     * @param file the snapshot file
+     * @return the translator
+     * @throws ManipulationUncheckedException if the snapshot does not exist or is invalid
+     */
+    public static OfflineTranslator open(File file) {
+        if (!file.isFile()) {
+            throw new ManipulationUncheckedException("Offline snapshot {} does not exist", file);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new ManipulationUncheckedException("Offline snapshot {} has an unknown format", file);
+            }
+            final int dependencies = buffer.getInt(8);
+            final int projects = buffer.getInt(12);
+            if (dependencies < 0 || projects < 0
+                    || HEADER_SIZE + 4L * ((long) dependencies + projects) > buffer.limit()) {
+                throw new ManipulationUncheckedException("Offline snapshot {} is truncated", file);
+            }
+            logger.info(
+                    "Using offline snapshot {} with {} dependencies and {} projects",
+                    file,
+                    dependencies,
+                    projects);
+            return new OfflineTranslator(file, buffer, dependencies, projects);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read offline snapshot {}", file, e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given lookup results.
+     *
+     * @param file the snapshot file
+     * @param dependencies the aligned versions of the dependencies
+     * @param projects the aligned versions of the projects
+     * @throws IOException if an error occurs
+     */
+    public static void write(
+            File file,
+            Map<ProjectVersionRef, String> dependencies,
+            Map<ProjectVersionRef, String> projects) throws IOException {
+        final List<byte[][]> dependencyRecords = toRecords(dependencies);
+        final List<byte[][]> projectRecords = toRecords(projects);
+
+        FileUtils.writeAtomically(file, out -> {
+            final DataOutputStream output = new DataOutputStream(out);
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(dependencyRecords.size());
+            output.writeInt(projectRecords.size());
+
+            int offset = HEADER_SIZE + 4 * (dependencyRecords.size() + projectRecords.size());
+            for (List<byte[][]> records : Arrays.asList(dependencyRecords, projectRecords)) {
+                for (byte[][] record : records) {
+                    output.writeInt(offset);
+                    offset += 8 + record[0].length + record[1].length;
+                }
+            }
+            for (List<byte[][]> records : Arrays.asList(dependencyRecords, projectRecords)) {
+                for (byte[][] record : records) {
+                    output.writeInt(record[0].length);
+                    output.write(record[0]);
+                    output.writeInt(record[1].length);
+                    output.write(record[1]);
+                }
+            }
+            output.flush();
+        });
+        logger.info(
+                "Wrote offline snapshot {} with {} dependencies and {} projects",
+                file,
+                dependencyRecords.size(),
+                projectRecords.size());
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupVersions(List<ProjectVersionRef> gavs) {
+        return lookup(HEADER_SIZE, dependencies, gavs);
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupProjectVersions(List<ProjectVersionRef> gavs) {
+        return lookup(HEADER_SIZE + 4 * dependencies, projects, gavs);
+    }
+
+    private Map<ProjectVersionRef, String> lookup(int index, int count, List<ProjectVersionRef> gavs) {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+
+        for (ProjectVersionRef gav : gavs) {
+            final String version = find(index, count, key(gav));
+            if (version != null) {
+                result.put(gav, version);
+            }
+        }
+        logger.debug("Found {} of {} GAVs in offline snapshot {}", result.size(), gavs.size(), file);
+        return result;
+    }
+
+    /**
+     * Binary searches the table. Only absolute reads of the buffer are used so this is safe to call concurrently.
+     */
+    private String find(int index, int count, byte[] key) {
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int offset = buffer.getInt(index + 4 * mid);
+            final int cmp = compare(offset, key);
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                final int valueOffset = offset + 4 + key.length;
+                final byte[] value = new byte[buffer.getInt(valueOffset)];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = buffer.get(valueOffset + 4 + i);
+                }
+                return new String(value, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares the key of the record at the given offset with the key.
+     */
+    private int compare(int offset, byte[] key) {
+        final int length = buffer.getInt(offset);
+        final int common = Math.min(length, key.length);
+
+        for (int i = 0; i < common; i++) {
+            final int cmp = (buffer.get(offset + 4 + i) & 0xff) - (key[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private static List<byte[][]> toRecords(Map<ProjectVersionRef, String> versions) {
+        final List<byte[][]> result = new ArrayList<>(versions.size());
+
+        versions.forEach(
+                (gav, version) -> result.add(
+                        new byte[][] { key(gav), version.getBytes(StandardCharsets.UTF_8) }));
+        result.sort((a, b) -> compare(a[0], b[0]));
+        return result;
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        final int common = Math.min(a.length, b.length);
+
+        for (int i = 0; i < common; i++) {
+            final int cmp = (a[i] & 0xff) - (b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static byte[] key(ProjectVersionRef gav) {
+        return (gav.getGroupId() + ':' + gav.getArtifactId() + ':' + gav.getVersionString())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
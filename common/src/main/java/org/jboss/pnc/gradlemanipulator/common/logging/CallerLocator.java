@@ -0,0 +1,100 @@
+package org.jboss.pnc.gradlemanipulator.common.logging;
+
+import java.lang.reflect.Method;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+
+/**
+ * Resolves the source file and line number of the code that invoked a {@link GMLogger} method.
+ * <p>
+ * On JDK 9 and above the {@code StackWalker} API is used so that only the frames up to the caller are
+ * materialised. As this module targets Java 8 it is accessed reflectively, falling back to a full
+ * {@link Throwable} stack trace when it is not available.
+ */
+final class CallerLocator {
+
+    private static final Object WALKER;
+
+    private static final Method WALK;
+
+    private static final Method GET_CLASS_NAME;
+
+    private static final Method GET_FILE_NAME;
+
+    private static final Method GET_LINE_NUMBER;
+
+    private static final Function<Stream<?>, Object> CALLER_FRAME = s -> s
+            .filter(f -> !isLoggingFrame(invoke(GET_CLASS_NAME, f)))
+            .findFirst()
+            .orElse(null);
+
+    static {
+        Object walker = null;
+        Method walk = null;
+        Method getClassName = null;
+        Method getFileName = null;
+        Method getLineNumber = null;
+
+        try {
+            Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+
+            walker = walkerClass.getMethod("getInstance").invoke(null);
+            walk = walkerClass.getMethod("walk", Function.class);
+            getClassName = frameClass.getMethod("getClassName");
+            getFileName = frameClass.getMethod("getFileName");
+            getLineNumber = frameClass.getMethod("getLineNumber");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Running on JDK 8 ; use the Throwable fallback.
+            walker = null;
+        }
+
+        WALKER = walker;
+        WALK = walk;
+        GET_CLASS_NAME = getClassName;
+        GET_FILE_NAME = getFileName;
+        GET_LINE_NUMBER = getLineNumber;
+    }
+
+    private CallerLocator() {
+    }
+
+    /**
+     * Appends {@code fileName:lineNumber} of the first frame outside of the logging classes.
+     *
+     * @param sb the builder to append to
+     */
+    static void appendCaller(StringBuilder sb) {
+        if (WALKER != null) {
+            Object frame = invoke(WALK, WALKER, CALLER_FRAME);
+            if (frame != null) {
+                sb.append(invoke(GET_FILE_NAME, frame));
+                sb.append(':');
+                sb.append(invoke(GET_LINE_NUMBER, frame));
+                return;
+            }
+        }
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!isLoggingFrame(element.getClassName())) {
+                sb.append(element.getFileName());
+                sb.append(':');
+                sb.append(element.getLineNumber());
+                return;
+            }
+        }
+        sb.append("Unknown");
+    }
+
+    private static boolean isLoggingFrame(Object className) {
+        return GMLogger.class.getName().equals(className) || CallerLocator.class.getName().equals(className);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            throw new ManipulationUncheckedException("Internal logging failure ; unable to walk stack", e);
+        }
+    }
+}
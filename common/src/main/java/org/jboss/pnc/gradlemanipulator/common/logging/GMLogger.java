@@ -1,12 +1,10 @@
 package org.jboss.pnc.gradlemanipulator.common.logging;
 
-import java.util.Arrays;
 import org.aeonbits.owner.ConfigCache;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.jboss.pnc.gradlemanipulator.common.Configuration;
-import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
 import org.slf4j.Marker;
 
 @SuppressWarnings("unused")
@@ -49,28 +47,22 @@ public class GMLogger implements Logger {
     }
 
     // TODO: Change this to a formatting method that allows full stacktrace formatting, MDC etc.
-    private String injectLoggerFormatting(String msg) {
+    // Callers must have already established the delegate level is enabled ; this keeps disabled log
+    // statements free of any stack inspection or string building.
+    private String injectLoggerFormatting(String loggingLevel, String msg) {
 
-        StringBuilder sb = new StringBuilder();
+        boolean addColours = configuration.addLoggingColours();
+        boolean highlight = addColours && (loggingLevel.equals("WARN") || loggingLevel.equals("ERROR"));
 
-        // Using a SecurityManager would be faster but we want the line number. And the StackWalker API
-        // is JDK9 and above.
-        StackTraceElement[] result = Thread.currentThread().getStackTrace();
-        // 0 is this getStackTrace call.
-        // 1 is this method
-        // 2 is the logging method
-        // 3 is the target we want.
-        // And therefore we need to ensure we have at least 3 frames to examine.
-        if (result.length < 4) {
-            throw new ManipulationUncheckedException(
-                    "Internal logging failure ; not enough stacktrace elements {}",
-                    Arrays.toString(result));
+        if (!configuration.addLoggingClassnameLinenumber() && !highlight) {
+            return msg;
         }
-        String loggingLevel = result[2].getMethodName().toUpperCase();
+
+        StringBuilder sb = new StringBuilder();
 
         if (configuration.addLoggingClassnameLinenumber()) {
 
-            if (configuration.addLoggingColours()) {
+            if (addColours) {
                 sb.append(ANSI_DARK_GRAY);
             }
             if (configuration.addLoggingLevel()) {
@@ -79,27 +71,18 @@ public class GMLogger implements Logger {
                 sb.append(']');
             }
             sb.append('[');
-            sb.append(result[3].getFileName());
-            sb.append(':');
-            sb.append(result[3].getLineNumber());
+            CallerLocator.appendCaller(sb);
             sb.append("] ");
-            if (configuration.addLoggingColours()) {
+            if (addColours) {
                 sb.append(ANSI_RESET);
             }
         }
         // Currently only colouring warning or error messages for ease of spotting.
-        if (configuration.addLoggingColours()) {
-            switch (loggingLevel) {
-                case "WARN":
-                    sb.append(ANSI_PURPLE);
-                    break;
-                case "ERROR":
-                    sb.append(ANSI_RED);
-                    break;
-            }
+        if (highlight) {
+            sb.append(loggingLevel.equals("WARN") ? ANSI_PURPLE : ANSI_RED);
         }
         sb.append(msg);
-        if (configuration.addLoggingColours() && (loggingLevel.equals("WARN") || loggingLevel.equals("ERROR"))) {
+        if (highlight) {
             sb.append(ANSI_RESET);
         }
 
@@ -122,7 +105,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(String message, Object... objects) {
-        delegate.info(injectLoggerFormatting(message), objects);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(injectLoggerFormatting("DEBUG", message), objects);
+        }
     }
 
     /**
@@ -143,7 +128,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void lifecycle(String message, Object... objects) {
-        delegate.lifecycle(injectLoggerFormatting(message), objects);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("LIFECYCLE", message), objects);
+        }
     }
 
     /**
@@ -154,7 +141,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void lifecycle(String message, Throwable throwable) {
-        delegate.lifecycle(injectLoggerFormatting(message), throwable);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("LIFECYCLE", message), throwable);
+        }
     }
 
     /**
@@ -183,7 +172,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void quiet(String message, Object... objects) {
-        delegate.quiet(injectLoggerFormatting(message), objects);
+        if (delegate.isQuietEnabled()) {
+            delegate.quiet(injectLoggerFormatting("QUIET", message), objects);
+        }
     }
 
     /**
@@ -194,7 +185,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(String message, Object... objects) {
-        delegate.lifecycle(injectLoggerFormatting(message), objects);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", message), objects);
+        }
     }
 
     /**
@@ -205,7 +198,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void quiet(String message, Throwable throwable) {
-        delegate.quiet(injectLoggerFormatting(message), throwable);
+        if (delegate.isQuietEnabled()) {
+            delegate.quiet(injectLoggerFormatting("QUIET", message), throwable);
+        }
     }
 
     /**
@@ -283,7 +278,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(String msg) {
-        delegate.debug(injectLoggerFormatting(msg));
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(injectLoggerFormatting("TRACE", msg));
+        }
     }
 
     /**
@@ -299,7 +296,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(String format, Object arg) {
-        delegate.debug(injectLoggerFormatting(format), arg);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(injectLoggerFormatting("TRACE", format), arg);
+        }
     }
 
     /**
@@ -316,7 +315,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(String format, Object arg1, Object arg2) {
-        delegate.debug(injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(injectLoggerFormatting("TRACE", format), arg1, arg2);
+        }
     }
 
     /**
@@ -335,7 +336,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(String format, Object... arguments) {
-        delegate.debug(injectLoggerFormatting(format), arguments);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(injectLoggerFormatting("TRACE", format), arguments);
+        }
     }
 
     /**
@@ -348,7 +351,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(String msg, Throwable t) {
-        delegate.debug(injectLoggerFormatting(msg), t);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(injectLoggerFormatting("TRACE", msg), t);
+        }
     }
 
     /**
@@ -389,7 +394,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(Marker marker, String format, Object arg) {
-        delegate.debug(marker, injectLoggerFormatting(format), arg);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(marker, injectLoggerFormatting("TRACE", format), arg);
+        }
     }
 
     /**
@@ -405,7 +412,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(Marker marker, String format, Object arg1, Object arg2) {
-        delegate.debug(marker, injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(marker, injectLoggerFormatting("TRACE", format), arg1, arg2);
+        }
     }
 
     /**
@@ -420,7 +429,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(Marker marker, String format, Object... argArray) {
-        delegate.debug(marker, injectLoggerFormatting(format), argArray);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(marker, injectLoggerFormatting("TRACE", format), argArray);
+        }
     }
 
     /**
@@ -434,7 +445,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void trace(Marker marker, String msg, Throwable t) {
-        delegate.debug(marker, injectLoggerFormatting(msg), t);
+        if (delegate.isDebugEnabled()) {
+            delegate.debug(marker, injectLoggerFormatting("TRACE", msg), t);
+        }
     }
 
     /**
@@ -455,7 +468,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(String msg) {
-        delegate.info(injectLoggerFormatting(msg));
+        if (delegate.isInfoEnabled()) {
+            delegate.info(injectLoggerFormatting("DEBUG", msg));
+        }
     }
 
     /**
@@ -470,7 +485,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(String format, Object arg) {
-        delegate.info(injectLoggerFormatting(format), arg);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(injectLoggerFormatting("DEBUG", format), arg);
+        }
     }
 
     /**
@@ -486,7 +503,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(String format, Object arg1, Object arg2) {
-        delegate.info(injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(injectLoggerFormatting("DEBUG", format), arg1, arg2);
+        }
     }
 
     /**
@@ -498,7 +517,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(String msg, Throwable t) {
-        delegate.info(injectLoggerFormatting(msg), t);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(injectLoggerFormatting("DEBUG", msg), t);
+        }
     }
 
     /**
@@ -522,7 +543,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(Marker marker, String msg) {
-        delegate.info(marker, injectLoggerFormatting(msg));
+        if (delegate.isInfoEnabled()) {
+            delegate.info(marker, injectLoggerFormatting("DEBUG", msg));
+        }
     }
 
     /**
@@ -535,7 +558,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(Marker marker, String format, Object arg) {
-        delegate.info(marker, injectLoggerFormatting(format), arg);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(marker, injectLoggerFormatting("DEBUG", format), arg);
+        }
     }
 
     /**
@@ -550,7 +575,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(Marker marker, String format, Object arg1, Object arg2) {
-        delegate.info(marker, injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(marker, injectLoggerFormatting("DEBUG", format), arg1, arg2);
+        }
     }
 
     /**
@@ -564,7 +591,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(Marker marker, String format, Object... arguments) {
-        delegate.info(marker, injectLoggerFormatting(format), arguments);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(marker, injectLoggerFormatting("DEBUG", format), arguments);
+        }
     }
 
     /**
@@ -577,7 +606,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void debug(Marker marker, String msg, Throwable t) {
-        delegate.info(marker, injectLoggerFormatting(msg), t);
+        if (delegate.isInfoEnabled()) {
+            delegate.info(marker, injectLoggerFormatting("DEBUG", msg), t);
+        }
     }
 
     /**
@@ -598,7 +629,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(String msg) {
-        delegate.lifecycle(injectLoggerFormatting(msg));
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", msg));
+        }
     }
 
     /**
@@ -613,7 +646,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(String format, Object arg) {
-        delegate.lifecycle(injectLoggerFormatting(format), arg);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", format), arg);
+        }
     }
 
     /**
@@ -629,7 +664,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        delegate.lifecycle(injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", format), arg1, arg2);
+        }
     }
 
     /**
@@ -641,7 +678,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(String msg, Throwable t) {
-        delegate.lifecycle(injectLoggerFormatting(msg), t);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", msg), t);
+        }
     }
 
     /**
@@ -664,7 +703,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(Marker marker, String msg) {
-        delegate.lifecycle(injectLoggerFormatting(msg));
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", msg));
+        }
     }
 
     /**
@@ -677,7 +718,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(Marker marker, String format, Object arg) {
-        delegate.lifecycle(injectLoggerFormatting(format), arg);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", format), arg);
+        }
     }
 
     /**
@@ -692,7 +735,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(Marker marker, String format, Object arg1, Object arg2) {
-        delegate.lifecycle(injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", format), arg1, arg2);
+        }
     }
 
     /**
@@ -706,7 +751,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(Marker marker, String format, Object... arguments) {
-        delegate.lifecycle(injectLoggerFormatting(format), arguments);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", format), arguments);
+        }
     }
 
     /**
@@ -719,7 +766,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void info(Marker marker, String msg, Throwable t) {
-        delegate.lifecycle(injectLoggerFormatting(msg), t);
+        if (delegate.isLifecycleEnabled()) {
+            delegate.lifecycle(injectLoggerFormatting("INFO", msg), t);
+        }
     }
 
     /**
@@ -740,7 +789,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(String msg) {
-        delegate.warn(injectLoggerFormatting(msg));
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(injectLoggerFormatting("WARN", msg));
+        }
     }
 
     /**
@@ -755,7 +806,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(String format, Object arg) {
-        delegate.warn(injectLoggerFormatting(format), arg);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(injectLoggerFormatting("WARN", format), arg);
+        }
     }
 
     /**
@@ -774,7 +827,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(String format, Object... arguments) {
-        delegate.warn(injectLoggerFormatting(format), arguments);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(injectLoggerFormatting("WARN", format), arguments);
+        }
     }
 
     /**
@@ -790,7 +845,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        delegate.warn(injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(injectLoggerFormatting("WARN", format), arg1, arg2);
+        }
     }
 
     /**
@@ -802,7 +859,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(String msg, Throwable t) {
-        delegate.warn(injectLoggerFormatting(msg), t);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(injectLoggerFormatting("WARN", msg), t);
+        }
     }
 
     /**
@@ -826,7 +885,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(Marker marker, String msg) {
-        delegate.warn(marker, injectLoggerFormatting(msg));
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(marker, injectLoggerFormatting("WARN", msg));
+        }
     }
 
     /**
@@ -839,7 +900,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(Marker marker, String format, Object arg) {
-        delegate.warn(marker, injectLoggerFormatting(format), arg);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(marker, injectLoggerFormatting("WARN", format), arg);
+        }
     }
 
     /**
@@ -854,7 +917,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(Marker marker, String format, Object arg1, Object arg2) {
-        delegate.warn(marker, injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(marker, injectLoggerFormatting("WARN", format), arg1, arg2);
+        }
     }
 
     /**
@@ -868,7 +933,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(Marker marker, String format, Object... arguments) {
-        delegate.warn(marker, injectLoggerFormatting(format), arguments);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(marker, injectLoggerFormatting("WARN", format), arguments);
+        }
     }
 
     /**
@@ -881,7 +948,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void warn(Marker marker, String msg, Throwable t) {
-        delegate.warn(marker, injectLoggerFormatting(msg), t);
+        if (delegate.isWarnEnabled()) {
+            delegate.warn(marker, injectLoggerFormatting("WARN", msg), t);
+        }
     }
 
     /**
@@ -902,7 +971,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(String msg) {
-        delegate.error(injectLoggerFormatting(msg));
+        if (delegate.isErrorEnabled()) {
+            delegate.error(injectLoggerFormatting("ERROR", msg));
+        }
     }
 
     /**
@@ -917,7 +988,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(String format, Object arg) {
-        delegate.error(injectLoggerFormatting(format), arg);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(injectLoggerFormatting("ERROR", format), arg);
+        }
     }
 
     /**
@@ -933,7 +1006,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        delegate.error(injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(injectLoggerFormatting("ERROR", format), arg1, arg2);
+        }
     }
 
     /**
@@ -952,7 +1027,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(String format, Object... arguments) {
-        delegate.error(injectLoggerFormatting(format), arguments);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(injectLoggerFormatting("ERROR", format), arguments);
+        }
     }
 
     /**
@@ -964,7 +1041,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(String msg, Throwable t) {
-        delegate.error(injectLoggerFormatting(msg), t);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(injectLoggerFormatting("ERROR", msg), t);
+        }
     }
 
     /**
@@ -988,7 +1067,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(Marker marker, String msg) {
-        delegate.error(marker, injectLoggerFormatting(msg));
+        if (delegate.isErrorEnabled()) {
+            delegate.error(marker, injectLoggerFormatting("ERROR", msg));
+        }
     }
 
     /**
@@ -1001,7 +1082,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(Marker marker, String format, Object arg) {
-        delegate.error(marker, injectLoggerFormatting(format), arg);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(marker, injectLoggerFormatting("ERROR", format), arg);
+        }
     }
 
     /**
@@ -1016,7 +1099,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(Marker marker, String format, Object arg1, Object arg2) {
-        delegate.error(marker, injectLoggerFormatting(format), arg1, arg2);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(marker, injectLoggerFormatting("ERROR", format), arg1, arg2);
+        }
     }
 
     /**
@@ -1030,7 +1115,9 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(Marker marker, String format, Object... arguments) {
-        delegate.error(marker, injectLoggerFormatting(format), arguments);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(marker, injectLoggerFormatting("ERROR", format), arguments);
+        }
     }
 
     /**
@@ -1044,6 +1131,8 @@ public class GMLogger implements Logger {
      */
     @Override
     public void error(Marker marker, String msg, Throwable t) {
-        delegate.error(marker, injectLoggerFormatting(msg), t);
+        if (delegate.isErrorEnabled()) {
+            delegate.error(marker, injectLoggerFormatting("ERROR", msg), t);
+        }
     }
 }
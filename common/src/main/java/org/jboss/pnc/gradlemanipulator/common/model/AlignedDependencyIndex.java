@@ -0,0 +1,110 @@
+package org.jboss.pnc.gradlemanipulator.common.model;
+
+import java.util.Map;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+
+/**
+ * An immutable index of the aligned dependencies of a {@link ManipulationModel} module keyed by the group, name and
+ * version components of the original dependency.
+ * <p>
+ * The aligned dependencies of a module are keyed by the string form of the original GAV, so looking one up requires
+ * a {@link ProjectVersionRef} to be created and rendered for every request. This index instead hashes and compares the
+ * components directly (using open addressing with linear probing) so that a lookup does not allocate. It is intended
+ * for the dependency resolution callbacks which are invoked for every dependency of every configuration.
+ * <p>
+ * Entries whose key is not a full GAV (i.e. does not contain a group, name and version) are not indexed.
+ */
+public final class AlignedDependencyIndex {
+
+    private final String[] groups;
+
+    private final String[] names;
+
+    private final String[] versions;
+
+    private final ProjectVersionRef[] aligned;
+
+    private final int mask;
+
+    private final int size;
+
+    /**
+     * Creates the index.
+     *
+     * @param alignedDependencies the aligned dependencies keyed by the original GAV
+     * @see ManipulationModel#getAlignedDependencies()
+     */
+    public AlignedDependencyIndex(Map<String, ProjectVersionRef> alignedDependencies) {
+        // Keep the load factor at or below a half so that probe sequences stay short.
+        int capacity = 2;
+        while (capacity < alignedDependencies.size() * 2) {
+            capacity <<= 1;
+        }
+        groups = new String[capacity];
+        names = new String[capacity];
+        versions = new String[capacity];
+        aligned = new ProjectVersionRef[capacity];
+        mask = capacity - 1;
+
+        int count = 0;
+        for (Map.Entry<String, ProjectVersionRef> entry : alignedDependencies.entrySet()) {
+            final String key = entry.getKey();
+            final int first = key.indexOf(':');
+            final int second = first < 0 ? -1 : key.indexOf(':', first + 1);
+
+            if (second < 0) {
+                continue;
+            }
+            final String group = key.substring(0, first);
+            final String name = key.substring(first + 1, second);
+            final String version = key.substring(second + 1);
+
+            int i = hash(group, name, version) & mask;
+            while (groups[i] != null) {
+                i = (i + 1) & mask;
+            }
+            groups[i] = group;
+            names[i] = name;
+            versions[i] = version;
+            aligned[i] = entry.getValue();
+            count++;
+        }
+        size = count;
+    }
+
+    /**
+     * Returns the aligned dependency for the given original dependency.
+     *
+     * @param group the group of the original dependency
+     * @param name the name of the original dependency
+     * @param version the version of the original dependency
+     * @return the aligned dependency or null if the dependency is not aligned
+     */
+    public ProjectVersionRef get(String group, String name, String version) {
+        if (group == null || name == null || version == null) {
+            return null;
+        }
+        int i = hash(group, name, version) & mask;
+        while (groups[i] != null) {
+            if (groups[i].equals(group) && names[i].equals(name) && versions[i].equals(version)) {
+                return aligned[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of indexed aligned dependencies.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int hash(String group, String name, String version) {
+        final int h = (group.hashCode() * 31 + name.hashCode()) * 31 + version.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -87,6 +87,19 @@ public class ManipulationModel {
     @JsonProperty
     protected Map<String, ManipulationModel> children = new HashMap<>(7);
 
+    /**
+     * All the descendants of this project keyed by their path relative to it, e.g. {@code :child1:child11}. This is
+     * built by the first lookup of a path and discarded when a child is added to this project or any descendant.
+     */
+    @JsonIgnore
+    private volatile Map<String, ManipulationModel> pathIndex;
+
+    /**
+     * The project this was added to (or indexed by) so that adding a child may discard the indexes of its ancestors.
+     */
+    @JsonIgnore
+    private volatile ManipulationModel parent;
+
     @Override
     public String toString() {
         return getGroup() + ':' + getName() + ':' + getVersion();
@@ -126,6 +139,10 @@ public class ManipulationModel {
 
     public void addChild(ManipulationModel child) {
         children.put(child.projectPathName, child);
+        child.parent = this;
+        for (ManipulationModel model = this; model != null; model = model.parent) {
+            model.pathIndex = null;
+        }
     }
 
     public ManipulationModel findCorrespondingChild(String path) {
@@ -152,6 +169,11 @@ public class ManipulationModel {
             if (path.equals(":")) {
                 return this;
             }
+            final ManipulationModel result = getPathIndex().get(path);
+            if (result != null) {
+                return result;
+            }
+            // Walk the path so that the first missing project is reported.
             final int index = path.indexOf(':', 1);
             if (index < 0) {
                 // we don't have other path separators so remove the leading : and get with name
@@ -165,6 +187,26 @@ public class ManipulationModel {
         }
     }
 
+    private Map<String, ManipulationModel> getPathIndex() {
+        Map<String, ManipulationModel> result = pathIndex;
+        if (result == null) {
+            result = new HashMap<>();
+            index(this, "", result);
+            pathIndex = result;
+        }
+        return result;
+    }
+
+    private static void index(ManipulationModel model, String path, Map<String, ManipulationModel> result) {
+        for (Map.Entry<String, ManipulationModel> child : model.children.entrySet()) {
+            final String childPath = path + ':' + child.getKey();
+            // Children read from JSON have not been added with addChild.
+            child.getValue().parent = model;
+            result.put(childPath, child.getValue());
+            index(child.getValue(), childPath, result);
+        }
+    }
+
     private ManipulationModel getChild(String path) {
         ManipulationModel result = children.get(path);
         getLogger().debug("Looking for {} in model (with children {}) and found {}", path, children.keySet(), result);
@@ -212,8 +254,15 @@ public class ManipulationModel {
      * access to the Gradle API.
      */
     public static class Builder {
-        // Test use only ; avoids having to create a Project to test this class.
-        static ManipulationModel build(String projectPathName, String name, String group) {
+        /**
+         * Creates a model without a Project. Used by tests and to create the modules read from the binary sidecar.
+         *
+         * @param projectPathName the folder name
+         * @param name the project name
+         * @param group the project group
+         * @return the model
+         */
+        public static ManipulationModel build(String projectPathName, String name, String group) {
             ManipulationModel result = new ManipulationModel();
             result.name = name;
             result.projectPathName = projectPathName;
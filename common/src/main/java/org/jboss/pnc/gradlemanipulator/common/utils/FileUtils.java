@@ -2,10 +2,18 @@ package org.jboss.pnc.gradlemanipulator.common.utils;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import lombok.experimental.UtilityClass;
 import org.apache.commons.io.input.ReversedLinesFileReader;
@@ -15,6 +23,8 @@ import org.slf4j.helpers.MessageFormatter;
 @UtilityClass
 public class FileUtils {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     /**
      * Returns the first non blank line working from the end of the file.
      *
@@ -77,4 +87,97 @@ public class FileUtils {
         builder.append(MessageFormatter.arrayFormat(message, args).getMessage());
         builder.append(System.lineSeparator());
     }
+
+    /**
+     * Writes the content to a temporary file alongside the target, forces it to disk and then atomically renames
+     * it over the target, forcing the rename to disk where supported. A reader (or a crash part way through)
+     * therefore never observes a partially written or missing file.
+     * The permissions of an existing target are retained.
+     *
+     * @param target the file to write
+     * @param content the content to write
+     * @param charset the charset to encode the content with
+     * @throws IOException if an error occurs
+     */
+    public static void writeAtomically(File target, String content, Charset charset) throws IOException {
+        writeAtomically(target, content.getBytes(charset));
+    }
+
+    /**
+     * Writes the content to a temporary file alongside the target, forces it to disk and then atomically renames
+     * it over the target.
+     *
+     * @param target the file to write
+     * @param content the content to write
+     * @throws IOException if an error occurs
+     * @see #writeAtomically(File, String, Charset)
+     */
+    public static void writeAtomically(File target, byte[] content) throws IOException {
+        writeAtomically(target, output -> output.write(content));
+    }
+
+    /**
+     * Streams the content to a temporary file alongside the target, forces it to disk and then atomically renames
+     * it over the target. The content does not need to be held in memory ; the writer must not close the stream.
+     *
+     * @param target the file to write
+     * @param writer writes the content to the buffered stream
+     * @throws IOException if an error occurs
+     * @see #writeAtomically(File, String, Charset)
+     */
+    public static void writeAtomically(File target, ContentWriter writer) throws IOException {
+        final Path path = target.toPath().toAbsolutePath();
+        final Path temp = path.resolveSibling("." + path.getFileName() + "." + System.nanoTime() + ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel
+                    .open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                final OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                writer.write(output);
+                output.flush();
+                channel.force(true);
+            }
+            if (Files.exists(path)) {
+                try {
+                    Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(path));
+                } catch (UnsupportedOperationException e) {
+                    // Not a POSIX file system.
+                }
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(path.getParent());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Forces the directory entries (i.e. a rename) to disk. Not every platform supports opening a directory, in which
+     * case this does nothing.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Unsupported (e.g. on Windows).
+        }
+    }
+
+    /**
+     * Writes content to a stream.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * Writes the content.
+         *
+         * @param output the stream to write to
+         * @throws IOException if an error occurs
+         */
+        void write(OutputStream output) throws IOException;
+    }
 }
@@ -11,11 +11,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import lombok.experimental.UtilityClass;
+import org.apache.commons.lang3.tuple.Pair;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.gradle.api.Project;
 import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.ManipulationCache;
 import org.jboss.pnc.gradlemanipulator.common.groovy.BaseScript;
+import org.jboss.pnc.gradlemanipulator.common.groovy.GroovyScriptCache;
 import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
@@ -46,23 +51,29 @@ public class GroovyUtils {
             Project rootProject,
             ManipulationModel alignmentModel) throws ManipulationException {
 
-        final List<File> groovyFiles = new ArrayList<>();
+        final List<Pair<File, GroovyScriptCache.Entry>> groovyFiles = new ArrayList<>();
         final String[] scripts = configuration.groovyScripts();
-        final File tmpDir;
+        final GroovyScriptCache cache = scripts == null ? null
+                : GroovyScriptCache.create(
+                        logger,
+                        configuration,
+                        rootProject == null ? null : rootProject.getGradle().getGradleUserHomeDir());
 
         if (scripts != null) {
-            try {
-                tmpDir = Files.createTempDirectory("gme-" + UUID.randomUUID()).toFile();
-                tmpDir.deleteOnExit();
-            } catch (IOException e) {
-                throw new ManipulationUncheckedException("Unable to create temporary directory", e);
-            }
-            FileIO fileIO = new FileIO(tmpDir);
+            FileIO fileIO = null;
 
             for (String script : scripts) {
                 logger.info("Attempting to read URL {}", script);
                 try {
-                    groovyFiles.add(fileIO.resolveURL(script));
+                    final GroovyScriptCache.Entry entry = cache == null ? null : cache.resolve(script);
+                    if (entry != null) {
+                        groovyFiles.add(Pair.of(entry.getSource(), entry));
+                    } else {
+                        if (fileIO == null) {
+                            fileIO = new FileIO(createTempDirectory());
+                        }
+                        groovyFiles.add(Pair.of(fileIO.resolveURL(script), null));
+                    }
                 } catch (IOException e) {
                     logger.error("Ignoring script {} as unable to locate it.", script);
                     logger.debug("Problem with script URL is", e);
@@ -70,7 +81,19 @@ public class GroovyUtils {
             }
         }
 
-        for (File scriptFile : groovyFiles) {
+        for (Pair<File, GroovyScriptCache.Entry> groovyFile : groovyFiles) {
+            final File scriptFile = groovyFile.getLeft();
+            final GroovyScriptCache.Entry entry = groovyFile.getRight();
+
+            if (entry != null && entry.getInvocationStage() != null
+                    && !isInvoked(targetStage, entry.getInvocationStage())) {
+                logger.debug(
+                        "Ignoring script {} as cached invocation point {} does not match.",
+                        scriptFile,
+                        entry.getInvocationStage());
+                continue;
+            }
+            final long start = System.nanoTime();
             final Binding binding = new Binding();
             final CompilerConfiguration config = new CompilerConfiguration();
             if (targetStage == InvocationStage.LAST) {
@@ -88,34 +111,30 @@ public class GroovyUtils {
             }
             // We use the current class' classloader so the script has access to this plugin's API and the
             // groovy API.
-            final GroovyShell groovyShell = new GroovyShell(logger.getClass().getClassLoader(), binding, config);
+            final Class<? extends Script> cachedClass = entry == null ? null
+                    : cache.loadScriptClass(entry, logger.getClass().getClassLoader(), config);
             final Script script;
             try {
-                script = groovyShell.parse(scriptFile);
+                if (cachedClass != null) {
+                    script = InvokerHelper.createScript(cachedClass, binding);
+                } else {
+                    final GroovyShell groovyShell = new GroovyShell(
+                            logger.getClass().getClassLoader(),
+                            binding,
+                            config);
+                    script = groovyShell.parse(scriptFile);
+                }
             } catch (IOException e) {
-                throw new ManipulationException("Unable to parse script");
+                throw new ManipulationException("Unable to parse script", e);
             }
-            final InvocationStage stage;
-            final InvocationPoint invocationPoint = script.getClass().getAnnotation(InvocationPoint.class);
+            final InvocationStage stage = getInvocationStage(logger, script.getClass());
 
             logger.info("For target stage {} attempting to invoke groovy script {}", targetStage, scriptFile);
-            if (invocationPoint != null) {
-                logger.debug("InvocationPoint is {}", invocationPoint.invocationPoint());
-                stage = invocationPoint.invocationPoint();
-            } else {
-                org.commonjava.maven.ext.core.groovy.InvocationPoint legacyInvocationPoint = script.getClass()
-                        .getAnnotation(org.commonjava.maven.ext.core.groovy.InvocationPoint.class);
-                if (legacyInvocationPoint != null) {
-                    logger.warn("Found legacy InvocationPoint {}", legacyInvocationPoint.invocationPoint());
-                    // While they are the 'same' values they are different classes.
-                    stage = InvocationStage.valueOf(legacyInvocationPoint.invocationPoint().getStageValue());
-                } else {
-                    throw new ManipulationException(
-                            "Mandatory annotation '@InvocationPoint(invocationPoint = ' not declared");
-                }
+            if (entry != null) {
+                cache.record(entry, stage);
             }
 
-            if (targetStage == stage || stage == InvocationStage.ALL) {
+            if (isInvoked(targetStage, stage)) {
                 // Inject the values via a new BaseScript so user's can have completion.
                 if (script instanceof BaseScript) {
                     ((BaseScript) script).setValues(
@@ -144,6 +163,47 @@ public class GroovyUtils {
             } else {
                 logger.debug("Ignoring script {} as invocation point {} does not match.", script, stage);
             }
+            final long duration = System.nanoTime() - start;
+            logger.debug("Script {} took {} ms", scriptFile, TimeUnit.NANOSECONDS.toMillis(duration));
+            if (rootProject != null) {
+                ManipulationCache.getCache(rootProject).getTimings().recordScript(scriptFile.getName(), duration);
+            }
+        }
+        if (cache != null) {
+            cache.trim();
+            logger.debug("Groovy script cache statistics {}", cache.getStatistics());
+        }
+    }
+
+    private static File createTempDirectory() {
+        try {
+            final File tmpDir = Files.createTempDirectory("gme-" + UUID.randomUUID()).toFile();
+            tmpDir.deleteOnExit();
+            return tmpDir;
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to create temporary directory", e);
+        }
+    }
+
+    private static boolean isInvoked(InvocationStage targetStage, InvocationStage stage) {
+        return targetStage == stage || stage == InvocationStage.ALL;
+    }
+
+    private static InvocationStage getInvocationStage(Logger logger, Class<?> scriptClass)
+            throws ManipulationException {
+        final InvocationPoint invocationPoint = scriptClass.getAnnotation(InvocationPoint.class);
+
+        if (invocationPoint != null) {
+            logger.debug("InvocationPoint is {}", invocationPoint.invocationPoint());
+            return invocationPoint.invocationPoint();
+        }
+        org.commonjava.maven.ext.core.groovy.InvocationPoint legacyInvocationPoint = scriptClass
+                .getAnnotation(org.commonjava.maven.ext.core.groovy.InvocationPoint.class);
+        if (legacyInvocationPoint != null) {
+            logger.warn("Found legacy InvocationPoint {}", legacyInvocationPoint.invocationPoint());
+            // While they are the 'same' values they are different classes.
+            return InvocationStage.valueOf(legacyInvocationPoint.invocationPoint().getStageValue());
         }
+        throw new ManipulationException("Mandatory annotation '@InvocationPoint(invocationPoint = ' not declared");
     }
 }
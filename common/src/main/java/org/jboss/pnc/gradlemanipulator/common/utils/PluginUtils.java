@@ -2,10 +2,17 @@ package org.jboss.pnc.gradlemanipulator.common.utils;
 
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.nio.charset.Charset;
-import java.util.Collection;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -18,12 +25,11 @@ import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.TrueFileFilter;
-import org.apache.commons.io.filefilter.WildcardFileFilter;
 import org.commonjava.atlas.maven.ident.util.VersionUtils;
 import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
 import org.commonjava.atlas.maven.ident.version.VersionSpec;
 import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
 import org.jboss.pnc.mavenmanipulator.io.FileIO;
 import org.slf4j.Logger;
 
@@ -32,6 +38,12 @@ public class PluginUtils {
 
     public static final String SEMANTIC_BUILD_VERSIONING = "net.vivin.gradle-semantic-build-versioning";
 
+    /**
+     * Directories that are never searched for build files.
+     */
+    private static final Set<String> EXCLUDED_DIRECTORIES = Stream.of("build", ".gradle", "node_modules", ".git")
+            .collect(Collectors.toSet());
+
     static {
         PLUGINS.put(
                 "com.github.ben-manes.versions",
@@ -194,179 +206,279 @@ public class PluginUtils {
             plugins.add("'signing'");
         }
 
+        // Compile the removal rules for every plugin up front so each build file only has to be read, matched
+        // and written once regardless of how many plugins are being removed.
+        final List<PluginRemovalRule> rules = new ArrayList<>(plugins.size());
         for (String plugin : plugins) {
             PluginReference pluginReference = PLUGINS.get(plugin);
-            Set<String> tasks;
-            Set<String> configBlocks;
-            String pluginType;
-            String configureExtension;
-            Set<String> pluginImports;
 
             if (plugin.matches(".signing.")) {
-                configBlocks = Collections.singleton("signing");
-                tasks = Collections.emptySet();
-                pluginType = "SigningPlugin";
-                pluginImports = Collections.emptySet();
-                configureExtension = "SigningExtension";
+                rules.add(
+                        new PluginRemovalRule(
+                                plugin,
+                                Collections.singleton("signing"),
+                                "SigningPlugin",
+                                Collections.emptySet(),
+                                "SigningExtension",
+                                Collections.emptySet()));
             } else if (pluginReference == null) {
                 throw new ManipulationException("No support for removing plugin {}", plugin);
             } else {
-                configBlocks = pluginReference.configBlocks;
-                tasks = pluginReference.tasks;
-                pluginType = pluginReference.type;
-                pluginImports = pluginReference.imports;
-                configureExtension = pluginReference.configureExtension;
+                rules.add(
+                        new PluginRemovalRule(
+                                plugin,
+                                pluginReference.configBlocks,
+                                pluginReference.type,
+                                pluginReference.tasks,
+                                pluginReference.configureExtension,
+                                pluginReference.imports));
             }
+        }
 
-            final Collection<File> files = FileUtils.listFiles(
-                    target,
-                    new WildcardFileFilter("*.gradle", "*.gradle.kts"),
-                    TrueFileFilter.INSTANCE);
-
-            for (File buildFile : files) {
-                try {
-                    List<String> lines = org.apache.commons.io.FileUtils.readLines(buildFile, Charset.defaultCharset());
-                    String eol = getEOL(logger, buildFile);
-
-                    for (int i = 0; i < lines.size(); i++) {
-                        // Special case handling - https://github.com/marcphilipp/nexus-publish-plugin implicitly
-                        // applies the maven-publish plugin so apply it manually to avoid breakages
-                        if (plugin.equals("de.marcphilipp.nexus-publish") &&
-                                lines.get(i).matches("\\s*apply.*" + plugin + ".*")) {
-                            logger.debug("Replacing nexus-publish apply plugin with maven-publish");
-                            if (buildFile.getName().endsWith(".gradle")) {
-                                lines.set(i, "apply plugin: \"maven-publish\"");
-                            } else {
-                                lines.set(i, "apply(plugin = \"maven-publish\")");
-                            }
-                            break;
+        for (File buildFile : findBuildFiles(target)) {
+            try {
+                String content = FileUtils.readFileToString(buildFile, Charset.defaultCharset());
+                String eol = null;
+                boolean modified = false;
+
+                for (PluginRemovalRule rule : rules) {
+                    if (rule.isCandidate(content)) {
+                        if (eol == null) {
+                            eol = getEOL(logger, buildFile);
                         }
-                    }
-                    // Remove the plugin. Plugins can be applied as below with quote variation of ", ', `
-                    // id("...")
-                    // id "..."
-                    // apply plugin: "..."
-                    boolean removed = lines.removeIf(
-                            i -> i.matches(".*([`\"'])" + plugin + "([`\"']).*") &&
-                                    !i.contains("plugins.withId"));
-                    removed |= lines.removeIf(
-                            i -> i.matches(".*\\s+" + plugin + "(\\s|$)+.*")
-                                    && !i.contains("{"));
-
-                    // Remove any task references.
-                    for (String t : tasks) {
-                        // Look for regexp type
-                        if (t.contains("*") || t.contains("+")) {
-                            removed |= lines.removeIf(i -> i.matches(t) && !i.contains("{"));
-                        } else {
-                            removed |= lines.removeIf(i -> i.contains(t) && !i.contains("{"));
+                        String result = rule.apply(logger, buildFile, eol, content);
+                        if (result != null) {
+                            content = result;
+                            modified = true;
                         }
                     }
+                }
+                if (modified) {
+                    FileUtils.writeStringToFile(buildFile, content, Charset.defaultCharset());
+                }
+            } catch (IOException e) {
+                throw new ManipulationException("Unable to read build file {}", buildFile, e);
+            }
+        }
+    }
 
-                    // Remove any imports.
-                    for (String pluginImport : pluginImports) {
-                        removed |= lines.removeIf(i -> i.contains("import " + pluginImport));
-                    }
+    /**
+     * Holds the precompiled matchers required to remove a single plugin from a build file.
+     */
+    private static class PluginRemovalRule {
+        private final String plugin;
 
-                    String content = String.join(eol, lines);
-                    StringBuilder contentBuilder;
-
-                    // Remove any configuration block
-                    for (String configBlock : configBlocks) {
-                        contentBuilder = new StringBuilder(content);
-                        removed |= removeBlock(
-                                logger,
-                                buildFile,
-                                eol,
-                                contentBuilder,
-                                "(?m)(^|project\\.|\\s)+" + configBlock + "(\\s|$)+");
-                        content = contentBuilder.toString();
-                    }
+        private final Set<String> configBlocks;
 
-                    // Remove withType blocks
-                    if (isNotEmpty(pluginType)) {
-                        contentBuilder = new StringBuilder(content);
-                        removed |= removeBlock(
-                                logger,
-                                buildFile,
-                                eol,
-                                contentBuilder,
-                                "plugins.withType<" + pluginType + ">");
-                        removed |= removeBlock(
-                                logger,
-                                buildFile,
-                                eol,
-                                contentBuilder,
-                                "tasks.withType<" + pluginType + ">");
-                        content = contentBuilder.toString();
-                    }
+        private final Pattern pluginPattern;
 
-                    // Remove withId blocks e.g.
-                    // plugins.withId("de.marcphilipp.nexus-publish") { ... }
-                    contentBuilder = new StringBuilder(content);
-                    removed |= removeBlock(
-                            logger,
-                            buildFile,
-                            eol,
-                            contentBuilder,
-                            "plugins.withId\\(\"" + plugin + "\"\\)");
-                    content = contentBuilder.toString();
-
-                    // Remove configure extension blocks e.g.
-                    // configure<NexusPublishExtension> {
-                    if (isNotEmpty(configureExtension)) {
-                        contentBuilder = new StringBuilder(content);
-                        removed |= removeBlock(
-                                logger,
-                                buildFile,
-                                eol,
-                                contentBuilder,
-                                "configure<" + configureExtension + ">");
-                        content = contentBuilder.toString();
-                    }
+        private final Pattern applyPattern;
+
+        private final Pattern quotedPattern;
+
+        private final Pattern unquotedPattern;
+
+        // Tasks mapped to a pattern if they are a regular expression, otherwise to null.
+        private final Map<String, Pattern> tasks = new LinkedHashMap<>();
+
+        private final List<Pattern> taskCandidates = new ArrayList<>();
+
+        private final List<String> imports = new ArrayList<>();
+
+        private final List<String> literalCandidates = new ArrayList<>();
+
+        private final List<Pattern> blocks = new ArrayList<>();
+
+        PluginRemovalRule(
+                String plugin,
+                Set<String> configBlocks,
+                String pluginType,
+                Set<String> tasks,
+                String configureExtension,
+                Set<String> pluginImports) {
+            this.plugin = plugin;
+            this.configBlocks = configBlocks == null ? Collections.emptySet() : configBlocks;
 
+            pluginPattern = Pattern.compile(plugin);
+            // Special case handling - https://github.com/marcphilipp/nexus-publish-plugin implicitly
+            // applies the maven-publish plugin so apply it manually to avoid breakages
+            applyPattern = plugin.equals("de.marcphilipp.nexus-publish")
+                    ? Pattern.compile("\\s*apply.*" + plugin + ".*")
+                    : null;
+            // Plugins can be applied as below with quote variation of ", ', `
+            // id("...")
+            // id "..."
+            // apply plugin: "..."
+            quotedPattern = Pattern.compile(".*([`\"'])" + plugin + "([`\"']).*");
+            unquotedPattern = Pattern.compile(".*\\s+" + plugin + "(\\s|$)+.*");
+
+            // Remove any configuration block
+            for (String configBlock : this.configBlocks) {
+                literalCandidates.add(configBlock);
+                blocks.add(Pattern.compile("(?m)(^|project\\.|\\s)+" + configBlock + "(\\s|$)+"));
+            }
+            // Remove withType blocks
+            if (isNotEmpty(pluginType)) {
+                literalCandidates.add(pluginType);
+                blocks.add(Pattern.compile("plugins.withType<" + pluginType + ">"));
+                blocks.add(Pattern.compile("tasks.withType<" + pluginType + ">"));
+            }
+            // Remove withId blocks e.g.
+            // plugins.withId("de.marcphilipp.nexus-publish") { ... }
+            blocks.add(Pattern.compile("plugins.withId\\(\"" + plugin + "\"\\)"));
+            // Remove configure extension blocks e.g.
+            // configure<NexusPublishExtension> {
+            if (isNotEmpty(configureExtension)) {
+                literalCandidates.add(configureExtension);
+                blocks.add(Pattern.compile("configure<" + configureExtension + ">"));
+            }
+            if (tasks != null) {
+                for (String t : tasks) {
+                    // Look for regexp type
+                    this.tasks.put(t, t.contains("*") || t.contains("+") ? Pattern.compile(t) : null);
+                    taskCandidates.add(Pattern.compile(t, Pattern.MULTILINE));
                     // Remove any multi-line task references e.g.
                     // rootProject.tasks.named("closeAndReleaseRepository") {
-                    for (String t : tasks) {
-                        contentBuilder = new StringBuilder(content);
-                        removed |= removeBlock(
-                                logger,
-                                buildFile,
-                                eol,
-                                contentBuilder,
-                                "(?m)^.*\\(\"" + t + "\"\\)(\\.configure|)");
-                        // Sometimes tasks can be single quoted e.g.
-                        // tasks.named('closeAndReleaseRepository') {
-                        removed |= removeBlock(
-                                logger,
-                                buildFile,
-                                eol,
-                                contentBuilder,
-                                "(?m)^.*\\('" + t + "'\\)(\\.configure|)");
-                        removed |= removeBlock(
-                                logger,
-                                buildFile,
-                                eol,
-                                contentBuilder,
-                                "(?m)^.*named<" + t + ">.*?\\s");
-                        content = contentBuilder.toString();
-                    }
+                    blocks.add(Pattern.compile("(?m)^.*\\(\"" + t + "\"\\)(\\.configure|)"));
+                    // Sometimes tasks can be single quoted e.g.
+                    // tasks.named('closeAndReleaseRepository') {
+                    blocks.add(Pattern.compile("(?m)^.*\\('" + t + "'\\)(\\.configure|)"));
+                    blocks.add(Pattern.compile("(?m)^.*named<" + t + ">.*?\\s"));
+                }
+            }
+            if (pluginImports != null) {
+                for (String pluginImport : pluginImports) {
+                    literalCandidates.add(pluginImport);
+                    imports.add("import " + pluginImport);
+                }
+            }
+        }
 
-                    if (removed) {
-                        logger.info(
-                                "Removed instances of plugin {} with configuration block of {} from {}",
-                                plugin,
-                                String.join(",", configBlocks),
-                                buildFile);
-                        FileUtils.writeStringToFile(buildFile, content, Charset.defaultCharset());
+        /**
+         * Every removal requires either the plugin, one of its tasks or one of the literal block names to be
+         * present so use that as a cheap filter before splitting the file into lines.
+         *
+         * @param content the build file content
+         * @return whether this rule could modify the content
+         */
+        boolean isCandidate(String content) {
+            if (pluginPattern.matcher(content).find()) {
+                return true;
+            }
+            for (String literal : literalCandidates) {
+                if (content.contains(literal)) {
+                    return true;
+                }
+            }
+            for (Pattern task : taskCandidates) {
+                if (task.matcher(content).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Removes the plugin from the content.
+         *
+         * @param logger the current logger in use
+         * @param buildFile the build file the content was read from
+         * @param eol the line ending of the build file
+         * @param content the build file content
+         * @return the updated content or null if nothing was removed
+         * @throws ManipulationException if an error occurs
+         */
+        String apply(Logger logger, File buildFile, String eol, String content) throws ManipulationException {
+            List<String> lines = getLines(content);
+
+            if (applyPattern != null) {
+                for (int i = 0; i < lines.size(); i++) {
+                    if (applyPattern.matcher(lines.get(i)).matches()) {
+                        logger.debug("Replacing nexus-publish apply plugin with maven-publish");
+                        if (buildFile.getName().endsWith(".gradle")) {
+                            lines.set(i, "apply plugin: \"maven-publish\"");
+                        } else {
+                            lines.set(i, "apply(plugin = \"maven-publish\")");
+                        }
+                        break;
                     }
-                } catch (IOException e) {
-                    throw new ManipulationException("Unable to read build file {}", buildFile, e);
                 }
             }
+            // Remove the plugin.
+            boolean removed = lines.removeIf(
+                    i -> quotedPattern.matcher(i).matches() && !i.contains("plugins.withId"));
+            removed |= lines.removeIf(i -> unquotedPattern.matcher(i).matches() && !i.contains("{"));
+
+            // Remove any task references.
+            for (Map.Entry<String, Pattern> t : tasks.entrySet()) {
+                if (t.getValue() != null) {
+                    removed |= lines.removeIf(i -> t.getValue().matcher(i).matches() && !i.contains("{"));
+                } else {
+                    removed |= lines.removeIf(i -> i.contains(t.getKey()) && !i.contains("{"));
+                }
+            }
+
+            // Remove any imports.
+            for (String pluginImport : imports) {
+                removed |= lines.removeIf(i -> i.contains(pluginImport));
+            }
+
+            StringBuilder contentBuilder = new StringBuilder(String.join(eol, lines));
+
+            // Remove any configuration, type, id, extension and multi-line task blocks
+            for (Pattern block : blocks) {
+                removed |= removeBlock(logger, buildFile, eol, contentBuilder, block);
+            }
+
+            if (removed) {
+                logger.info(
+                        "Removed instances of plugin {} with configuration block of {} from {}",
+                        plugin,
+                        String.join(",", configBlocks),
+                        buildFile);
+                return contentBuilder.toString();
+            }
+            return null;
         }
     }
 
+    /**
+     * Locates all Gradle build files (i.e. *.gradle and *.gradle.kts) beneath the target directory, skipping
+     * directories that cannot contain build sources such as build output and version control metadata.
+     *
+     * @param target the build target directory
+     * @return a list of build files
+     * @throws ManipulationException if an error occurs
+     */
+    static List<File> findBuildFiles(File target) throws ManipulationException {
+        final List<File> result = new ArrayList<>();
+        final Path root = target.toPath();
+
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root) && EXCLUDED_DIRECTORIES.contains(dir.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    if (attrs.isRegularFile() && (name.endsWith(".gradle") || name.endsWith(".gradle.kts"))) {
+                        result.add(file.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new ManipulationException("Unable to search for build files in {}", target, e);
+        }
+        return result;
+    }
+
     /**
      * This accessor function allow a Groovy script to retrieve the currently supported
      * list of plugins that may be removed and alter it dynamically.
@@ -400,12 +512,8 @@ public class PluginUtils {
     public static void addLenientLockMode(Logger logger, File target)
             throws ManipulationException {
         final String depLock = "dependencyLocking {";
-        final Collection<File> files = FileUtils.listFiles(
-                target,
-                new WildcardFileFilter("*.gradle", "*.gradle.kts"),
-                TrueFileFilter.INSTANCE);
 
-        for (File buildFile : files) {
+        for (File buildFile : findBuildFiles(target)) {
             boolean removed = false;
             try {
                 List<String> lines = org.apache.commons.io.FileUtils.readLines(buildFile, Charset.defaultCharset());
@@ -444,11 +552,24 @@ public class PluginUtils {
         return eol;
     }
 
-    private static boolean removeBlock(Logger logger, File buildFile, String eol, StringBuilder content, String block)
+    /**
+     * Splits the content into lines in the same manner as {@link FileUtils#readLines(File, Charset)}.
+     *
+     * @param content the file content
+     * @return a modifiable list of lines
+     */
+    private static List<String> getLines(String content) {
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            return reader.lines().collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to split content into lines", e);
+        }
+    }
+
+    private static boolean removeBlock(Logger logger, File buildFile, String eol, StringBuilder content, Pattern pattern)
             throws ManipulationException {
         boolean removed = false;
 
-        Pattern pattern = Pattern.compile(block);
         Matcher m = pattern.matcher(content);
 
         while (m.find()) {
@@ -494,7 +615,7 @@ public class PluginUtils {
             if (bracketCount != 0) {
                 throw new ManipulationException(
                         "Unable to locate block {} to remove within {}",
-                        block,
+                        pattern.pattern(),
                         buildFile);
             }
             logger.debug(
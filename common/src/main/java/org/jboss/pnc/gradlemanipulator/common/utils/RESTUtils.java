@@ -1,14 +1,24 @@
 package org.jboss.pnc.gradlemanipulator.common.utils;
 
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+import java.io.File;
 import lombok.experimental.UtilityClass;
 import org.apache.commons.beanutils.ContextClassLoaderLocal;
 import org.jboss.pnc.gradlemanipulator.common.Configuration;
+import org.jboss.pnc.gradlemanipulator.common.io.OfflineTranslator;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
 import org.jboss.pnc.mavenmanipulator.io.rest.DefaultTranslator;
 import org.jboss.pnc.mavenmanipulator.io.rest.Translator;
 
 @UtilityClass
 public class RESTUtils {
 
+    /**
+     * The {@link Configuration#restMode()} which answers the lookups from an {@link OfflineTranslator} snapshot.
+     */
+    public static final String OFFLINE = "OFFLINE";
+
     private static final ContextClassLoaderLocalWithConfiguration cache = new ContextClassLoaderLocalWithConfiguration();
 
     public static Translator getTranslator(Configuration config) {
@@ -16,21 +26,61 @@ public class RESTUtils {
         return cache.get();
     }
 
+    /**
+     * Creates a new translator rather than returning the shared one, so that concurrent requests do not share a
+     * {@link DefaultTranslator}. The {@link OfflineTranslator} is safe for concurrent use so is always shared.
+     * <p>
+     * Unlike the shared translator, which is also passed to Groovy scripts, this honours
+     * {@link Configuration#restAdaptiveChunking()} as its caller then sizes and retries the requests.
+     *
+     * @param config the current configuration
+     * @return the translator
+     */
+    public static Translator createTranslator(Configuration config) {
+        return isOffline(config) ? getTranslator(config)
+                : createDefaultTranslator(config, config.restAdaptiveChunking());
+    }
+
+    private static Translator createDefaultTranslator(Configuration configuration, boolean adaptive) {
+        // When adaptive the chunks are sized and retried by the caller, which must observe the latency and failures
+        // of each request. Therefore the translator must neither split a chunk up front, split it further on a
+        // failure (the minimum size to split is never reached) nor retry it itself.
+        return new DefaultTranslator(
+                configuration.daEndpoint(),
+                adaptive ? Integer.MAX_VALUE : configuration.restMaxSize(),
+                adaptive ? Integer.MAX_VALUE : Translator.CHUNK_SPLIT_COUNT,
+                configuration.restBrewPullActive(),
+                configuration.restMode(),
+                configuration.restHeaders(),
+                configuration.restConnectionTimeout(),
+                configuration.restSocketTimeout(),
+                adaptive ? 0 : configuration.restRetryDuration());
+    }
+
+    /**
+     * Returns whether the lookups are answered from an offline snapshot rather than the Dependency Analyzer.
+     *
+     * @param config the current configuration
+     * @return true if the rest mode is {@link #OFFLINE}
+     */
+    public static boolean isOffline(Configuration config) {
+        return OFFLINE.equalsIgnoreCase(config.restMode());
+    }
+
     private static class ContextClassLoaderLocalWithConfiguration extends ContextClassLoaderLocal<Translator> {
         Configuration configuration = null;
 
         @Override
         protected Translator initialValue() {
-            return new DefaultTranslator(
-                    configuration.daEndpoint(),
-                    configuration.restMaxSize(),
-                    Translator.CHUNK_SPLIT_COUNT,
-                    configuration.restBrewPullActive(),
-                    configuration.restMode(),
-                    configuration.restHeaders(),
-                    configuration.restConnectionTimeout(),
-                    configuration.restSocketTimeout(),
-                    configuration.restRetryDuration());
+            if (isOffline(configuration)) {
+                if (isEmpty(configuration.restOfflineSnapshot())) {
+                    throw new ManipulationUncheckedException(
+                            "restOfflineSnapshot must be configured for rest mode {}",
+                            OFFLINE);
+                }
+                return OfflineTranslator.open(new File(configuration.restOfflineSnapshot()));
+            }
+            return createDefaultTranslator(configuration, false);
         }
     }
 }
@@ -3,9 +3,10 @@ package org.jboss.pnc.gradlemanipulator.common.utils;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializerProvider;
@@ -37,16 +38,45 @@ public final class SerializationUtils {
         return mapper;
     }
 
+    /**
+     * Reads the fields directly from the token stream rather than materializing a tree for every GAV.
+     */
     private static class ProjectVersionRefDeserializer extends JsonDeserializer<ProjectVersionRef> {
 
         @Override
         public ProjectVersionRef deserialize(JsonParser p, DeserializationContext ctxt)
                 throws IOException {
-            JsonNode node = p.getCodec().readTree(p);
-            final String groupId = node.get(GROUP_ID).asText();
-            final String artifactId = node.get(ARTIFACT_ID).asText();
-            final String version = node.get(VERSION).asText();
+            String groupId = null;
+            String artifactId = null;
+            String version = null;
 
+            JsonToken token = p.getCurrentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            }
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                final String field = p.getCurrentName();
+                p.nextToken();
+                switch (field) {
+                    case GROUP_ID:
+                        groupId = p.getValueAsString();
+                        break;
+                    case ARTIFACT_ID:
+                        artifactId = p.getValueAsString();
+                        break;
+                    case VERSION:
+                        version = p.getValueAsString();
+                        break;
+                    default:
+                        p.skipChildren();
+                        break;
+                }
+            }
+            if (groupId == null || artifactId == null || version == null) {
+                throw JsonMappingException.from(
+                        p,
+                        "Expected " + GROUP_ID + ", " + ARTIFACT_ID + " and " + VERSION + " for a ProjectVersionRef");
+            }
             return ProjectVersionFactory.withGAV(groupId, artifactId, version);
         }
     }
@@ -0,0 +1,195 @@
+package org.jboss.pnc.gradlemanipulator.common.versioning;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+
+/**
+ * Build scoped pool of canonical GAVs which is stored in the root project extensions.
+ * <p>
+ * The same coordinates are otherwise held as separate {@link ProjectVersionRef} and {@link RelaxedProjectVersionRef}
+ * instances by every module of the {@link ManipulationModel}, the scanned dependencies and lock file entries of every
+ * project and the alignment results, as are the {@link String} keys of the aligned dependencies of every module.
+ * Interning them so that each distinct GAV is held once reduces the heap used for builds with many modules sharing
+ * the same dependencies (see {@code GAVPoolTest} for a comparison of the retained objects).
+ * <p>
+ * The first instance of each GAV to be interned becomes the canonical one. Refs are pooled by their exact group,
+ * artifact and version strings so that interning never changes a version.
+ */
+public final class GAVPool {
+
+    private static final String NAME_PREFIX = "gavPool";
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, ProjectVersionRef> refs = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, RelaxedProjectVersionRef> relaxedRefs = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    GAVPool() {
+    }
+
+    /**
+     * Retrieves the pool for the build that the given project belongs to, creating it if required.
+     *
+     * @param project the {@link Project} reference.
+     * @return the GAVPool object.
+     */
+    public static GAVPool getPool(Project project) {
+        ExtraPropertiesExtension extra = project.getRootProject().getExtensions().getExtraProperties();
+
+        synchronized (GAVPool.class) {
+            if (!extra.has(NAME_PREFIX)) {
+                extra.set(NAME_PREFIX, new GAVPool());
+            }
+            return (GAVPool) extra.get(NAME_PREFIX);
+        }
+    }
+
+    /**
+     * Returns the canonical instance of the string.
+     *
+     * @param value the string, which may be null
+     * @return the canonical instance
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        return canonical(strings, value, value);
+    }
+
+    /**
+     * Returns the canonical instance of the GAV.
+     *
+     * @param pvr the GAV, which may be null
+     * @return the canonical instance
+     */
+    public ProjectVersionRef intern(ProjectVersionRef pvr) {
+        if (pvr == null) {
+            return null;
+        }
+        final Key key = new Key(pvr.getGroupId(), pvr.getArtifactId(), pvr.getVersionString());
+        if (pvr.getClass() == SimpleProjectVersionRef.class) {
+            return canonical(refs, key, pvr);
+        }
+        // Subtypes (e.g. artifact refs) have their own equality so are only used to create a plain ref.
+        final ProjectVersionRef existing = refs.get(key);
+        if (existing != null) {
+            hits.incrementAndGet();
+            return existing;
+        }
+        return canonical(refs, key, new SimpleProjectVersionRef(key.group, key.artifact, key.version));
+    }
+
+    /**
+     * Returns the canonical instance of the GAV. As versionless refs are rare they are not pooled.
+     *
+     * @param pvr the GAV, which may be null
+     * @return the canonical instance
+     */
+    public RelaxedProjectVersionRef intern(RelaxedProjectVersionRef pvr) {
+        if (pvr == null || pvr.asProjectVersionRef() == null) {
+            return pvr;
+        }
+        return canonical(relaxedRefs, new Key(pvr.getGroupId(), pvr.getArtifactId(), pvr.getVersionString()), pvr);
+    }
+
+    /**
+     * Returns a copy of the dependencies with canonical keys and values, retaining the iteration order.
+     *
+     * @param dependencies the dependencies
+     * @return the interned dependencies
+     */
+    public Map<RelaxedProjectVersionRef, ProjectVersionRef> intern(
+            Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies) {
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> result = new LinkedHashMap<>(dependencies.size() * 2);
+        dependencies.forEach((d, pvr) -> result.put(intern(d), intern(pvr)));
+        return result;
+    }
+
+    /**
+     * Replaces the aligned dependencies of the model and all of its children with canonical instances.
+     *
+     * @param model the model
+     */
+    public void intern(ManipulationModel model) {
+        final Map<String, ProjectVersionRef> aligned = model.getAlignedDependencies();
+        if (!aligned.isEmpty()) {
+            final Map<String, ProjectVersionRef> interned = new TreeMap<>();
+            aligned.forEach((key, pvr) -> interned.put(intern(key), intern(pvr)));
+            aligned.clear();
+            aligned.putAll(interned);
+        }
+        // Unlike values() this does not create a view retained by each module's map.
+        model.getChildren().forEach((name, child) -> intern(child));
+    }
+
+    /**
+     * Replaces the GAVs and versions of the alignment results with canonical instances, retaining the map.
+     *
+     * @param versions the aligned versions keyed by GAV
+     */
+    public void internVersions(Map<ProjectVersionRef, String> versions) {
+        if (versions.isEmpty()) {
+            return;
+        }
+        final Map<ProjectVersionRef, String> interned = new HashMap<>(versions.size() * 2);
+        versions.forEach((pvr, version) -> interned.put(intern(pvr), intern(version)));
+        versions.clear();
+        versions.putAll(interned);
+    }
+
+    /**
+     * Returns the statistics for reporting.
+     *
+     * @return the number of distinct strings and GAVs held and the number of duplicates replaced
+     */
+    public Map<String, Long> getStatistics() {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        result.put("strings", (long) strings.size());
+        result.put("gavs", (long) refs.size());
+        result.put("relaxedGavs", (long) relaxedRefs.size());
+        result.put("duplicatesReplaced", hits.get());
+        return result;
+    }
+
+    /**
+     * Returns the number of entries held by the pool.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return strings.size() + refs.size() + relaxedRefs.size();
+    }
+
+    private <K, V> V canonical(ConcurrentMap<K, V> pool, K key, V value) {
+        final V existing = pool.putIfAbsent(key, value);
+        if (existing == null) {
+            return value;
+        }
+        hits.incrementAndGet();
+        return existing;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final String group;
+        private final String artifact;
+        private final String version;
+    }
+}
@@ -0,0 +1,48 @@
+package org.jboss.pnc.gradlemanipulator.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class AlignmentTimingsTest {
+
+    @Test
+    public void verifySlowestConfigurations() {
+        final AlignmentTimings timings = new AlignmentTimings();
+        timings.recordConfiguration(":a", "compileClasspath", TimeUnit.MILLISECONDS.toNanos(5), 10);
+        timings.recordConfiguration(":a", "runtimeClasspath", TimeUnit.MILLISECONDS.toNanos(20), 30);
+        timings.recordConfiguration(":b", "compileClasspath", TimeUnit.MILLISECONDS.toNanos(10), 3);
+        timings.recordConfiguration(":b", "compileClasspath", TimeUnit.MILLISECONDS.toNanos(10), 4);
+
+        final List<AlignmentTimings.ConfigurationTiming> slowest = timings.getSlowestConfigurations(2);
+
+        assertThat(slowest.stream().map(c -> c.getProject() + " " + c.getName()).collect(Collectors.toList()))
+                .containsExactly(":a runtimeClasspath", ":b compileClasspath");
+        assertThat(slowest.get(1).getMillis()).isEqualTo(20);
+        assertThat(slowest.get(1).getCount()).isEqualTo(2);
+        assertThat(slowest.get(1).getEdges()).isEqualTo(4);
+        assertThat(timings.getSlowestConfigurations(10)).hasSize(3);
+    }
+
+    @Test
+    public void verifySerialization() {
+        final AlignmentTimings timings = new AlignmentTimings();
+        timings.recordPhase("restLookup", TimeUnit.MILLISECONDS.toNanos(7));
+        timings.recordPhase("restLookup", TimeUnit.MILLISECONDS.toNanos(3));
+        timings.recordProject(":a", TimeUnit.MILLISECONDS.toNanos(50));
+        timings.recordConfiguration(":a", "compileClasspath", TimeUnit.MILLISECONDS.toNanos(40), 12);
+
+        final JsonNode json = new ObjectMapper().valueToTree(timings);
+
+        assertThat(json.at("/phases/restLookup/millis").asLong()).isEqualTo(10);
+        assertThat(json.at("/phases/restLookup/count").asInt()).isEqualTo(2);
+        assertThat(json.at("/projects/:a/millis").asLong()).isEqualTo(50);
+        assertThat(json.at("/projects/:a/configurations/compileClasspath/edges").asInt()).isEqualTo(12);
+        assertThat(json.at("/projects/:a/configurations/compileClasspath/name").isMissingNode()).isTrue();
+    }
+}
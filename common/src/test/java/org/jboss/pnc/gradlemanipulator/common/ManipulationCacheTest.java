@@ -0,0 +1,71 @@
+package org.jboss.pnc.gradlemanipulator.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ManipulationCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyConcurrentCompletion() throws Exception {
+        final Project rootProject = ProjectBuilder.builder().withProjectDir(tempDir.newFolder()).build();
+        final List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            projects.add(ProjectBuilder.builder().withParent(rootProject).withName("sub" + i).build());
+        }
+        final ManipulationCache cache = ManipulationCache.getCache(rootProject);
+        projects.forEach(cache::addProject);
+
+        final List<Project> shuffled = new ArrayList<>(projects);
+        Collections.shuffle(shuffled);
+
+        final AtomicInteger completed = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (Project p : shuffled) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    cache.addDependencies(p, Collections.emptyMap());
+                    cache.addGAV(p, new SimpleProjectVersionRef("org.acme", p.getName(), "1.0"));
+                    if (cache.removeProject(p)) {
+                        completed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(completed.get()).isEqualTo(1);
+        assertThat(cache.getDependencies().keySet()).containsExactlyElementsOf(
+                projects.stream().sorted().collect(Collectors.toList()));
+        assertThat(cache.getProjectVersionRefs(true).stream().map(r -> r.getArtifactId()))
+                .containsExactlyElementsOf(
+                        projects.stream().map(Project::getName).sorted().collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,150 @@
+package org.jboss.pnc.gradlemanipulator.common.groovy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import groovy.lang.Binding;
+import groovy.lang.Script;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.apache.commons.io.FileUtils;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.jboss.pnc.mavenmanipulator.core.groovy.InvocationStage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class GroovyScriptCacheTest {
+
+    private static final String SCRIPT = "class Helper { String value() { [1, 2].collect { it * 2 }.toString() } }\n"
+            + "return new Helper().value()\n";
+
+    private final Logger logger = LoggerFactory.getLogger(GroovyScriptCacheTest.class);
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyCompiledClassesReused() throws IOException {
+        final File cacheDir = tempDir.newFolder("cache");
+        final File scriptFile = tempDir.newFile("gme.groovy");
+        FileUtils.writeStringToFile(scriptFile, SCRIPT, StandardCharsets.UTF_8);
+
+        final GroovyScriptCache cache = new GroovyScriptCache(logger, cacheDir, 0, 10);
+        final GroovyScriptCache.Entry entry = cache.resolve(scriptFile.getPath());
+        assertThat(entry.getInvocationStage()).isNull();
+
+        final Class<? extends Script> compiled = cache.loadScriptClass(entry, getClass().getClassLoader(), config());
+        assertThat(InvokerHelper.createScript(compiled, new Binding()).run()).isEqualTo("[2, 4]");
+        cache.record(entry, InvocationStage.FIRST);
+        assertThat(cache.getCompilations()).isEqualTo(1);
+
+        // A later run loads the classes without compiling and knows the invocation point up front.
+        final GroovyScriptCache later = new GroovyScriptCache(logger, cacheDir, 0, 10);
+        final GroovyScriptCache.Entry cached = later.resolve(scriptFile.getPath());
+        assertThat(cached.getInvocationStage()).isEqualTo(InvocationStage.FIRST);
+
+        final Class<? extends Script> loaded = later.loadScriptClass(cached, getClass().getClassLoader(), config());
+        assertThat(loaded.getName()).isEqualTo(compiled.getName());
+        assertThat(loaded).isNotSameAs(compiled);
+        assertThat(InvokerHelper.createScript(loaded, new Binding()).run()).isEqualTo("[2, 4]");
+        assertThat(later.getCompilations()).isZero();
+        assertThat(later.getCompilationsAvoided()).isEqualTo(1);
+
+        // A different compiler configuration is compiled separately.
+        final CompilerConfiguration disabled = config();
+        disabled.setDisabledGlobalASTTransformations(
+                Collections.singleton("groovy.grape.GrabAnnotationTransformation"));
+        later.loadScriptClass(cached, getClass().getClassLoader(), disabled);
+        assertThat(later.getCompilations()).isEqualTo(1);
+    }
+
+    @Test
+    public void verifyChangedContentDiscarded() throws IOException {
+        final File cacheDir = tempDir.newFolder("cache");
+        final File scriptFile = tempDir.newFile("gme.groovy");
+        FileUtils.writeStringToFile(scriptFile, SCRIPT, StandardCharsets.UTF_8);
+
+        final GroovyScriptCache cache = new GroovyScriptCache(logger, cacheDir, 0, 10);
+        final GroovyScriptCache.Entry entry = cache.resolve(scriptFile.getPath());
+        cache.loadScriptClass(entry, getClass().getClassLoader(), config());
+        cache.record(entry, InvocationStage.LAST);
+
+        FileUtils.writeStringToFile(scriptFile, "return 'changed'\n", StandardCharsets.UTF_8);
+
+        final GroovyScriptCache.Entry changed = cache.resolve(scriptFile.getPath());
+        assertThat(changed.getInvocationStage()).isNull();
+        assertThat(FileUtils.readFileToString(changed.getSource(), StandardCharsets.UTF_8))
+                .isEqualTo("return 'changed'\n");
+
+        final Class<? extends Script> loaded = cache.loadScriptClass(changed, getClass().getClassLoader(), config());
+        assertThat(InvokerHelper.createScript(loaded, new Binding()).run()).isEqualTo("changed");
+        assertThat(cache.getCompilations()).isEqualTo(2);
+    }
+
+    @Test
+    public void verifyLeastRecentlyUsedEvicted() throws IOException {
+        final File cacheDir = tempDir.newFolder("cache");
+        final GroovyScriptCache cache = new GroovyScriptCache(logger, cacheDir, 0, 1);
+
+        final File first = tempDir.newFile("first.groovy");
+        FileUtils.writeStringToFile(first, SCRIPT, StandardCharsets.UTF_8);
+        final File second = tempDir.newFile("second.groovy");
+        FileUtils.writeStringToFile(second, SCRIPT, StandardCharsets.UTF_8);
+
+        final File evicted = cache.resolve(first.getPath()).getSource().getParentFile();
+        assertThat(new File(evicted, GroovyScriptCache.METADATA).setLastModified(0)).isTrue();
+        final File retained = cache.resolve(second.getPath()).getSource().getParentFile();
+
+        cache.trim();
+
+        assertThat(evicted).doesNotExist();
+        assertThat(retained).isDirectory();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void verifyUnwritableDirectoryIgnored() throws IOException {
+        // A file in place of the cache directory cannot be written to, even when running as root.
+        final File cacheDir = tempDir.newFile("cache");
+        final File scriptFile = tempDir.newFile("gme.groovy");
+        FileUtils.writeStringToFile(scriptFile, SCRIPT, StandardCharsets.UTF_8);
+
+        final GroovyScriptCache cache = new GroovyScriptCache(logger, cacheDir, 0, 10);
+
+        assertThat(cache.resolve(scriptFile.getPath())).isNull();
+        assertThat(cacheDir).isFile();
+        cache.trim();
+        assertThat(cache.getEvictions()).isZero();
+    }
+
+    @Test
+    public void verifyFailingClassStoreIgnored() throws IOException {
+        final File cacheDir = tempDir.newFolder("cache");
+        final File scriptFile = tempDir.newFile("gme.groovy");
+        FileUtils.writeStringToFile(scriptFile, SCRIPT, StandardCharsets.UTF_8);
+
+        final GroovyScriptCache cache = new GroovyScriptCache(logger, cacheDir, 0, 10);
+        final GroovyScriptCache.Entry entry = cache.resolve(scriptFile.getPath());
+
+        // Replace the metadata with a non-empty directory so that recording the compiled classes fails.
+        final File metadata = new File(entry.getSource().getParentFile(), GroovyScriptCache.METADATA);
+        assertThat(metadata.delete()).isTrue();
+        assertThat(new File(metadata, "blocker").mkdirs()).isTrue();
+
+        assertThat(cache.loadScriptClass(entry, getClass().getClassLoader(), config())).isNull();
+        assertThat(cache.getCompilations()).isEqualTo(1);
+
+        // The entry cannot be recorded so later runs fall back to the uncached path as well.
+        final GroovyScriptCache later = new GroovyScriptCache(logger, cacheDir, 0, 10);
+        assertThat(later.resolve(scriptFile.getPath())).isNull();
+    }
+
+    private static CompilerConfiguration config() {
+        return new CompilerConfiguration();
+    }
+}
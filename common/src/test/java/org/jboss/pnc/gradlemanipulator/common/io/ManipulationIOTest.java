@@ -0,0 +1,44 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ManipulationIOTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyPreviousGenerationKept() throws IOException, ManipulationException {
+        final File root = tempDir.newFolder("root");
+
+        ManipulationIO.writeManipulationModel(root, createModel("1.0.0.redhat-00001"), false, true);
+        assertThat(new File(root, ManipulationIO.PREVIOUS_MANIPULATION_FILE_NAME)).doesNotExist();
+
+        ManipulationIO.writeManipulationModel(root, createModel("1.0.0.redhat-00002"), false, true);
+
+        assertThat(ManipulationIO.readManipulationModel(root).getVersion()).isEqualTo("1.0.0.redhat-00002");
+        final File previous = tempDir.newFolder("previous");
+        assertThat(
+                new File(root, ManipulationIO.PREVIOUS_MANIPULATION_FILE_NAME)
+                        .renameTo(new File(previous, ManipulationIO.MANIPULATION_FILE_NAME)))
+                .isTrue();
+        assertThat(ManipulationIO.readManipulationModel(previous).getVersion()).isEqualTo("1.0.0.redhat-00001");
+
+        // Only the model remains ; no temporary files are left behind.
+        assertThat(root.list()).containsExactly(ManipulationIO.MANIPULATION_FILE_NAME);
+    }
+
+    private static ManipulationModel createModel(String version) {
+        final ManipulationModel model = ManipulationModel.Builder.build("root", "root", "org.acme");
+        model.setVersion(version);
+        return model;
+    }
+}
@@ -0,0 +1,69 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ManipulationModelCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyModelSharedBetweenProjects() throws IOException {
+        final File root = tempDir.newFolder("root");
+        FileUtils.writeStringToFile(
+                new File(root, ManipulationIO.MANIPULATION_FILE_NAME),
+                "{\"group\":\"org.acme\",\"name\":\"root\",\"version\":\"1.0.0.redhat-00001\","
+                        + "\"children\":{\"sub\":{\"group\":\"org.acme\",\"name\":\"sub\",\"projectPathName\":\"sub\","
+                        + "\"version\":\"1.0.0.redhat-00001\"}}}",
+                StandardCharsets.UTF_8);
+
+        final Project rootProject = ProjectBuilder.builder().withProjectDir(root).withName("root").build();
+        final Project subProject = ProjectBuilder.builder()
+                .withParent(rootProject)
+                .withProjectDir(new File(root, "sub"))
+                .withName("sub")
+                .build();
+
+        final ManipulationModel rootModel = ManipulationModelCache.readManipulationModel(rootProject);
+        final ManipulationModel subModel = ManipulationModelCache.readManipulationModel(subProject);
+
+        assertThat(subModel).isSameAs(rootModel);
+        assertThat(subModel.findCorrespondingChild(subProject.getPath()).getName()).isEqualTo("sub");
+        assertThat(ManipulationModelCache.getCache(subProject).getReads()).isEqualTo(1);
+    }
+
+    @Test
+    public void verifyStaleModelReloaded() throws IOException {
+        final File root = tempDir.newFolder("root");
+        final File manipulationFile = new File(root, ManipulationIO.MANIPULATION_FILE_NAME);
+        FileUtils.writeStringToFile(
+                manipulationFile,
+                "{\"group\":\"org.acme\",\"name\":\"root\",\"version\":\"1.0.0.redhat-00001\"}",
+                StandardCharsets.UTF_8);
+
+        final Project rootProject = ProjectBuilder.builder().withProjectDir(root).withName("root").build();
+
+        assertThat(ManipulationModelCache.readManipulationModel(rootProject).getVersion())
+                .isEqualTo("1.0.0.redhat-00001");
+
+        FileUtils.writeStringToFile(
+                manipulationFile,
+                "{\"group\":\"org.acme\",\"name\":\"root\",\"version\":\"1.0.0.redhat-00002-changed\"}",
+                StandardCharsets.UTF_8);
+
+        assertThat(ManipulationModelCache.readManipulationModel(rootProject).getVersion())
+                .isEqualTo("1.0.0.redhat-00002-changed");
+        assertThat(ManipulationModelCache.getCache(rootProject).getReads()).isEqualTo(2);
+    }
+}
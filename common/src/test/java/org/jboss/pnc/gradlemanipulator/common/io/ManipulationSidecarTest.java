@@ -0,0 +1,105 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ManipulationSidecarTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyModulesRead() throws IOException, ManipulationException {
+        final File root = tempDir.newFolder("root");
+        ManipulationIO.writeManipulationModel(root, createModel(), true);
+
+        final ManipulationSidecar sidecar = ManipulationSidecar.open(root);
+        assertThat(sidecar).isNotNull();
+
+        final ManipulationModel rootModule = sidecar.readModule(":");
+        assertThat(rootModule.getName()).isEqualTo("root");
+        assertThat(rootModule.getVersion()).isEqualTo("1.0.0.redhat-00001");
+        assertThat(rootModule.getOriginalVersion()).isEqualTo("1.0.0");
+        assertThat(rootModule.getChildren()).isEmpty();
+
+        final ManipulationModel nested = sidecar.readModule(":sub:nested");
+        assertThat(nested.getProjectPathName()).isEqualTo("nested");
+        assertThat(nested.getGroup()).isNull();
+        assertThat(nested.getAlignedDependencies()).containsEntry(
+                "org.acme:a:1.0",
+                withGAV("org.acme", "a", "1.0.redhat-00001"));
+
+        assertThat(sidecar.readModule(":missing")).isNull();
+    }
+
+    @Test
+    public void verifyStaleIgnored() throws IOException, ManipulationException {
+        final File root = tempDir.newFolder("root");
+        ManipulationIO.writeManipulationModel(root, createModel(), true);
+
+        final File json = new File(root, ManipulationIO.MANIPULATION_FILE_NAME);
+        FileUtils.writeStringToFile(
+                json,
+                FileUtils.readFileToString(json, StandardCharsets.UTF_8).replace("00001", "00002"),
+                StandardCharsets.UTF_8);
+
+        assertThat(ManipulationSidecar.open(root)).isNull();
+
+        ManipulationIO.writeManipulationModel(root, createModel());
+        assertThat(new File(root, ManipulationSidecar.SIDECAR_FILE_NAME)).doesNotExist();
+    }
+
+    @Test
+    public void verifyCacheUsesSidecar() throws IOException, ManipulationException {
+        final File root = tempDir.newFolder("root");
+        ManipulationIO.writeManipulationModel(root, createModel(), true);
+
+        final Project rootProject = ProjectBuilder.builder().withProjectDir(root).withName("root").build();
+        final Project subProject = ProjectBuilder.builder()
+                .withParent(rootProject)
+                .withProjectDir(new File(root, "sub"))
+                .withName("sub")
+                .build();
+
+        assertThat(ManipulationModelCache.readCorrespondingModule(subProject).getName()).isEqualTo("sub");
+        assertThat(ManipulationModelCache.readCorrespondingModule(subProject))
+                .isSameAs(ManipulationModelCache.readCorrespondingModule(subProject));
+        assertThat(ManipulationModelCache.getCache(rootProject).getReads()).isZero();
+
+        // Without a sidecar the full model is read.
+        ManipulationIO.writeManipulationModel(root, createModel());
+        assertThat(new File(root, ManipulationIO.MANIPULATION_FILE_NAME).setLastModified(0)).isTrue();
+
+        assertThat(ManipulationModelCache.readCorrespondingModule(subProject).getChildren()).containsKey("nested");
+        assertThat(ManipulationModelCache.getCache(rootProject).getReads()).isEqualTo(1);
+    }
+
+    private static ManipulationModel createModel() {
+        final ManipulationModel root = ManipulationModel.Builder.build("root", "root", "org.acme");
+        root.setVersion("1.0.0.redhat-00001");
+        root.setOriginalVersion("1.0.0");
+
+        final ManipulationModel sub = ManipulationModel.Builder.build("sub", "sub", "org.acme");
+        sub.setVersion("1.0.0.redhat-00001");
+        root.addChild(sub);
+
+        final ManipulationModel nested = ManipulationModel.Builder.build("nested", "nested", null);
+        nested.setVersion("1.0.0.redhat-00001");
+        nested.getAlignedDependencies().put("org.acme:a:1.0", withGAV("org.acme", "a", "1.0.redhat-00001"));
+        sub.addChild(nested);
+
+        return root;
+    }
+}
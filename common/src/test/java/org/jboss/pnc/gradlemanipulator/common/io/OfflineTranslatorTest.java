@@ -0,0 +1,79 @@
+package org.jboss.pnc.gradlemanipulator.common.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.mavenmanipulator.common.exception.ManipulationUncheckedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OfflineTranslatorTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyLookups() throws IOException {
+        final Map<ProjectVersionRef, String> dependencies = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            dependencies.put(withGAV("org.acme.g" + i % 7, "a" + i, "1." + i), "1." + i + ".redhat-00001");
+        }
+        // Non-ASCII keys are ordered by their unsigned UTF-8 bytes.
+        dependencies.put(withGAV("org.\u00e4cme", "a", "1.0"), "1.0.redhat-00002");
+        final ProjectVersionRef project = withGAV("org.acme", "root", "1.0");
+        final File snapshot = tempDir.newFile("snapshot.bin");
+
+        OfflineTranslator.write(
+                snapshot,
+                dependencies,
+                Collections.singletonMap(project, "1.0.0.redhat-00003"));
+
+        final OfflineTranslator translator = OfflineTranslator.open(snapshot);
+
+        assertThat(translator.lookupVersions(new ArrayList<>(dependencies.keySet())))
+                .isEqualTo(dependencies);
+
+        final ProjectVersionRef missing = withGAV("org.acme.g1", "a1", "2.0");
+        assertThat(translator.lookupVersions(Arrays.asList(withGAV("org.\u00e4cme", "a", "1.0"), missing)))
+                .containsOnlyKeys(withGAV("org.\u00e4cme", "a", "1.0"));
+        // The project versions are held separately.
+        assertThat(translator.lookupVersions(Collections.singletonList(project))).isEmpty();
+        assertThat(translator.lookupProjectVersions(Arrays.asList(project, missing)))
+                .containsExactly(entry(project, "1.0.0.redhat-00003"));
+    }
+
+    @Test
+    public void verifyEmptySnapshot() throws IOException {
+        final File snapshot = tempDir.newFile("snapshot.bin");
+        OfflineTranslator.write(snapshot, Collections.emptyMap(), Collections.emptyMap());
+
+        assertThat(
+                OfflineTranslator.open(snapshot)
+                        .lookupVersions(Collections.singletonList(withGAV("org.acme", "a", "1.0"))))
+                .isEmpty();
+    }
+
+    @Test
+    public void verifyInvalidSnapshot() throws IOException {
+        final File snapshot = tempDir.newFile("snapshot.bin");
+        FileUtils.writeStringToFile(snapshot, "not a snapshot", StandardCharsets.UTF_8);
+
+        assertThatExceptionOfType(ManipulationUncheckedException.class)
+                .isThrownBy(() -> OfflineTranslator.open(snapshot));
+        assertThatExceptionOfType(ManipulationUncheckedException.class)
+                .isThrownBy(() -> OfflineTranslator.open(new File(tempDir.getRoot(), "missing.bin")));
+    }
+}
@@ -48,6 +48,18 @@ public class GMLoggerTest {
         assertTrue(systemOutRule.getLinesNormalized().contains("Test logging at debug"));
     }
 
+    @Test
+    public void callerLocation() {
+        Configuration c = ConfigCache.getOrCreate(Configuration.class);
+        c.reload();
+
+        Logger logger = GMLogger.getLogger(this.getClass());
+        logger.debug("Test logging with {}", "location");
+
+        assertTrue(systemOutRule.getLinesNormalized().contains("[GMLoggerTest.java:"));
+        assertTrue(systemOutRule.getLinesNormalized().contains("Test logging with location"));
+    }
+
     @Test
     public void checkContext() {
         assertNotNull(FilteringCustomLogger.getContext());
@@ -0,0 +1,42 @@
+package org.jboss.pnc.gradlemanipulator.common.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.junit.Test;
+
+public class AlignedDependencyIndexTest {
+
+    @Test
+    public void verifyLookup() {
+        final Map<String, ProjectVersionRef> alignedDependencies = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            alignedDependencies.put("org.acme:a" + i + ":1.0", withGAV("org.acme", "a" + i, "1.0.redhat-00001"));
+        }
+        // Unversioned entries are not indexed.
+        alignedDependencies.put("org.acme:b", withGAV("org.acme", "b", "2.0.redhat-00001"));
+
+        final AlignedDependencyIndex index = new AlignedDependencyIndex(alignedDependencies);
+
+        assertThat(index.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(index.get("org.acme", "a" + i, "1.0"))
+                    .isEqualTo(withGAV("org.acme", "a" + i, "1.0.redhat-00001"));
+        }
+        assertThat(index.get("org.acme", "a1", "1.1")).isNull();
+        assertThat(index.get("org.acme", "a1000", "1.0")).isNull();
+        assertThat(index.get("org.acme", "b", "")).isNull();
+        assertThat(index.get(null, "a1", "1.0")).isNull();
+    }
+
+    @Test
+    public void verifyEmpty() {
+        final AlignedDependencyIndex index = new AlignedDependencyIndex(new TreeMap<>());
+
+        assertThat(index.size()).isZero();
+        assertThat(index.get("org.acme", "a", "1.0")).isNull();
+    }
+}
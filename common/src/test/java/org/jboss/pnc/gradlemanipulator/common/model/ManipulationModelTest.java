@@ -73,6 +73,29 @@ public class ManipulationModelTest {
         assertThat(model.findCorrespondingChild(":child1:child11:child111")).isEqualTo(child111);
     }
 
+    @Test
+    public void findCorrespondingChildAfterAddingChild() {
+        ManipulationModel model = ManipulationModel.Builder.build("root", "root", "bar");
+        final ManipulationModel child = ManipulationModel.Builder.build("child1", "child1", "bar");
+        model.addChild(child);
+        final ManipulationModel child11 = ManipulationModel.Builder.build("child11", "child11", "bar");
+        child.addChild(child11);
+
+        assertThat(model.findCorrespondingChild(":child1:child11")).isEqualTo(child11);
+        assertThatExceptionOfType(ManipulationUncheckedException.class)
+                .isThrownBy(() -> model.findCorrespondingChild(":child1:child11:child111"))
+                .withMessage("ManipulationModel 'child111' does not exist");
+
+        // Adding to a descendant must discard the index of the root.
+        final ManipulationModel child111 = ManipulationModel.Builder.build("child111", "child111", "bar");
+        child11.addChild(child111);
+        assertThat(model.findCorrespondingChild(":child1:child11:child111")).isEqualTo(child111);
+
+        final ManipulationModel child2 = ManipulationModel.Builder.build("child2", "child2", "bar");
+        model.addChild(child2);
+        assertThat(model.findCorrespondingChild(":child2")).isEqualTo(child2);
+    }
+
     @Test
     public void getAllAlignedDependencies() {
         final ManipulationModel root = ManipulationModel.Builder.build("root", "root", "bar");
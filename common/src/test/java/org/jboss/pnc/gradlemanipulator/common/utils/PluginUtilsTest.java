@@ -1254,6 +1254,73 @@ public class PluginUtilsTest {
                                         + "    }\n"));
     }
 
+    @Test
+    public void testRemovalSkipsNonCandidates()
+            throws IOException, ManipulationException {
+
+        File root = folder.getRoot();
+        File target = folder.newFile("build.gradle");
+        org.apache.commons.io.FileUtils.writeStringToFile(
+                target,
+                "plugins {\n" + "    id \"io.codearte.nexus-staging\"\n" + "}\n" + "\n"
+                        + "apply plugin: 'java'\n",
+                Charset.defaultCharset());
+        // Only holds the configuration block of the plugin so must still be a candidate.
+        File block = new File(root, "block/build.gradle");
+        String blockContent = "apply plugin: 'java'\r\n" + "\r\n" + "nexusStaging {\r\n"
+                + "    packageGroup = \"org.acme\"\r\n" + "}\r\n";
+        FileUtils.writeStringToFile(block, blockContent, Charset.defaultCharset());
+        // Mentions none of the plugin, its tasks or its blocks so is rejected before being split into lines.
+        File unrelated = new File(root, "unrelated/build.gradle");
+        String unrelatedContent = "apply plugin: 'java'\r\n" + "\r\n" + "dependencies {\r\n"
+                + "    implementation \"org.acme:nexus:1.0\"\r\n" + "}\r\n";
+        FileUtils.writeStringToFile(unrelated, unrelatedContent, Charset.defaultCharset());
+        long lastModified = unrelated.lastModified() - 10000;
+        assertTrue(unrelated.setLastModified(lastModified));
+
+        PluginUtils.pluginRemoval(logger, root, Collections.singleton("io.codearte.nexus-staging"));
+
+        assertEquals(
+                "plugins {\n" + "}\n" + "\n" + "apply plugin: 'java'",
+                FileUtils.readFileToString(target, Charset.defaultCharset()));
+        assertEquals(
+                "apply plugin: 'java'\r\n",
+                FileUtils.readFileToString(block, Charset.defaultCharset()));
+        assertEquals(unrelatedContent, FileUtils.readFileToString(unrelated, Charset.defaultCharset()));
+        assertEquals(lastModified, unrelated.lastModified());
+    }
+
+    @Test
+    public void testRemovalSkipsExcludedDirectories()
+            throws IOException, ManipulationException {
+
+        File root = folder.getRoot();
+        String content = "plugins {\n" + "    id \"io.codearte.nexus-staging\"\n" + "}\n";
+        String expected = "plugins {\n" + "}";
+        File target = folder.newFile("build.gradle");
+        FileUtils.writeStringToFile(target, content, Charset.defaultCharset());
+        // A directory is only excluded when its name matches exactly.
+        File buildSrc = new File(root, "buildSrc/build.gradle");
+        FileUtils.writeStringToFile(buildSrc, content, Charset.defaultCharset());
+        File[] excluded = new File[] {
+                new File(root, "build/tmp/build.gradle"),
+                new File(root, ".gradle/init.gradle"),
+                new File(root, "node_modules/module/build.gradle"),
+                new File(root, ".git/build.gradle"),
+                new File(root, "sub/build/build.gradle.kts") };
+        for (File file : excluded) {
+            FileUtils.writeStringToFile(file, content, Charset.defaultCharset());
+        }
+
+        PluginUtils.pluginRemoval(logger, root, Collections.singleton("io.codearte.nexus-staging"));
+
+        assertEquals(expected, FileUtils.readFileToString(target, Charset.defaultCharset()));
+        assertEquals(expected, FileUtils.readFileToString(buildSrc, Charset.defaultCharset()));
+        for (File file : excluded) {
+            assertEquals(file.toString(), content, FileUtils.readFileToString(file, Charset.defaultCharset()));
+        }
+    }
+
     @Test
     public void testParseDokkaVersion() throws ManipulationException {
         assertEquals(PluginUtils.DokkaVersion.parseVersion("0.9.17"), PluginUtils.DokkaVersion.MINIMUM);
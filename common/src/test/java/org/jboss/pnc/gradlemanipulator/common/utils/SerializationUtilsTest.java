@@ -0,0 +1,51 @@
+package org.jboss.pnc.gradlemanipulator.common.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.junit.Test;
+
+public class SerializationUtilsTest {
+
+    @Test
+    public void verifyRoundTrip() throws IOException {
+        final ManipulationModel model = ManipulationModel.Builder.build("root", "root", "org.acme");
+        model.setVersion("1.0.0.redhat-00001");
+        final Map<String, ProjectVersionRef> aligned = new TreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            aligned.put("org.acme:a" + i + ":1.0", withGAV("org.acme", "a" + i, "1.0.redhat-00001"));
+        }
+        model.getAlignedDependencies().putAll(aligned);
+
+        final ManipulationModel result = SerializationUtils.getObjectMapper()
+                .readValue(SerializationUtils.getObjectMapper().writeValueAsString(model), ManipulationModel.class);
+
+        assertThat(result.getAlignedDependencies()).isEqualTo(aligned);
+        assertThat(result.getVersion()).isEqualTo("1.0.0.redhat-00001");
+    }
+
+    @Test
+    public void verifyDeserializeFieldOrderAndUnknownFields() throws IOException {
+        final ProjectVersionRef result = SerializationUtils.getObjectMapper()
+                .readValue(
+                        "{\"version\":\"1.0\",\"extra\":{\"nested\":[1,2]},\"artifactId\":\"a\","
+                                + "\"groupId\":\"org.acme\"}",
+                        ProjectVersionRef.class);
+
+        assertThat(result).isEqualTo(withGAV("org.acme", "a", "1.0"));
+    }
+
+    @Test
+    public void verifyDeserializeMissingField() {
+        assertThatExceptionOfType(JsonMappingException.class).isThrownBy(
+                () -> SerializationUtils.getObjectMapper()
+                        .readValue("{\"groupId\":\"org.acme\",\"version\":\"1.0\"}", ProjectVersionRef.class));
+    }
+}
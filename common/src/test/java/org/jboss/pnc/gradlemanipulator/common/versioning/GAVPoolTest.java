@@ -0,0 +1,152 @@
+package org.jboss.pnc.gradlemanipulator.common.versioning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
+import org.junit.Test;
+
+public class GAVPoolTest {
+
+    @Test
+    public void verifyCanonicalInstances() {
+        final GAVPool pool = new GAVPool();
+
+        final ProjectVersionRef first = pool.intern(withGAV("org.acme", "a", "1.0"));
+        final ProjectVersionRef second = pool.intern(withGAV("org.acme", "a", "1.0"));
+
+        assertThat(second).isSameAs(first).isEqualTo(withGAV("org.acme", "a", "1.0"));
+        // Refs are pooled by their exact version string.
+        assertThat(pool.intern(withGAV("org.acme", "a", "1.0.0")).getVersionString()).isEqualTo("1.0.0");
+
+        final String group = new String("org.acme");
+        assertThat(pool.intern(group)).isSameAs(group);
+        assertThat(pool.intern(new String("org.acme"))).isSameAs(group);
+
+        final RelaxedProjectVersionRef relaxed = new RelaxedProjectVersionRef(withGAV("org.acme", "a", "1.0"));
+        assertThat(pool.intern(relaxed)).isSameAs(relaxed);
+        assertThat(pool.intern(new RelaxedProjectVersionRef(withGAV("org.acme", "a", "1.0")))).isSameAs(relaxed);
+
+        assertThat(pool.intern((ProjectVersionRef) null)).isNull();
+        assertThat(pool.getStatistics()).containsEntry("gavs", 2L)
+                .containsEntry("relaxedGavs", 1L)
+                .containsEntry("duplicatesReplaced", 3L);
+    }
+
+    @Test
+    public void verifyFirstInstanceIsCanonical() {
+        final GAVPool pool = new GAVPool();
+        final ProjectVersionRef first = withGAV("org.acme", "a", "1.0");
+
+        assertThat(pool.intern(first)).isSameAs(first);
+        assertThat(pool.intern(withGAV("org.acme", "a", "1.0"))).isSameAs(first);
+        assertThat(pool.getStatistics()).containsEntry("duplicatesReplaced", 1L);
+    }
+
+    /**
+     * Compares the objects retained by the dependencies of a synthetic build of 100 modules which each have the same
+     * 100 dependencies (10,000 edges) with and without the pool. The objects held by the pool itself (an entry and a
+     * key for each canonical instance) are included in the pooled count.
+     */
+    @Test
+    public void verifyRetainedObjects() {
+        final GAVPool pool = new GAVPool();
+        final List<Map<RelaxedProjectVersionRef, ProjectVersionRef>> unpooled = new ArrayList<>();
+        final List<Map<RelaxedProjectVersionRef, ProjectVersionRef>> pooled = new ArrayList<>();
+
+        for (int module = 0; module < 100; module++) {
+            final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = new LinkedHashMap<>();
+            for (int dependency = 0; dependency < 100; dependency++) {
+                dependencies.put(
+                        new RelaxedProjectVersionRef(
+                                withGAV(new String("org.acme"), "artifact-" + dependency, new String("1.0"))),
+                        withGAV(new String("org.acme"), "artifact-" + dependency, new String("1.0.redhat-00001")));
+            }
+            unpooled.add(dependencies);
+            pooled.add(pool.intern(dependencies));
+        }
+
+        final int unpooledObjects = retainedObjects(unpooled);
+        final int pooledObjects = retainedObjects(pooled) + pool.size() * 2;
+
+        assertThat(pool.getStatistics()).containsEntry("gavs", 100L).containsEntry("relaxedGavs", 100L);
+        assertThat(pooledObjects).isLessThanOrEqualTo(unpooledObjects / 5);
+    }
+
+    private static int retainedObjects(List<Map<RelaxedProjectVersionRef, ProjectVersionRef>> modules) {
+        final Set<Object> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+        int entries = 0;
+        for (Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies : modules) {
+            entries += dependencies.size();
+            dependencies.forEach((relaxed, pvr) -> {
+                objects.add(relaxed);
+                objects.add(relaxed.getGroupId());
+                objects.add(relaxed.getArtifactId());
+                objects.add(relaxed.getVersionString());
+                objects.add(pvr);
+                objects.add(pvr.getGroupId());
+                objects.add(pvr.getArtifactId());
+                objects.add(pvr.getVersionString());
+            });
+        }
+        return entries + objects.size();
+    }
+
+    @Test
+    public void verifyVersions() {
+        final GAVPool pool = new GAVPool();
+        final ProjectVersionRef first = pool.intern(withGAV("org.acme", "a", "1.0"));
+        final String version = pool.intern(new String("1.0.redhat-00001"));
+        final Map<ProjectVersionRef, String> versions = new HashMap<>();
+        versions.put(withGAV("org.acme", "a", "1.0"), new String("1.0.redhat-00001"));
+
+        pool.internVersions(versions);
+
+        assertThat(versions).containsOnlyKeys(first).containsEntry(first, "1.0.redhat-00001");
+        assertThat(versions.keySet().iterator().next()).isSameAs(first);
+        assertThat(versions.values().iterator().next()).isSameAs(version);
+
+        final Map<ProjectVersionRef, String> empty = Collections.emptyMap();
+        pool.internVersions(empty);
+        assertThat(empty).isEmpty();
+    }
+
+    @Test
+    public void verifyModelAndDependencies() {
+        final Project project = ProjectBuilder.builder().build();
+        final GAVPool pool = GAVPool.getPool(project);
+        assertThat(GAVPool.getPool(project)).isSameAs(pool);
+
+        final ManipulationModel root = ManipulationModel.Builder.build(project);
+        final ManipulationModel child = ManipulationModel.Builder.build(project);
+        root.getAlignedDependencies().put("org.acme:a:1.0", withGAV("org.acme", "a", "1.0.redhat-00001"));
+        child.getAlignedDependencies().put("org.acme:a:1.0", withGAV("org.acme", "a", "1.0.redhat-00001"));
+        root.getChildren().put("child", child);
+
+        pool.intern(root);
+
+        assertThat(child.getAlignedDependencies().get("org.acme:a:1.0"))
+                .isSameAs(root.getAlignedDependencies().get("org.acme:a:1.0"));
+
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = new LinkedHashMap<>();
+        dependencies.put(
+                new RelaxedProjectVersionRef(withGAV("org.acme", "a", "1.0")),
+                withGAV("org.acme", "a", "1.0.redhat-00001"));
+
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> interned = pool.intern(dependencies);
+
+        assertThat(interned).isEqualTo(dependencies);
+        assertThat(interned.values().iterator().next()).isSameAs(root.getAlignedDependencies().get("org.acme:a:1.0"));
+    }
+}
@@ -16,6 +16,7 @@ import org.gradle.api.publish.maven.plugins.MavenPublishPlugin;
 import org.gradle.plugins.signing.SigningExtension;
 import org.jboss.pnc.gradlemanipulator.common.Configuration;
 import org.jboss.pnc.gradlemanipulator.common.io.ManipulationIO;
+import org.jboss.pnc.gradlemanipulator.common.io.ManipulationModelCache;
 import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
 import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
 import org.jboss.pnc.gradlemanipulator.common.utils.ProjectUtils;
@@ -90,9 +91,9 @@ public class ManipulationPlugin implements Plugin<Project> {
             return;
         }
 
-        // get the previously performed alignment
-        final ManipulationModel correspondingModule = ManipulationIO.readManipulationModel(project.getRootDir())
-                .findCorrespondingChild(project.getPath());
+        // get the previously performed alignment ; the model is parsed once per build and shared between projects
+        // unless a binary sidecar allows only the corresponding module to be read
+        final ManipulationModel correspondingModule = ManipulationModelCache.readCorrespondingModule(project);
 
         if (!project.getVersion().equals(correspondingModule.getVersion())) {
             // we need to change the project version early so various tasks that ready early and create other vars based on it
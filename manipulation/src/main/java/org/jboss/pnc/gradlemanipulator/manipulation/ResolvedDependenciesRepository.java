@@ -9,10 +9,13 @@ import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
 /**
  * Used in order to record the dependencies that don't have a declared version, but a version
  * that is determined at runtime (by a BOM or the Spring Dependency Management Plugin for example)
+ * <p>
+ * The versions are indexed by group and then name so that they may be recorded and retrieved without creating a
+ * {@link ProjectRef}.
  */
 public class ResolvedDependenciesRepository {
 
-    private final Map<ProjectRef, String> gaToVersion = new HashMap<>();
+    private final Map<String, Map<String, String>> gaToVersion = new HashMap<>();
 
     private final Logger logger = GMLogger.getLogger(getClass());
 
@@ -23,8 +26,19 @@ public class ResolvedDependenciesRepository {
      * @param version the version
      */
     public void record(ProjectRef projectRef, String version) {
-        logger.debug("Recording resolved dependency {}", projectRef);
-        gaToVersion.put(projectRef, version);
+        record(projectRef.getGroupId(), projectRef.getArtifactId(), version);
+    }
+
+    /**
+     * Records a dependency which does not have a declared version.
+     *
+     * @param group the group of the dependency
+     * @param name the name of the dependency
+     * @param version the version
+     */
+    public void record(String group, String name, String version) {
+        logger.debug("Recording resolved dependency {}:{}", group, name);
+        gaToVersion.computeIfAbsent(group, g -> new HashMap<>()).put(name, version);
     }
 
     /**
@@ -34,6 +48,18 @@ public class ResolvedDependenciesRepository {
      * @return the version
      */
     public String get(ProjectRef projectRef) {
-        return gaToVersion.get(projectRef);
+        return get(projectRef.getGroupId(), projectRef.getArtifactId());
+    }
+
+    /**
+     * Gets the version of the given dependency.
+     *
+     * @param group the group of the dependency
+     * @param name the name of the dependency
+     * @return the version
+     */
+    public String get(String group, String name) {
+        final Map<String, String> names = gaToVersion.get(group);
+        return names == null ? null : names.get(name);
     }
 }
@@ -1,26 +1,28 @@
 package org.jboss.pnc.gradlemanipulator.manipulation.actions;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
-import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
 
-import java.util.Map;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
-import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.DependencyResolveDetails;
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.logging.Logger;
 import org.jboss.pnc.gradlemanipulator.common.logging.GMLogger;
+import org.jboss.pnc.gradlemanipulator.common.model.AlignedDependencyIndex;
 import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
 import org.jboss.pnc.gradlemanipulator.manipulation.ResolvedDependenciesRepository;
 
 /**
  * Aligned dependency resolver action.
+ * <p>
+ * As this is invoked for every dependency of every configuration the aligned dependencies of the module are indexed
+ * once on creation so that each lookup does not allocate.
  *
  * @author <a href="claprun@redhat.com">Christophe Laprun</a>
  */
 public class AlignedDependencyResolverAction implements Action<DependencyResolveDetails> {
     private final ManipulationModel module;
+    private final AlignedDependencyIndex alignedDependencies;
     private final ResolvedDependenciesRepository resolvedDependenciesRepository;
 
     private final Logger logger = GMLogger.getLogger(getClass());
@@ -35,6 +37,7 @@ public class AlignedDependencyResolverAction implements Action<DependencyResolve
             ManipulationModel module,
             ResolvedDependenciesRepository resolvedDependenciesRepository) {
         this.module = module;
+        this.alignedDependencies = new AlignedDependencyIndex(module.getAlignedDependencies());
         this.resolvedDependenciesRepository = resolvedDependenciesRepository;
     }
 
@@ -55,29 +58,25 @@ public class AlignedDependencyResolverAction implements Action<DependencyResolve
             } else {
                 version = resolveDetails.getTarget().getVersion();
                 if (!isEmpty(version)) {
-                    resolvedDependenciesRepository.record(
-                            new SimpleProjectRef(
-                                    requested.getGroup(),
-                                    requested.getName()),
-                            version);
+                    resolvedDependenciesRepository.record(requested.getGroup(), requested.getName(), version);
                 }
             }
         }
 
-        final ProjectVersionRef requestedGAV = withGAV(requested.getGroup(), requested.getName(), version);
-        final Map<String, ProjectVersionRef> alignedDependencies = module.getAlignedDependencies();
-        final String key = requestedGAV.toString();
-        final ProjectVersionRef aligned = alignedDependencies.get(key);
+        final ProjectVersionRef aligned = alignedDependencies.get(requested.getGroup(), requested.getName(), version);
 
         if (aligned != null) {
+            final String key = requested.getGroup() + ':' + requested.getName() + ':' + version;
             logger.info("Overriding dependency {} with new version {}", key, aligned);
             resolveDetails.because(key + " is aligned to " + aligned).useVersion(aligned.getVersionString());
-        } else {
+        } else if (logger.isTraceEnabled()) {
             logger.trace(
-                    "Unable to find a mapping for {} in module {} with alignedDependencies {}",
-                    key,
+                    "Unable to find a mapping for {}:{}:{} in module {} with alignedDependencies {}",
+                    requested.getGroup(),
+                    requested.getName(),
+                    version,
                     module.getName(),
-                    alignedDependencies);
+                    module.getAlignedDependencies());
         }
     }
 }
@@ -3,7 +3,6 @@ package org.jboss.pnc.gradlemanipulator.manipulation.actions;
 import static org.jboss.pnc.gradlemanipulator.common.versioning.ProjectVersionFactory.withGAV;
 
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
-import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.gradle.api.Action;
 import org.gradle.api.XmlProvider;
 import org.jboss.pnc.gradlemanipulator.common.model.ManipulationModel;
@@ -93,7 +92,7 @@ public class MavenPomTransformerAction
                 continue;
             }
             if (version == null) {
-                version = resolvedDependenciesRepository.get(new SimpleProjectRef(group, name));
+                version = resolvedDependenciesRepository.get(group, name);
                 if (version == null) {
                     continue;
                 }
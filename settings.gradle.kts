@@ -1,3 +1,8 @@
 rootProject.name = "gradle-manipulator"
 
 include("analyzer", "cli", "common", "manipulation")
+
+// The JMH benchmarks are not part of the default build ; include them with -Pbenchmarks
+if (startParameter.projectProperties.containsKey("benchmarks")) {
+    include("benchmarks")
+}